@@ -29,6 +29,7 @@ import grondag.canvas.CanvasMod;
 import grondag.canvas.apiimpl.rendercontext.CanvasBlockRenderContext;
 import grondag.canvas.apiimpl.rendercontext.CanvasEntityBlockRenderContext;
 import grondag.canvas.apiimpl.rendercontext.CanvasItemRenderContext;
+import grondag.canvas.apiimpl.rendercontext.TerrainQuadCache;
 import grondag.canvas.config.Configurator;
 import grondag.canvas.material.property.TextureMaterialState;
 import grondag.canvas.perf.ChunkRebuildCounters;
@@ -41,7 +42,10 @@ import grondag.canvas.shader.GlShaderManager;
 import grondag.canvas.shader.MaterialProgram;
 import grondag.canvas.shader.PreReleaseShaderCompat;
 import grondag.canvas.shader.data.ShaderDataManager;
+import grondag.canvas.terrain.occlusion.geometry.OcclusionResultCache;
 import grondag.canvas.terrain.region.input.PackedInputRegion;
+import grondag.canvas.terrain.region.input.SectionLightCache;
+import grondag.canvas.terrain.util.BlockStateTable;
 import grondag.canvas.terrain.util.ChunkColorCache;
 
 public class CanvasState {
@@ -70,6 +74,10 @@ public class CanvasState {
 	public static void reload() {
 		CanvasMod.LOG.info(I18n.get("info.canvas.reloading"));
 		PackedInputRegion.reload();
+		BlockStateTable.reload();
+		SectionLightCache.clear();
+		OcclusionResultCache.clear();
+		TerrainQuadCache.clear();
 		CanvasBlockRenderContext.reload();
 		CanvasEntityBlockRenderContext.reload();
 		CanvasItemRenderContext.reload();
@@ -64,6 +64,7 @@ public class CanvasTerrainRenderContext extends BlockRenderContext<BlockAndTintG
 	protected final RenderRegionContext<BlockAndTintGetter> bakedListenerContext;
 
 	public final TerrainQuadEncoder encoder;
+	private final TerrainQuadCache.Recorder quadRecorder = new TerrainQuadCache.Recorder();
 
 	@SuppressWarnings("unchecked")
 	public CanvasTerrainRenderContext() {
@@ -97,6 +98,9 @@ public class CanvasTerrainRenderContext extends BlockRenderContext<BlockAndTintG
 	};
 
 	protected class InputContext extends BaseBlockInputContext<BlockAndTintGetter> implements RenderRegionContext<BlockAndTintGetter> {
+		/** True while capturing quads for the cache, which must include faces culled at this position. */
+		private boolean captureAllFaces;
+
 		@Override
 		protected int fastBrightness(BlockPos pos) {
 			return region.cachedBrightness(pos);
@@ -129,6 +133,10 @@ public class CanvasTerrainRenderContext extends BlockRenderContext<BlockAndTintG
 
 		@Override
 		protected boolean shouldRenderFace(Direction face, BlockPos offsetPos) {
+			if (captureAllFaces) {
+				return true;
+			}
+
 			// We exploit the geometry analysis that happens during chunk baking to skip
 			// rendering of faces that cannot be visible because they are inside closed-off areas.
 			return !region.isClosed(region.blockIndex(offsetPos.getX(), offsetPos.getY(), offsetPos.getZ())) && Block.shouldRenderFace(blockState, blockView, blockPos, face, offsetPos);
@@ -179,20 +187,61 @@ public class CanvasTerrainRenderContext extends BlockRenderContext<BlockAndTintG
 	public void renderBlock(BlockState blockState, BlockPos blockPos, final BakedModel model) {
 		aoCalc.prepare(PackedSectionPos.packWithSectionMask(blockPos));
 		prepareForBlock(model, blockState, blockPos);
+
+		if (Configurator.cacheTerrainQuads) {
+			final int slot = quadRecorder.slot(model, blockState, blockPos);
+
+			if (slot >= 0) {
+				renderCached(blockState, blockPos, model, slot);
+				return;
+			}
+		}
+
 		renderInner((BlockModel) model);
 	}
 
 	private void renderInner(final BlockModel model) {
 		try {
 			model.renderAsBlock(this.inputContext, emitter());
-		} catch (final Throwable var9) {
-			final CrashReport crashReport_1 = CrashReport.forThrowable(var9, "Tesselating block in world - Canvas Renderer");
-			final CrashReportCategory crashReportElement_1 = crashReport_1.addCategory("Block being tesselated");
-			CrashReportCategory.populateBlockDetails(crashReportElement_1, region, inputContext.pos(), inputContext.blockState());
-			throw new ReportedException(crashReport_1);
+		} catch (final Throwable e) {
+			throw tesselationError(e);
+		}
+	}
+
+	private void renderCached(BlockState blockState, BlockPos blockPos, BakedModel model, int slot) {
+		final TerrainQuadCache cache = TerrainQuadCache.get();
+
+		try {
+			TerrainQuadCache.Entry entry = cache.get(blockState, slot);
+
+			if (entry == null) {
+				final InputContext input = (InputContext) inputContext;
+				input.captureAllFaces = true;
+
+				try {
+					((BlockModel) model).renderAsBlock(input, quadRecorder.emitter);
+				} finally {
+					input.captureAllFaces = false;
+				}
+
+				entry = cache.put(blockState, slot, quadRecorder);
+				// face culling results cached during capture are not valid for this position
+				prepareForBlock(model, blockState, blockPos);
+			}
+
+			quadRecorder.replay(entry, emitter);
+		} catch (final Throwable e) {
+			throw tesselationError(e);
 		}
 	}
 
+	private ReportedException tesselationError(Throwable e) {
+		final CrashReport crashReport_1 = CrashReport.forThrowable(e, "Tesselating block in world - Canvas Renderer");
+		final CrashReportCategory crashReportElement_1 = crashReport_1.addCategory("Block being tesselated");
+		CrashReportCategory.populateBlockDetails(crashReportElement_1, region, inputContext.pos(), inputContext.blockState());
+		return new ReportedException(crashReport_1);
+	}
+
 	@Override
 	protected void shadeQuad() {
 		emitter.colorize(inputContext);
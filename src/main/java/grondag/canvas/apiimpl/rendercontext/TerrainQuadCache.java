@@ -0,0 +1,240 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.apiimpl.rendercontext;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.client.resources.model.BakedModel;
+import net.minecraft.client.resources.model.MultiPartBakedModel;
+import net.minecraft.client.resources.model.SimpleBakedModel;
+import net.minecraft.client.resources.model.WeightedBakedModel;
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.RandomSource;
+import net.minecraft.util.random.WeightedEntry;
+import net.minecraft.world.level.block.state.BlockState;
+
+import io.vram.frex.api.material.RenderMaterial;
+import io.vram.frex.base.renderer.mesh.BaseQuadEmitter;
+import io.vram.frex.base.renderer.mesh.MeshEncodingHelper;
+import io.vram.frex.base.renderer.mesh.RootQuadEmitter;
+
+import grondag.canvas.mixinterface.MultiPartBakedModelExt;
+import grondag.canvas.mixinterface.WeightedBakedModelExt;
+
+/**
+ * Untransformed quads of static vanilla block models, captured the first time a
+ * block state (and weighted variant) is meshed and replayed for every later instance.
+ * Saves model lookup and transcoding of vanilla quads on every block.
+ *
+ * <p>Only plain simple, weighted and multipart models built from simple models are
+ * cached. Their output depends only on state and variant. Every other model class,
+ * including all FREX dynamic models, renders normally.
+ *
+ * <p>Quads are captured before material mapping, culling, shading and offset, and
+ * replayed through the context emitter so those still happen per instance.
+ *
+ * <p>Sprite ids and models change with resources, so the cache is replaced on
+ * renderer reload. Workers that still hold the prior instance write to it harmlessly.
+ */
+public final class TerrainQuadCache {
+	private static final int QUAD_STRIDE = MeshEncodingHelper.TOTAL_MESH_QUAD_STRIDE;
+
+	private static volatile TerrainQuadCache current = new TerrainQuadCache();
+
+	private final ConcurrentHashMap<BlockState, AtomicReferenceArray<Entry>> map = new ConcurrentHashMap<>();
+	// called for every block from all workers so counters are striped
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final AtomicLong byteCount = new AtomicLong();
+
+	private TerrainQuadCache() { }
+
+	/** Cache for the current resources. Callers should hold the result for the duration of a block. */
+	public static TerrainQuadCache get() {
+		return current;
+	}
+
+	public static void clear() {
+		current = new TerrainQuadCache();
+	}
+
+	public static String debugReport() {
+		final TerrainQuadCache cache = current;
+		final long hits = cache.hitCount.sum();
+		final long total = hits + cache.missCount.sum();
+
+		return String.format("Quad cache: %d states %4.1fMb hit rate: %.1f%%",
+				cache.map.size(), cache.byteCount.get() / 1048576f, total == 0 ? 0f : hits * 100f / total);
+	}
+
+	static final class Entry {
+		private final int[] data;
+		private final RenderMaterial[] materials;
+
+		private Entry(int[] data, RenderMaterial[] materials) {
+			this.data = data;
+			this.materials = materials;
+		}
+
+		private int byteCount() {
+			return data.length * 4 + materials.length * 4 + 32;
+		}
+	}
+
+	/** Cached quads for the slot, or null if not yet captured. */
+	@Nullable
+	Entry get(BlockState state, int slot) {
+		final AtomicReferenceArray<Entry> slots = map.get(state);
+		final Entry result = slots == null ? null : slots.get(slot);
+		(result == null ? missCount : hitCount).increment();
+		return result;
+	}
+
+	/** Stores quads captured by the recorder for the slot last computed by it. */
+	Entry put(BlockState state, int slot, Recorder recorder) {
+		final Entry entry = recorder.toEntry();
+		AtomicReferenceArray<Entry> slots = map.get(state);
+
+		if (slots == null) {
+			slots = new AtomicReferenceArray<>(recorder.slotCount);
+			final AtomicReferenceArray<Entry> prior = map.putIfAbsent(state, slots);
+
+			if (prior != null) {
+				slots = prior;
+			}
+		}
+
+		// another worker may have captured the same slot concurrently - either result is valid
+		if (slots.compareAndSet(slot, null, entry)) {
+			byteCount.addAndGet(entry.byteCount());
+		}
+
+		return entry;
+	}
+
+	/** Per-worker capture and replay state. Not thread-safe. */
+	static final class Recorder {
+		private final RandomSource random = RandomSource.create();
+		private final IntArrayList quadData = new IntArrayList();
+		private final ObjectArrayList<RenderMaterial> materials = new ObjectArrayList<>();
+		private int slotCount;
+
+		/** Passed to the model in place of the context emitter when capturing. */
+		final CaptureEmitter emitter = new CaptureEmitter();
+
+		class CaptureEmitter extends RootQuadEmitter {
+			{
+				data = new int[QUAD_STRIDE];
+				material(RenderMaterial.defaultMaterial());
+			}
+
+			@Override
+			public CaptureEmitter emit() {
+				complete();
+				quadData.addElements(quadData.size(), data, 0, QUAD_STRIDE);
+				materials.add(material());
+				clear();
+				return this;
+			}
+		}
+
+		/**
+		 * Cache slot for the model at this position, or -1 if the model is not
+		 * a static vanilla model. Slot is the selected variant for weighted models.
+		 */
+		int slot(BakedModel model, BlockState state, BlockPos pos) {
+			final Class<?> type = model.getClass();
+
+			if (type == SimpleBakedModel.class) {
+				slotCount = 1;
+				return 0;
+			}
+
+			if (type == MultiPartBakedModel.class) {
+				for (final var selector : ((MultiPartBakedModelExt) model).canvas_selectors()) {
+					if (selector.getRight().getClass() != SimpleBakedModel.class) {
+						return -1;
+					}
+				}
+
+				slotCount = 1;
+				return 0;
+			}
+
+			if (type == WeightedBakedModel.class) {
+				final WeightedBakedModelExt weighted = (WeightedBakedModelExt) model;
+				final List<WeightedEntry.Wrapper<BakedModel>> variants = weighted.canvas_variants();
+				final int limit = variants.size();
+
+				for (int i = 0; i < limit; ++i) {
+					if (variants.get(i).getData().getClass() != SimpleBakedModel.class) {
+						return -1;
+					}
+				}
+
+				// same selection as WeightedBakedModel.getQuads with the seed used for block rendering
+				random.setSeed(state.getSeed(pos));
+				int weight = Math.abs((int) random.nextLong()) % weighted.canvas_totalWeight();
+
+				for (int i = 0; i < limit; ++i) {
+					weight -= variants.get(i).getWeight().asInt();
+
+					if (weight < 0) {
+						slotCount = limit;
+						return i;
+					}
+				}
+			}
+
+			return -1;
+		}
+
+		private Entry toEntry() {
+			final Entry result = new Entry(quadData.toIntArray(), materials.toArray(new RenderMaterial[materials.size()]));
+			quadData.clear();
+			materials.clear();
+			return result;
+		}
+
+		/** Emits cached quads through the target so material mapping, culling, shading and offsets apply as usual. */
+		void replay(Entry entry, BaseQuadEmitter target) {
+			final int[] source = entry.data;
+			final RenderMaterial[] mats = entry.materials;
+			final int limit = mats.length;
+			// capture emitter has no offset so its vertex start is the header length
+			final int headerInts = emitter.vertexStart();
+
+			for (int i = 0; i < limit; ++i) {
+				System.arraycopy(source, i * QUAD_STRIDE, target.data(), target.vertexStart() - headerInts, QUAD_STRIDE);
+				target.material(mats[i]);
+				target.emit();
+			}
+		}
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.buffer.format;
+
+import static grondag.canvas.buffer.format.CanvasVertexFormats.BASE_RGBA_4UB;
+import static grondag.canvas.buffer.format.CanvasVertexFormats.BASE_TEX_2US;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.mojang.blaze3d.vertex.VertexFormatElement;
+
+import net.minecraft.util.Mth;
+
+import grondag.canvas.buffer.render.TransferBuffer;
+
+/**
+ * Smaller terrain format used for GPU storage when compact terrain vertices are enabled.
+ *
+ * <p>Quads are still encoded and collected in {@link TerrainEncoder#TERRAIN_MATERIAL}
+ * so that sorting and merging see a single format. Vertices are converted only
+ * as they are copied to transfer buffers for upload.
+ *
+ * <p>Positions are 16-bit fixed point at 1/2048 block, relative to a region-sized cell
+ * of the sector with an 8-block margin. The normal is octahedral and the tangent is an
+ * angle around it, which makes room for full color, texture and AO precision.
+ * Block and sky light keep the top six bits, which is exact for vanilla smooth lighting.
+ */
+public class CompactTerrainEncoder {
+	private CompactTerrainEncoder() { }
+
+	private static final CanvasVertexFormatElement POS_MATERIAL = new CanvasVertexFormatElement(VertexFormatElement.Type.USHORT, 4, "in_pos_material", false, true);
+	private static final CanvasVertexFormatElement NORMAL_TANGENT_AO = new CanvasVertexFormatElement(VertexFormatElement.Type.UBYTE, 4, "in_normal_tangent_ao", false, true);
+	private static final CanvasVertexFormatElement SECTOR_LIGHT = new CanvasVertexFormatElement(VertexFormatElement.Type.INT, 1, "in_sector_light", false, true);
+
+	public static final CanvasVertexFormat COMPACT_TERRAIN_MATERIAL = new CanvasVertexFormat(
+			POS_MATERIAL,
+			BASE_RGBA_4UB,
+			BASE_TEX_2US,
+			NORMAL_TANGENT_AO,
+			SECTOR_LIGHT);
+
+	private static final int SOURCE_STRIDE = TerrainEncoder.TERRAIN_MATERIAL.vertexStrideInts;
+	private static final int TARGET_STRIDE = COMPACT_TERRAIN_MATERIAL.vertexStrideInts;
+
+	/** Vertices converted per transfer buffer write. */
+	private static final int BATCH_VERTEX_COUNT = 256;
+
+	private static final int POSITION_UNITS_PER_BLOCK = 2048;
+	private static final int CELL_MARGIN_BLOCKS = 8;
+	/** Sector-relative integer coordinates in the source format are offset by this amount. */
+	private static final int SECTOR_PADDING = 63;
+	private static final int SOURCE_FRACTION_UNITS = 0xFFFF;
+	private static final float ANGLE_UNITS_PER_RADIAN = (float) (256 / (2 * Math.PI));
+
+	static {
+		assert SOURCE_STRIDE == 7 && TARGET_STRIDE == 6 : "Compact terrain conversion doesn't match vertex formats";
+	}
+
+	/** Bytes needed to store vertices that occupy the given number of bytes in {@link TerrainEncoder#TERRAIN_MATERIAL}. */
+	public static int storageBytes(int terrainBytes) {
+		return terrainBytes / TerrainEncoder.TERRAIN_MATERIAL.vertexStrideBytes * COMPACT_TERRAIN_MATERIAL.vertexStrideBytes;
+	}
+
+	/**
+	 * Wraps a transfer buffer sized with {@link #storageBytes(int)} so that vertices written to it
+	 * in {@link TerrainEncoder#TERRAIN_MATERIAL} are stored in compact format. Offsets and lengths
+	 * passed to {@link TransferBuffer#put(int[], int, int, int)} remain in source format ints.
+	 * Only supports put.
+	 */
+	public static TransferBuffer compacting(TransferBuffer target) {
+		return new CompactingTransferBuffer(target);
+	}
+
+	/** Converts one vertex from {@link TerrainEncoder#TERRAIN_MATERIAL}. */
+	static void compactVertex(int[] source, int sourceIndex, int[] target, int targetIndex) {
+		final int w0 = source[sourceIndex];
+		final int w1 = source[sourceIndex + 1];
+		final int w2 = source[sourceIndex + 2];
+		final int w5 = source[sourceIndex + 5];
+		final int w6 = source[sourceIndex + 6];
+
+		int cells = 0;
+		long pos = 0;
+
+		for (int axis = 0; axis < 3; ++axis) {
+			final int fract = switch (axis) {
+				case 0 -> w0 >>> 16;
+				case 1 -> w1 & 0xFFFF;
+				default -> w1 >>> 16;
+			};
+
+			final int block = ((w2 >> (axis * 8)) & 0xFF) - SECTOR_PADDING;
+			// prefer the cell containing the vertex and rely on the margin only at sector edges
+			final int cell = Mth.clamp(Math.floorDiv(block, 16), 0, 7);
+			final int units = (block - cell * 16 + CELL_MARGIN_BLOCKS) * POSITION_UNITS_PER_BLOCK
+					+ (fract * POSITION_UNITS_PER_BLOCK + SOURCE_FRACTION_UNITS / 2) / SOURCE_FRACTION_UNITS;
+
+			cells |= cell << (axis * 3);
+			pos |= (long) Mth.clamp(units, 0, 0xFFFF) << (axis * 16);
+		}
+
+		target[targetIndex] = (int) pos;
+		target[targetIndex + 1] = (int) (pos >>> 32) | (w5 & 0xFFFF0000);
+		target[targetIndex + 2] = source[sourceIndex + 3];
+		target[targetIndex + 3] = source[sourceIndex + 4];
+
+		// Octahedral normal, two bytes offset by 127
+		final float nx0 = (byte) w6 / 127f;
+		final float ny0 = (byte) (w6 >> 8) / 127f;
+		final float nz0 = (w0 & 0x2000) == 0 ? unpackZ(nx0, ny0) : -unpackZ(nx0, ny0);
+		final float l1 = Math.abs(nx0) + Math.abs(ny0) + Math.abs(nz0);
+		float ox = l1 == 0 ? 0 : nx0 / l1;
+		float oy = l1 == 0 ? 0 : ny0 / l1;
+
+		if (nz0 < 0) {
+			final float fx = (1 - Math.abs(oy)) * (ox >= 0 ? 1 : -1);
+			oy = (1 - Math.abs(ox)) * (oy >= 0 ? 1 : -1);
+			ox = fx;
+		}
+
+		int octX = Math.round(ox * 127);
+		int octY = Math.round(oy * 127);
+		final int octZ = 127 - Math.abs(octX) - Math.abs(octY);
+		final int packedOct = (octX + 127) | ((octY + 127) << 8);
+
+		// Decode exactly as the shader will so both build the same tangent basis
+		if (octZ < 0) {
+			final int fx = (127 - Math.abs(octY)) * (octX >= 0 ? 1 : -1);
+			octY = (127 - Math.abs(octX)) * (octY >= 0 ? 1 : -1);
+			octX = fx;
+		}
+
+		final float nLen = Mth.sqrt(octX * octX + octY * octY + octZ * octZ);
+		final float nx = octX / nLen;
+		final float ny = octY / nLen;
+		final float nz = octZ / nLen;
+		final float s = octZ >= 0 ? 1 : -1;
+		final float a = -1 / (s + nz);
+		final float b = nx * ny * a;
+
+		final float tx = (byte) (w6 >> 16) / 127f;
+		final float ty = (byte) (w6 >> 24) / 127f;
+		final float tz = (w0 & 0x4000) == 0 ? unpackZ(tx, ty) : -unpackZ(tx, ty);
+
+		// tangent projected on the basis vectors (1 + s * nx * nx * a, s * b, -s * nx) and (b, s + ny * ny * a, -ny)
+		final float tu = tx * (1 + s * nx * nx * a) + ty * s * b - tz * s * nx;
+		final float tv = tx * b + ty * (s + ny * ny * a) - tz * ny;
+		final int angle = Math.round((float) Math.atan2(tv, tu) * ANGLE_UNITS_PER_RADIAN) & 0xFF;
+
+		target[targetIndex + 4] = packedOct | (angle << 16) | (w2 & 0xFF000000);
+
+		final int blockLight = Math.min(63, ((w5 & 0xFF) + 2) >> 2);
+		final int skyLight = Math.min(63, (((w5 >> 8) & 0xFF) + 2) >> 2);
+		final int tangentInverse = (w0 & 0x8000) == 0 ? 0 : (1 << 30);
+		target[targetIndex + 5] = (w0 & 0x1FF) | (cells << 9) | (blockLight << 18) | (skyLight << 24) | tangentInverse;
+	}
+
+	private static float unpackZ(float x, float y) {
+		return Mth.sqrt(Mth.clamp(1 - x * x - y * y, 0, 1));
+	}
+
+	private static class CompactingTransferBuffer implements TransferBuffer {
+		private final TransferBuffer target;
+		private final int[] batch = new int[BATCH_VERTEX_COUNT * TARGET_STRIDE];
+
+		private CompactingTransferBuffer(TransferBuffer target) {
+			this.target = target;
+		}
+
+		@Override
+		public void put(int[] source, int sourceStart, int targetStart, int length) {
+			assert sourceStart % SOURCE_STRIDE == 0 && targetStart % SOURCE_STRIDE == 0 && length % SOURCE_STRIDE == 0;
+
+			final int[] batch = this.batch;
+			int vertexCount = length / SOURCE_STRIDE;
+			int sourceIndex = sourceStart;
+			int targetIndex = targetStart / SOURCE_STRIDE * TARGET_STRIDE;
+
+			while (vertexCount > 0) {
+				final int batchCount = Math.min(vertexCount, BATCH_VERTEX_COUNT);
+
+				for (int i = 0; i < batchCount; ++i) {
+					compactVertex(source, sourceIndex, batch, i * TARGET_STRIDE);
+					sourceIndex += SOURCE_STRIDE;
+				}
+
+				target.put(batch, 0, targetIndex, batchCount * TARGET_STRIDE);
+				targetIndex += batchCount * TARGET_STRIDE;
+				vertexCount -= batchCount;
+			}
+		}
+
+		@Override
+		public int sizeBytes() {
+			return target.sizeBytes();
+		}
+
+		@Override
+		public void transferToBoundBuffer(int target, int targetStartBytes, int sourceStartBytes, int lengthBytes) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public @Nullable TransferBuffer release() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ShortBuffer shortBuffer() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ByteBuffer byteBuffer() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -49,6 +49,7 @@ import io.vram.frex.base.renderer.mesh.MeshEncodingHelper;
 
 import grondag.canvas.apiimpl.rendercontext.encoder.TerrainQuadEncoder;
 import grondag.canvas.buffer.input.VertexCollector;
+import grondag.canvas.config.Configurator;
 import grondag.canvas.material.state.CanvasRenderMaterial;
 
 public class TerrainEncoder {
@@ -71,6 +72,14 @@ public class TerrainEncoder {
 
 	private static final int TERRAIN_VERTEX_STRIDE = TERRAIN_MATERIAL.vertexStrideInts;
 
+	/**
+	 * Format of terrain vertices in GPU storage. Quads are always encoded and collected
+	 * in {@link #TERRAIN_MATERIAL} and converted on upload if this is different.
+	 */
+	public static CanvasVertexFormat storageFormat() {
+		return Configurator.compactTerrainVertices ? CompactTerrainEncoder.COMPACT_TERRAIN_MATERIAL : TERRAIN_MATERIAL;
+	}
+
 	public static void encodeQuad(TerrainQuadEncoder encoder, VertexCollector buff) {
 		final var quad = encoder.emitter();
 		final var inputContext = encoder.inputContext();
@@ -182,6 +191,10 @@ public class TerrainEncoder {
 			target[toIndex + 6] = transformedNormal | transformedTangent;
 		}
 
-		buff.commit(quad.effectiveCullFaceId(), mat.castShadows());
+		if (Configurator.mergeTerrainQuads && mat.allowsQuadMerge(quad.spriteId())) {
+			buff.commitMergeable(quad.effectiveCullFaceId(), mat.castShadows(), mat.materialIndexer(), quad.spriteId());
+		} else {
+			buff.commit(quad.effectiveCullFaceId(), mat.castShadows());
+		}
 	}
 }
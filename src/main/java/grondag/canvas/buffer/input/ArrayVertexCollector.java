@@ -21,55 +21,114 @@
 package grondag.canvas.buffer.input;
 
 import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import net.minecraft.util.Mth;
 import net.minecraft.world.phys.Vec3;
 
 import grondag.canvas.buffer.render.TransferBuffer;
 import grondag.canvas.material.state.RenderState;
 import grondag.canvas.render.terrain.TerrainSectorMap.RegionRenderSector;
 
+/**
+ * Stores vertex data in fixed-size pages claimed from {@link VertexPagePool}
+ * instead of one array that grows by doubling. Collectors hold only the pages
+ * they need for their current content and return them all on {@link #clear()}.
+ *
+ * <p>Pages hold a whole number of quads so a quad never spans two pages. Content
+ * is addressed as if contiguous, with page index and offset derived from the
+ * integer index.
+ */
 public abstract class ArrayVertexCollector extends BaseVertexCollector {
-	protected int capacity = 1024;
-	protected int[] vertexData = new int[capacity];
+	/** Integers used in each page. May be less than page size so quads don't span pages. */
+	protected final int pageInts;
+	protected final int quadsPerPage;
+	protected int[][] pages = new int[4][];
+	protected int pageCount;
 
 	public ArrayVertexCollector(RenderState renderState, int[] target) {
 		super(renderState, target);
-		arrayCount.incrementAndGet();
-		arryBytes.addAndGet(capacity);
+		assert quadStrideInts <= VertexPagePool.PAGE_INTS;
+		quadsPerPage = VertexPagePool.PAGE_INTS / quadStrideInts;
+		pageInts = quadsPerPage * quadStrideInts;
+		collectorCount.incrementAndGet();
 	}
 
+	/** Claims pages until capacity is at least the given number of integers. */
 	protected final void grow(int newSize) {
-		final int oldCapacity = capacity;
-
-		if (newSize > oldCapacity) {
-			final int newCapacity = Mth.smallestEncompassingPowerOfTwo(newSize);
-			final int[] newData = new int[newCapacity];
-			System.arraycopy(vertexData, 0, newData, 0, oldCapacity);
-			arryBytes.addAndGet(newCapacity - oldCapacity);
-			capacity = newCapacity;
-			vertexData = newData;
+		while (pageCount * pageInts < newSize) {
+			if (pageCount == pages.length) {
+				pages = Arrays.copyOf(pages, pageCount * 2);
+			}
+
+			pages[pageCount++] = VertexPagePool.claim();
 		}
 	}
 
+	/** Page holding the given quad. */
+	protected final int[] quadPage(int quadIndex) {
+		return pages[quadIndex / quadsPerPage];
+	}
+
+	/** Index of the first integer of the given quad within its page. */
+	protected final int quadPageIndex(int quadIndex) {
+		return (quadIndex % quadsPerPage) * quadStrideInts;
+	}
+
 	@Override
 	public final void commit(int size) {
-		final int targetIndex = integerSize;
+		int targetIndex = integerSize;
 		final int newSize = targetIndex + size;
 		grow(newSize);
-		System.arraycopy(target, 0, vertexData, targetIndex, size);
+
+		// only spans pages when size is not a multiple of quad stride
+		int sourceIndex = 0;
+
+		while (sourceIndex < size) {
+			final int pageIndex = targetIndex % pageInts;
+			final int length = Math.min(size - sourceIndex, pageInts - pageIndex);
+			System.arraycopy(target, sourceIndex, pages[targetIndex / pageInts], pageIndex, length);
+			sourceIndex += length;
+			targetIndex += length;
+		}
+
 		integerSize = newSize;
 	}
 
+	@Override
+	public void clear() {
+		integerSize = 0;
+		final int[][] pages = this.pages;
+
+		for (int i = 0; i < pageCount; ++i) {
+			VertexPagePool.release(pages[i]);
+			pages[i] = null;
+		}
+
+		pageCount = 0;
+	}
+
 	@Override
 	public final void toBuffer(IntBuffer intBuffer) {
-		intBuffer.put(vertexData, 0, integerSize);
+		int remaining = integerSize;
+
+		for (int i = 0; remaining > 0; ++i) {
+			final int length = Math.min(remaining, pageInts);
+			intBuffer.put(pages[i], 0, length);
+			remaining -= length;
+		}
 	}
 
 	@Override
 	public final void toBuffer(TransferBuffer targetBuffer, int bufferTargetIndex) {
-		targetBuffer.put(vertexData, 0, bufferTargetIndex, integerSize);
+		int remaining = integerSize;
+
+		for (int i = 0; remaining > 0; ++i) {
+			final int length = Math.min(remaining, pageInts);
+			targetBuffer.put(pages[i], 0, bufferTargetIndex, length);
+			bufferTargetIndex += length;
+			remaining -= length;
+		}
 	}
 
 	@Override
@@ -104,8 +163,10 @@ public abstract class ArrayVertexCollector extends BaseVertexCollector {
 			result = new int[integerSize];
 		}
 
-		if (integerSize > 0) {
-			System.arraycopy(vertexData, 0, result, 0, integerSize);
+		for (int i = 0, index = 0; index < integerSize; ++i) {
+			final int length = Math.min(integerSize - index, pageInts);
+			System.arraycopy(pages[i], 0, result, index, length);
+			index += length;
 		}
 
 		return result;
@@ -118,15 +179,21 @@ public abstract class ArrayVertexCollector extends BaseVertexCollector {
 		if (stateData != null) {
 			final int size = stateData.length;
 			grow(size);
-			System.arraycopy(stateData, 0, vertexData, 0, size);
+
+			for (int i = 0, index = 0; index < size; ++i) {
+				final int length = Math.min(size - index, pageInts);
+				System.arraycopy(stateData, index, pages[i], 0, length);
+				index += length;
+			}
+
 			integerSize = size;
 		}
 	}
 
-	private static AtomicInteger arrayCount = new AtomicInteger();
-	private static AtomicInteger arryBytes = new AtomicInteger();
+	private static AtomicInteger collectorCount = new AtomicInteger();
 
 	public static String debugReport() {
-		return String.format("Vertex collectors: %d %4.1fMb", arrayCount.get(), arryBytes.get() / 1048576f);
+		return String.format("Vertex collectors: %d pages: %d claimed %d shared %4.1fMb",
+				collectorCount.get(), VertexPagePool.claimedCount(), VertexPagePool.sharedCount(), VertexPagePool.megabytes());
 	}
 }
@@ -23,6 +23,7 @@ package grondag.canvas.buffer.input;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
 import grondag.canvas.material.state.RenderState;
+import grondag.canvas.texture.MaterialIndexer;
 
 public abstract class BaseVertexCollector implements DrawableVertexCollector {
 	protected final RenderState renderState;
@@ -99,6 +100,16 @@ public abstract class BaseVertexCollector implements DrawableVertexCollector {
 		commit(quadStrideInts);
 	}
 
+	@Override
+	public void commitMergeable(int effectiveFaceIndex, boolean castShadow, MaterialIndexer indexer, int spriteId) {
+		commit(effectiveFaceIndex, castShadow);
+	}
+
+	@Override
+	public void mergeQuads() {
+		// NOOP
+	}
+
 	@Override
 	public final void draw(boolean clear) {
 		if (!isEmpty()) {
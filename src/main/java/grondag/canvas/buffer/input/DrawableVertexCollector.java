@@ -41,6 +41,9 @@ public interface DrawableVertexCollector extends VertexCollector {
 
 	void sortIfNeeded();
 
+	/** Merges any quads committed as mergeable. Call once after all quads are committed. */
+	void mergeQuads();
+
 	boolean sorted();
 
 	void draw(boolean clear);
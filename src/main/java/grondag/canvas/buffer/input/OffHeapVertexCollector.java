@@ -0,0 +1,157 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.buffer.input;
+
+import java.nio.IntBuffer;
+
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.system.MemoryUtil;
+
+import net.minecraft.util.Mth;
+import net.minecraft.world.phys.Vec3;
+
+import grondag.canvas.buffer.render.SegmentedTransferBuffer;
+import grondag.canvas.buffer.render.TransferBuffer;
+import grondag.canvas.buffer.render.TransferBuffers;
+import grondag.canvas.material.state.RenderState;
+import grondag.canvas.render.terrain.TerrainSectorMap.RegionRenderSector;
+
+/**
+ * Unsorted collector that writes quads straight into a claimed off-heap transfer
+ * buffer instead of an array. When buffered to a {@link SegmentedTransferBuffer}
+ * the claimed buffer is handed over as-is, so vertex data is never copied again
+ * before upload to the GPU.
+ *
+ * <p>The buffer grows by claiming a larger one and copying, so growth does not
+ * create heap garbage. Any buffer still held is released on {@link #clear()}.
+ */
+public class OffHeapVertexCollector extends BaseVertexCollector {
+	private static final int INITIAL_CAPACITY_BYTES = 0x4000;
+
+	@Nullable
+	private TransferBuffer buffer;
+	private long address;
+	private int capacityBytes;
+
+	public OffHeapVertexCollector(RenderState renderState, int[] target) {
+		super(renderState, target);
+	}
+
+	private void ensureCapacity(int bytes) {
+		if (bytes > capacityBytes) {
+			final int newCapacity = Math.max(INITIAL_CAPACITY_BYTES, Mth.smallestEncompassingPowerOfTwo(bytes));
+			final TransferBuffer newBuffer = TransferBuffers.claimOffHeap(newCapacity);
+			final long newAddress = MemoryUtil.memAddress(newBuffer.byteBuffer());
+
+			if (buffer != null) {
+				MemoryUtil.memCopy(address, newAddress, integerSize * 4L);
+				buffer.release();
+			}
+
+			buffer = newBuffer;
+			address = newAddress;
+			capacityBytes = newCapacity;
+		}
+	}
+
+	@Override
+	public final void commit(int size) {
+		final int newSize = integerSize + size;
+		ensureCapacity(newSize * 4);
+
+		final int[] target = this.target;
+		final long base = address + integerSize * 4L;
+
+		for (int i = 0; i < size; ++i) {
+			MemoryUtil.memPutInt(base + i * 4L, target[i]);
+		}
+
+		integerSize = newSize;
+	}
+
+	@Override
+	public final void clear() {
+		integerSize = 0;
+		releaseBuffer();
+	}
+
+	private void releaseBuffer() {
+		if (buffer != null) {
+			buffer = buffer.release();
+			address = 0;
+			capacityBytes = 0;
+		}
+	}
+
+	@Override
+	public void toBuffer(IntBuffer intBuffer) {
+		throw new UnsupportedOperationException("Terrain buffering should always use transfer buffers.");
+	}
+
+	@Override
+	public void toBuffer(TransferBuffer targetBuffer, int bufferTargetIndex) {
+		if (targetBuffer instanceof SegmentedTransferBuffer segmented) {
+			// hand over storage - counts are kept for face buckets until the collector is cleared
+			segmented.append(buffer, byteSize());
+			buffer = null;
+			address = 0;
+			capacityBytes = 0;
+		} else {
+			MemoryUtil.memCopy(address, MemoryUtil.memAddress(targetBuffer.byteBuffer()) + bufferTargetIndex * 4L, integerSize * 4L);
+		}
+	}
+
+	@Override
+	public FaceBucket faceBucket(int index) {
+		final int vertexCount = vertexCount();
+		return new FaceBucket(index, vertexCount, index, vertexCount);
+	}
+
+	@Override
+	public FaceBucket[] faceBuckets() {
+		return null;
+	}
+
+	@Override
+	public void sortIfNeeded() {
+		// NOOP
+	}
+
+	@Override
+	public boolean sorted() {
+		return false;
+	}
+
+	@Override
+	public boolean sortTerrainQuads(Vec3 sortPos, RegionRenderSector sector) {
+		return false;
+	}
+
+	@Override
+	public @Nullable int[] saveState(@Nullable int[] translucentState) {
+		throw new UnsupportedOperationException("OffHeapVertexCollector does not support saveState.");
+	}
+
+	@Override
+	public void loadState(int[] state) {
+		throw new UnsupportedOperationException("OffHeapVertexCollector does not support loadState");
+	}
+}
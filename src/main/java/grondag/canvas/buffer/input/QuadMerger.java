@@ -0,0 +1,373 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.buffer.input;
+
+import java.util.HashMap;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import grondag.canvas.texture.MaterialIndexer;
+
+/**
+ * Greedy merge of adjacent coplanar terrain quads, run once per region build
+ * on quads already in terrain vertex format.
+ *
+ * <p>A quad is a candidate if it covers exactly one grid-aligned block face,
+ * maps the full sprite onto that face without skew and has the same color,
+ * light, AO, normal and tangent at every vertex. Candidates in the same plane
+ * with identical vertex attributes and the same vertex and texture orientation
+ * are merged into rectangles no more than {@link #MAX_EXTENT} blocks on a side.
+ *
+ * <p>Merged quads switch to the tiled index of their material, which tells the
+ * shader texture coordinates are in sprite repeats instead of normalized sprite
+ * coordinates. Quads left alone are emitted exactly as encoded.
+ */
+class QuadMerger {
+	// must match TerrainEncoder.TERRAIN_MATERIAL
+	static final int VERTEX_STRIDE = 7;
+	static final int QUAD_STRIDE = VERTEX_STRIDE * 4;
+
+	/** Texture coordinate units per sprite repeat in tiled quads. */
+	static final int TILED_UV_UNIT = 2048;
+
+	/** Keeps tiled texture coordinates within 16 bits. */
+	static final int MAX_EXTENT = 16;
+
+	private static final int UV_MAX = 0xFFFF;
+
+	/** Receives merged or pass-through quads, which have been written to the target array. */
+	@FunctionalInterface
+	interface QuadSink {
+		void accept(int effectiveFaceIndex, boolean castShadow);
+	}
+
+	/** Attributes that must match for quads to merge, including the plane and orientation. */
+	private record GroupKey(long colorAndLight, long normalAndPlane, int layout) { }
+
+	private final IntArrayList quadData = new IntArrayList();
+	private final IntArrayList quadInfo = new IntArrayList();
+	private final ObjectArrayList<MaterialIndexer> indexers = new ObjectArrayList<>();
+	private final IntArrayList spriteIds = new IntArrayList();
+	private final HashMap<GroupKey, IntArrayList> groups = new HashMap<>();
+	private final Int2IntOpenHashMap cells = new Int2IntOpenHashMap();
+
+	QuadMerger() {
+		cells.defaultReturnValue(-1);
+	}
+
+	boolean isEmpty() {
+		return quadInfo.isEmpty();
+	}
+
+	void clear() {
+		quadData.clear();
+		quadInfo.clear();
+		indexers.clear();
+		spriteIds.clear();
+		groups.clear();
+	}
+
+	/**
+	 * Holds the quad for merging if it is a candidate.
+	 *
+	 * @return False if the quad can't be merged and should be committed as usual.
+	 */
+	boolean add(int[] quad, int effectiveFaceIndex, boolean castShadow, MaterialIndexer indexer, int spriteId) {
+		final int axis = planeAxis(quad);
+
+		if (axis < 0) {
+			return false;
+		}
+
+		final int ao = quad[2] >>> 24;
+
+		for (int v = 0; v < 4; ++v) {
+			final int i = v * VERTEX_STRIDE;
+
+			if ((quad[i] & 0xFFFF) != (quad[0] & 0xFFFF) || quad[i + 2] >>> 24 != ao
+					|| quad[i + 3] != quad[3] || quad[i + 5] != quad[5] || quad[i + 6] != quad[6]) {
+				return false;
+			}
+		}
+
+		// corner of each vertex within the face, two bits per vertex
+		final int minA = minCoordinate(quad, (axis + 1) % 3);
+		final int minB = minCoordinate(quad, (axis + 2) % 3);
+		int corners = 0;
+		int uvs = 0;
+
+		for (int v = 0; v < 4; ++v) {
+			final int da = coordinate(quad, v, (axis + 1) % 3) - minA;
+			final int db = coordinate(quad, v, (axis + 2) % 3) - minB;
+
+			if ((da & ~1) != 0 || (db & ~1) != 0) {
+				return false;
+			}
+
+			corners |= (da | (db << 1)) << (v * 2);
+
+			final int uv = quad[v * VERTEX_STRIDE + 4];
+			final int texU = uv & 0xFFFF;
+			final int texV = uv >>> 16;
+
+			if ((texU != 0 && texU != UV_MAX) || (texV != 0 && texV != UV_MAX)) {
+				return false;
+			}
+
+			uvs |= ((texU == 0 ? 0 : 1) | (texV == 0 ? 0 : 2)) << (v * 2);
+		}
+
+		if (!coversAllCorners(corners) || swapOf(corners, uvs) < 0) {
+			return false;
+		}
+
+		final int index = quadInfo.size();
+		quadData.addElements(quadData.size(), quad, 0, QUAD_STRIDE);
+		quadInfo.add(effectiveFaceIndex | (castShadow ? 8 : 0) | (minA << 8) | (minB << 16));
+		indexers.add(indexer);
+		spriteIds.add(spriteId);
+
+		final int plane = coordinate(quad, 0, axis);
+		final GroupKey key = new GroupKey(
+				(quad[3] & 0xFFFFFFFFL) | ((long) quad[5] << 32),
+				(quad[6] & 0xFFFFFFFFL) | ((long) (quad[0] & 0xFFFF) << 32) | ((long) ao << 48),
+				effectiveFaceIndex | (castShadow ? 8 : 0) | (axis << 4) | (plane << 6) | (corners << 14) | (uvs << 22));
+
+		groups.computeIfAbsent(key, k -> new IntArrayList()).add(index);
+		return true;
+	}
+
+	/** Merges all held quads and sends the results to the sink. Leaves this instance empty. */
+	void flush(int[] target, QuadSink sink) {
+		for (final IntArrayList group : groups.values()) {
+			flushGroup(group, target, sink);
+		}
+
+		clear();
+	}
+
+	private void flushGroup(IntArrayList group, int[] target, QuadSink sink) {
+		final Int2IntOpenHashMap cells = this.cells;
+		cells.clear();
+		final int limit = group.size();
+		final IntArrayList keys = new IntArrayList(limit);
+
+		for (int i = 0; i < limit; ++i) {
+			final int quadIndex = group.getInt(i);
+			final int info = quadInfo.getInt(quadIndex);
+			// b is major so sorted keys visit rows in order
+			final int cell = ((info >> 8) & 0xFF) | (((info >> 16) & 0xFF) << 8);
+
+			if (cells.putIfAbsent(cell, quadIndex) == -1) {
+				keys.add(cell);
+			} else {
+				// exact duplicate of a quad already held - leave it alone
+				emitOriginal(quadIndex, target, sink);
+			}
+		}
+
+		keys.sort(null);
+
+		final int keyCount = keys.size();
+
+		for (int i = 0; i < keyCount; ++i) {
+			final int cell = keys.getInt(i);
+			final int quadIndex = cells.get(cell);
+
+			if (quadIndex == -1) {
+				continue;
+			}
+
+			int width = 1;
+
+			while (width < MAX_EXTENT && cells.get(cell + width) != -1 && ((cell + width) & 0xFF) != 0) {
+				++width;
+			}
+
+			int height = 1;
+
+			while (height < MAX_EXTENT && isRowPresent(cell + (height << 8), width)) {
+				++height;
+			}
+
+			for (int b = 0; b < height; ++b) {
+				for (int a = 0; a < width; ++a) {
+					cells.remove(cell + a + (b << 8));
+				}
+			}
+
+			if (width == 1 && height == 1) {
+				emitOriginal(quadIndex, target, sink);
+			} else {
+				emitMerged(quadIndex, width, height, target, sink);
+			}
+		}
+	}
+
+	private boolean isRowPresent(int rowStart, int width) {
+		if (rowStart > 0xFFFF) {
+			return false;
+		}
+
+		for (int a = 0; a < width; ++a) {
+			if (cells.get(rowStart + a) == -1) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void emitOriginal(int quadIndex, int[] target, QuadSink sink) {
+		quadData.getElements(quadIndex * QUAD_STRIDE, target, 0, QUAD_STRIDE);
+		final int info = quadInfo.getInt(quadIndex);
+		sink.accept(info & 7, (info & 8) != 0);
+	}
+
+	/** Stretches the quad at the minimum corner over the whole rectangle. */
+	private void emitMerged(int quadIndex, int width, int height, int[] target, QuadSink sink) {
+		quadData.getElements(quadIndex * QUAD_STRIDE, target, 0, QUAD_STRIDE);
+		final int info = quadInfo.getInt(quadIndex);
+		final int axis = planeAxis(target);
+		final int axisA = (axis + 1) % 3;
+		final int axisB = (axis + 2) % 3;
+		final int minA = (info >> 8) & 0xFF;
+		final int minB = (info >> 16) & 0xFF;
+
+		int corners = 0;
+		int uvs = 0;
+
+		for (int v = 0; v < 4; ++v) {
+			final int da = coordinate(target, v, axisA) - minA;
+			final int db = coordinate(target, v, axisB) - minB;
+			corners |= (da | (db << 1)) << (v * 2);
+			final int uv = target[v * VERTEX_STRIDE + 4];
+			uvs |= (((uv & 0xFFFF) == 0 ? 0 : 1) | ((uv >>> 16) == 0 ? 0 : 2)) << (v * 2);
+		}
+
+		final boolean swap = swapOf(corners, uvs) == 1;
+		final int uExtent = swap ? height : width;
+		final int vExtent = swap ? width : height;
+		final int tiledMaterial = indexers.get(quadIndex).tiledIndex(spriteIds.getInt(quadIndex));
+
+		for (int v = 0; v < 4; ++v) {
+			final int i = v * VERTEX_STRIDE;
+			final int corner = (corners >> (v * 2)) & 3;
+			setCoordinate(target, v, axisA, minA + ((corner & 1) == 0 ? 0 : width));
+			setCoordinate(target, v, axisB, minB + ((corner & 2) == 0 ? 0 : height));
+
+			final int uv = (uvs >> (v * 2)) & 3;
+			target[i + 4] = ((uv & 1) == 0 ? 0 : uExtent * TILED_UV_UNIT) | (((uv & 2) == 0 ? 0 : vExtent * TILED_UV_UNIT) << 16);
+			target[i + 5] = (target[i + 5] & 0xFFFF) | (tiledMaterial << 16);
+		}
+
+		sink.accept(info & 7, (info & 8) != 0);
+	}
+
+	/**
+	 * Axis (0 = X, 1 = Y, 2 = Z) on which all four vertices have the same integer coordinate,
+	 * or -1 if positions aren't all grid-aligned or the quad isn't axis-aligned.
+	 */
+	static int planeAxis(int[] quad) {
+		for (int v = 0; v < 4; ++v) {
+			final int i = v * VERTEX_STRIDE;
+
+			if ((quad[i] >>> 16) != 0 || quad[i + 1] != 0) {
+				return -1;
+			}
+		}
+
+		int result = -1;
+
+		for (int axis = 0; axis < 3; ++axis) {
+			final int c = coordinate(quad, 0, axis);
+
+			if (c == coordinate(quad, 1, axis) && c == coordinate(quad, 2, axis) && c == coordinate(quad, 3, axis)) {
+				if (result != -1) {
+					return -1;
+				}
+
+				result = axis;
+			}
+		}
+
+		return result;
+	}
+
+	/** Integer part of the sector-relative vertex coordinate. */
+	static int coordinate(int[] quad, int vertex, int axis) {
+		return (quad[vertex * VERTEX_STRIDE + 2] >> (axis * 8)) & 0xFF;
+	}
+
+	private static void setCoordinate(int[] quad, int vertex, int axis, int value) {
+		final int i = vertex * VERTEX_STRIDE + 2;
+		final int shift = axis * 8;
+		quad[i] = (quad[i] & ~(0xFF << shift)) | (value << shift);
+	}
+
+	private static int minCoordinate(int[] quad, int axis) {
+		return Math.min(Math.min(coordinate(quad, 0, axis), coordinate(quad, 1, axis)), Math.min(coordinate(quad, 2, axis), coordinate(quad, 3, axis)));
+	}
+
+	private static boolean coversAllCorners(int corners) {
+		int seen = 0;
+
+		for (int v = 0; v < 4; ++v) {
+			seen |= 1 << ((corners >> (v * 2)) & 3);
+		}
+
+		return seen == 0b1111;
+	}
+
+	/**
+	 * 0 if U follows the A axis and V the B axis, 1 if they are swapped,
+	 * or -1 if texture coordinates aren't a rotation or mirror of the face.
+	 */
+	private static int swapOf(int corners, int uvs) {
+		final int direct = matches(corners, uvs, 0);
+		return direct != -1 ? direct : matches(corners, uvs, 1);
+	}
+
+	private static int matches(int corners, int uvs, int swap) {
+		int uFlip = -1;
+		int vFlip = -1;
+
+		for (int v = 0; v < 4; ++v) {
+			final int corner = (corners >> (v * 2)) & 3;
+			final int uv = (uvs >> (v * 2)) & 3;
+			final int a = swap == 0 ? corner & 1 : corner >> 1;
+			final int b = swap == 0 ? corner >> 1 : corner & 1;
+			final int uf = a ^ (uv & 1);
+			final int vf = b ^ (uv >> 1);
+
+			if ((uFlip != -1 && uf != uFlip) || (vFlip != -1 && vf != vFlip)) {
+				return -1;
+			}
+
+			uFlip = uf;
+			vFlip = vf;
+		}
+
+		return swap;
+	}
+}
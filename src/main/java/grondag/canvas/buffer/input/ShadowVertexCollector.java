@@ -31,13 +31,18 @@ import grondag.canvas.material.state.RenderState;
 import grondag.canvas.render.terrain.TerrainSectorMap.RegionRenderSector;
 
 public class ShadowVertexCollector extends BaseVertexCollector {
-	protected final SimpleVertexCollector common;
-	protected final SimpleVertexCollector colorOnly;
+	protected final BaseVertexCollector common;
+	protected final BaseVertexCollector colorOnly;
 
 	public ShadowVertexCollector(RenderState renderState, int[] target) {
+		this(renderState, target, false);
+	}
+
+	/** If direct, vertices are written to off-heap transfer buffers. See {@link OffHeapVertexCollector}. */
+	public ShadowVertexCollector(RenderState renderState, int[] target, boolean direct) {
 		super(renderState, target);
-		common = new SimpleVertexCollector(renderState, target);
-		colorOnly = new SimpleVertexCollector(renderState, target);
+		common = direct ? new OffHeapVertexCollector(renderState, target) : new SimpleVertexCollector(renderState, target);
+		colorOnly = direct ? new OffHeapVertexCollector(renderState, target) : new SimpleVertexCollector(renderState, target);
 	}
 
 	@Override
@@ -92,13 +92,15 @@ public class SortingVertexCollector extends SimpleVertexCollector {
 			perQuadDistance[a] = perQuadDistance[b];
 			perQuadDistance[b] = distSwap;
 
-			final int aIndex = a * quadStrideInts;
-			final int bIndex = b * quadStrideInts;
-
-			System.arraycopy(vertexData, aIndex, swapData, 0, quadStrideInts);
-			System.arraycopy(vertexData, bIndex, swapData, quadStrideInts, quadStrideInts);
-			System.arraycopy(swapData, 0, vertexData, bIndex, quadStrideInts);
-			System.arraycopy(swapData, quadStrideInts, vertexData, aIndex, quadStrideInts);
+			final int[] aPage = quadPage(a);
+			final int[] bPage = quadPage(b);
+			final int aIndex = quadPageIndex(a);
+			final int bIndex = quadPageIndex(b);
+
+			System.arraycopy(aPage, aIndex, swapData, 0, quadStrideInts);
+			System.arraycopy(bPage, bIndex, swapData, quadStrideInts, quadStrideInts);
+			System.arraycopy(swapData, 0, bPage, bIndex, quadStrideInts);
+			System.arraycopy(swapData, quadStrideInts, aPage, aIndex, quadStrideInts);
 		}
 	};
 
@@ -106,7 +108,8 @@ public class SortingVertexCollector extends SimpleVertexCollector {
 		final int integerStride = quadStrideInts / 4;
 
 		// unpack vertex coordinates
-		int i = quadIndex * quadStrideInts;
+		final int[] vertexData = quadPage(quadIndex);
+		int i = quadPageIndex(quadIndex);
 		final float x0 = Float.intBitsToFloat(vertexData[i]);
 		final float y0 = Float.intBitsToFloat(vertexData[i + 1]);
 		final float z0 = Float.intBitsToFloat(vertexData[i + 2]);
@@ -140,7 +143,8 @@ public class SortingVertexCollector extends SimpleVertexCollector {
 		final int integerStride = quadStrideInts / 4;
 
 		// unpack vertex coordinates
-		int i = quadIndex * quadStrideInts;
+		final int[] vertexData = quadPage(quadIndex);
+		int i = quadPageIndex(quadIndex);
 		final int pos0 = vertexData[i + 2];
 		final float x0 = (pos0 & 0xFF) + (vertexData[i] >>> 16) * POS_CONVERSION;
 		final float y0 = ((pos0 >> 8) & 0xFF) + (vertexData[i + 1] & 0xFFFF) * POS_CONVERSION;
@@ -23,12 +23,12 @@ package grondag.canvas.buffer.input;
 import grondag.canvas.material.state.RenderState;
 
 public class TerrainShadowVertexCollector extends TerrainVertexCollector {
-	public TerrainShadowVertexCollector(RenderState renderState, int[] target) {
-		super(renderState, target);
+	public TerrainShadowVertexCollector(RenderState renderState, int[] target, boolean direct) {
+		super(renderState, target, direct);
 	}
 
 	@Override
 	protected DrawableVertexCollector createCollector(RenderState renderState, int[] target) {
-		return new ShadowVertexCollector(renderState, target);
+		return new ShadowVertexCollector(renderState, target, direct);
 	}
 }
@@ -31,12 +31,17 @@ import io.vram.frex.api.model.util.FaceUtil;
 import grondag.canvas.buffer.render.TransferBuffer;
 import grondag.canvas.material.state.RenderState;
 import grondag.canvas.render.terrain.TerrainSectorMap.RegionRenderSector;
+import grondag.canvas.texture.MaterialIndexer;
 
 public class TerrainVertexCollector extends BaseVertexCollector {
 	protected final DrawableVertexCollector[] collectors;
+	private final QuadMerger merger = new QuadMerger();
+	/** True if face collectors write to off-heap transfer buffers. */
+	protected final boolean direct;
 
-	public TerrainVertexCollector(RenderState renderState, int[] target) {
+	public TerrainVertexCollector(RenderState renderState, int[] target, boolean direct) {
 		super(renderState, target);
+		this.direct = direct;
 
 		collectors = new DrawableVertexCollector[FaceUtil.FACE_INDEX_COUNT];
 
@@ -46,7 +51,15 @@ public class TerrainVertexCollector extends BaseVertexCollector {
 	}
 
 	protected DrawableVertexCollector createCollector(RenderState renderState, int[] target) {
-		return new SimpleVertexCollector(renderState, target);
+		return direct ? new OffHeapVertexCollector(renderState, target) : new SimpleVertexCollector(renderState, target);
+	}
+
+	/**
+	 * True if vertex data is held off-heap and should be buffered to a
+	 * {@link grondag.canvas.buffer.render.SegmentedTransferBuffer}, which takes it without copying.
+	 */
+	public boolean isDirect() {
+		return direct;
 	}
 
 	@Override
@@ -55,9 +68,24 @@ public class TerrainVertexCollector extends BaseVertexCollector {
 		integerSize += quadStrideInts;
 	}
 
+	@Override
+	public void commitMergeable(int effectiveFaceIndex, boolean castShadow, MaterialIndexer indexer, int spriteId) {
+		if (!merger.add(target, effectiveFaceIndex, castShadow, indexer, spriteId)) {
+			commit(effectiveFaceIndex, castShadow);
+		}
+	}
+
+	@Override
+	public void mergeQuads() {
+		if (!merger.isEmpty()) {
+			merger.flush(target, this::commit);
+		}
+	}
+
 	@Override
 	public final void clear() {
 		integerSize = 0;
+		merger.clear();
 
 		for (int i = 0; i < FaceUtil.FACE_INDEX_COUNT; ++i) {
 			collectors[i].clear();
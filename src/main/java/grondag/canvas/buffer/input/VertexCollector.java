@@ -20,6 +20,8 @@
 
 package grondag.canvas.buffer.input;
 
+import grondag.canvas.texture.MaterialIndexer;
+
 /**
  * Thin access layer to vertex buffer/mapped memory range.
  * Caller must know vertex format, boundaries, etc.
@@ -32,6 +34,13 @@ public interface VertexCollector {
 
 	void commit(boolean castShadow);
 
+	/**
+	 * Same as {@link #commit(int, boolean)} but the quad may be merged with adjacent
+	 * coplanar quads before the collector is buffered. Collectors that don't merge
+	 * commit it as usual.
+	 */
+	void commitMergeable(int effectiveFaceIndex, boolean castShadow, MaterialIndexer indexer, int spriteId);
+
 	int[] target();
 
 	void clear();
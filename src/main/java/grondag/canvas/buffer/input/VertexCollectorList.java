@@ -56,10 +56,14 @@ public class VertexCollectorList {
 	/** If true, will segregate quads by shadow casting ability. */
 	private final int[] target;
 	protected final boolean isTerrain;
+	/** If true, unsorted terrain is written directly to off-heap transfer buffers. */
+	private final boolean directTerrain;
 
 	public VertexCollectorList(boolean trackFaces, boolean isTerrain) {
 		this.trackFaces = trackFaces;
 		this.isTerrain = isTerrain;
+		// compact storage is converted from on-heap data while buffering
+		directTerrain = isTerrain && Configurator.directTerrainBuffers && !Configurator.compactTerrainVertices;
 		target = new int[isTerrain ? TerrainEncoder.TERRAIN_MATERIAL.quadStrideInts : CanvasVertexFormats.STANDARD_MATERIAL_FORMAT.quadStrideInts];
 	}
 
@@ -108,6 +112,15 @@ public class VertexCollectorList {
 		}
 	}
 
+	/** Merges quads held for merging by any collector. Call once all quads are committed. */
+	public void mergeQuads() {
+		final int limit = active.size();
+
+		for (int i = 0; i < limit; i++) {
+			active.get(i).mergeQuads();
+		}
+	}
+
 	public final DrawableVertexCollector getIfExists(CanvasRenderMaterial materialState) {
 		return materialState.isMissing() ? null : collectors[materialState.collectorIndex()];
 	}
@@ -131,11 +144,11 @@ public class VertexCollectorList {
 				result = new SortingVertexCollector(materialState.renderState(), isTerrain, target);
 			} else if (Pipeline.shadowsEnabled()) {
 				result = trackFaces
-						? new TerrainShadowVertexCollector(materialState.renderState(), target)
+						? new TerrainShadowVertexCollector(materialState.renderState(), target, directTerrain)
 						: new ShadowVertexCollector(materialState.renderState(), target);
 			} else {
 				result = trackFaces
-						? new TerrainVertexCollector(materialState.renderState(), target)
+						? new TerrainVertexCollector(materialState.renderState(), target, directTerrain)
 						: new SimpleVertexCollector(materialState.renderState(), target);
 			}
 
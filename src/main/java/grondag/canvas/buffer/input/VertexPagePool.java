@@ -0,0 +1,95 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.buffer.input;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size int arrays that back {@link ArrayVertexCollector} storage.
+ *
+ * <p>Each thread keeps a few released pages for reuse without contention. Pages
+ * released beyond that go to a shared queue so pages freed by one worker can be
+ * reused by another. Shared pages beyond a limit are left for the garbage collector
+ * so a burst of large regions does not hold its peak memory indefinitely.
+ */
+final class VertexPagePool {
+	/** 16KB - large regions need a few dozen pages but small collectors don't waste much. */
+	static final int PAGE_INTS = 0x1000;
+	private static final int MAX_LOCAL_PAGES = 64;
+	private static final int MAX_SHARED_PAGES = 2048;
+
+	private static final ThreadLocal<ArrayDeque<int[]>> LOCAL = ThreadLocal.withInitial(ArrayDeque::new);
+	private static final ConcurrentLinkedQueue<int[]> SHARED = new ConcurrentLinkedQueue<>();
+	private static final AtomicInteger SHARED_COUNT = new AtomicInteger();
+	/** Pages claimed or pooled. Excludes pages dropped for collection. */
+	private static final AtomicInteger PAGE_COUNT = new AtomicInteger();
+	private static final AtomicInteger CLAIMED_COUNT = new AtomicInteger();
+
+	private VertexPagePool() { }
+
+	static int[] claim() {
+		CLAIMED_COUNT.incrementAndGet();
+		int[] result = LOCAL.get().pollLast();
+
+		if (result == null) {
+			result = SHARED.poll();
+
+			if (result == null) {
+				PAGE_COUNT.incrementAndGet();
+				result = new int[PAGE_INTS];
+			} else {
+				SHARED_COUNT.decrementAndGet();
+			}
+		}
+
+		return result;
+	}
+
+	/** Page contents are not cleared. Claimants must not read beyond what they have written. */
+	static void release(int[] page) {
+		assert page.length == PAGE_INTS;
+		CLAIMED_COUNT.decrementAndGet();
+		final ArrayDeque<int[]> local = LOCAL.get();
+
+		if (local.size() < MAX_LOCAL_PAGES) {
+			local.addLast(page);
+		} else if (SHARED_COUNT.incrementAndGet() <= MAX_SHARED_PAGES) {
+			SHARED.offer(page);
+		} else {
+			SHARED_COUNT.decrementAndGet();
+			PAGE_COUNT.decrementAndGet();
+		}
+	}
+
+	static int claimedCount() {
+		return CLAIMED_COUNT.get();
+	}
+
+	static int sharedCount() {
+		return SHARED_COUNT.get();
+	}
+
+	static float megabytes() {
+		return PAGE_COUNT.get() * (PAGE_INTS * 4 / 1048576f);
+	}
+}
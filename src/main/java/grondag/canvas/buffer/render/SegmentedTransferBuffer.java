@@ -0,0 +1,104 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.buffer.render;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Presents transfer buffers filled separately as one contiguous range, in the order
+ * they were appended. Lets vertex data written directly to off-heap storage be
+ * uploaded without first being gathered into a single buffer.
+ */
+public class SegmentedTransferBuffer implements TransferBuffer {
+	private final ObjectArrayList<TransferBuffer> segments = new ObjectArrayList<>();
+	private final IntArrayList segmentBytes = new IntArrayList();
+	private int sizeBytes;
+
+	/** Takes ownership of the buffer. Only the first {@code lengthBytes} are part of this buffer. */
+	public void append(TransferBuffer segment, int lengthBytes) {
+		assert lengthBytes > 0 && lengthBytes <= segment.sizeBytes();
+		segments.add(segment);
+		segmentBytes.add(lengthBytes);
+		sizeBytes += lengthBytes;
+	}
+
+	@Override
+	public int sizeBytes() {
+		return sizeBytes;
+	}
+
+	@Override
+	public void transferToBoundBuffer(int target, int targetStartBytes, int sourceStartBytes, int lengthBytes) {
+		assert sourceStartBytes + lengthBytes <= sizeBytes;
+		final int limit = segments.size();
+		int segmentStart = 0;
+
+		for (int i = 0; i < limit && lengthBytes > 0; ++i) {
+			final int segmentLength = segmentBytes.getInt(i);
+			final int segmentEnd = segmentStart + segmentLength;
+
+			if (sourceStartBytes < segmentEnd) {
+				final int offset = sourceStartBytes - segmentStart;
+				final int bytes = Math.min(lengthBytes, segmentLength - offset);
+				segments.get(i).transferToBoundBuffer(target, targetStartBytes, offset, bytes);
+				targetStartBytes += bytes;
+				sourceStartBytes += bytes;
+				lengthBytes -= bytes;
+			}
+
+			segmentStart = segmentEnd;
+		}
+	}
+
+	@Override
+	public @Nullable TransferBuffer release() {
+		final int limit = segments.size();
+
+		for (int i = 0; i < limit; ++i) {
+			segments.get(i).release();
+		}
+
+		segments.clear();
+		segmentBytes.clear();
+		sizeBytes = 0;
+		return null;
+	}
+
+	@Override
+	public void put(int[] source, int sourceStart, int targetStart, int length) {
+		throw new UnsupportedOperationException("Segmented transfer buffers are filled by appending segments");
+	}
+
+	@Override
+	public ShortBuffer shortBuffer() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public ByteBuffer byteBuffer() {
+		throw new UnsupportedOperationException();
+	}
+}
@@ -93,6 +93,14 @@ public class TransferBuffers {
 		return effectiveConfig.claim(byteSize);
 	}
 
+	/**
+	 * Off-heap buffer regardless of transfer mode. Unlike mapped buffers these
+	 * can be claimed and released from any thread, including terrain workers.
+	 */
+	public static TransferBuffer claimOffHeap(int byteSize) {
+		return OffHeapTransferBuffer.THREAD_SAFE_ALLOCATOR.claim(byteSize);
+	}
+
 	public static void update() {
 		effectiveConfig.update();
 	}
@@ -242,6 +242,34 @@ public class CanvasConfigScreen extends BaseScreen {
 				DEFAULTS.useCombinedThreadPool,
 				"config.canvas.help.use_combined_thread_pool").listItem());
 
+		list.addItem(optionSession.booleanOption("config.canvas.value.use_work_stealing_executor",
+				() -> editing.useWorkStealingExecutor,
+				b -> {
+					requiresRestart |= Configurator.useWorkStealingExecutor.get() != b;
+					editing.useWorkStealingExecutor = b;
+				},
+				Configurator.useWorkStealingExecutor,
+				DEFAULTS.useWorkStealingExecutor,
+				"config.canvas.help.use_work_stealing_executor").listItem());
+
+		list.addItem(optionSession.intOption("config.canvas.value.min_terrain_workers",
+				1,
+				32,
+				1,
+				() -> editing.minTerrainWorkers,
+				i -> editing.minTerrainWorkers = i,
+				DEFAULTS.minTerrainWorkers,
+				"config.canvas.help.min_terrain_workers").listItem());
+
+		list.addItem(optionSession.intOption("config.canvas.value.max_terrain_workers",
+				1,
+				32,
+				1,
+				() -> editing.maxTerrainWorkers,
+				i -> editing.maxTerrainWorkers = i,
+				DEFAULTS.maxTerrainWorkers,
+				"config.canvas.help.max_terrain_workers").listItem());
+
 		list.addItem(optionSession.enumOption("config.canvas.value.transfer_buffer_mode",
 				() -> editing.transferBufferMode,
 				e -> {
@@ -276,6 +304,51 @@ public class CanvasConfigScreen extends BaseScreen {
 				DEFAULTS.cullBackfacingTerrain,
 				"config.canvas.help.cull_backfacing_terrain").listItem());
 
+		list.addItem(optionSession.booleanOption("config.canvas.value.indirect_terrain_draw",
+				() -> editing.indirectTerrainDraw,
+				b -> {
+					reload |= Configurator.indirectTerrainDraw != b;
+					editing.indirectTerrainDraw = b;
+				},
+				DEFAULTS.indirectTerrainDraw,
+				"config.canvas.help.indirect_terrain_draw").listItem());
+
+		list.addItem(optionSession.booleanOption("config.canvas.value.merge_terrain_quads",
+				() -> editing.mergeTerrainQuads,
+				b -> {
+					reload |= Configurator.mergeTerrainQuads != b;
+					editing.mergeTerrainQuads = b;
+				},
+				DEFAULTS.mergeTerrainQuads,
+				"config.canvas.help.merge_terrain_quads").listItem());
+
+		list.addItem(optionSession.booleanOption("config.canvas.value.compact_terrain_vertices",
+				() -> editing.compactTerrainVertices,
+				b -> {
+					reload |= Configurator.compactTerrainVertices != b;
+					editing.compactTerrainVertices = b;
+				},
+				DEFAULTS.compactTerrainVertices,
+				"config.canvas.help.compact_terrain_vertices").listItem());
+
+		list.addItem(optionSession.booleanOption("config.canvas.value.cache_terrain_quads",
+				() -> editing.cacheTerrainQuads,
+				b -> {
+					reload |= Configurator.cacheTerrainQuads != b;
+					editing.cacheTerrainQuads = b;
+				},
+				DEFAULTS.cacheTerrainQuads,
+				"config.canvas.help.cache_terrain_quads").listItem());
+
+		list.addItem(optionSession.booleanOption("config.canvas.value.direct_terrain_buffers",
+				() -> editing.directTerrainBuffers,
+				b -> {
+					reload |= Configurator.directTerrainBuffers != b;
+					editing.directTerrainBuffers = b;
+				},
+				DEFAULTS.directTerrainBuffers,
+				"config.canvas.help.direct_terrain_buffers").listItem());
+
 		// DEBUG
 		final int indexDebug = list.addCategory("config.canvas.category.debug");
 
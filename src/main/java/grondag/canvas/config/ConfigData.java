@@ -83,6 +83,12 @@ class ConfigData {
 	boolean cullParticles = true;
 	@Comment("Use Canvas thread pool for rendering and local server tasks. May reduce lag spikes caused by thread contention.")
 	boolean useCombinedThreadPool = false;
+	@Comment("Terrain workers keep their own task queues and steal work from each other. May improve chunk rebuild rate on machines with many cores. Ignored if combined thread pool is enabled.")
+	boolean useWorkStealingExecutor = false;
+	@Comment("Fewest terrain workers kept active for chunk rebuilds when there is little to build. Values 1 to 32.")
+	int minTerrainWorkers = 1;
+	@Comment("Most terrain workers used for chunk rebuilds during exploration. Values 1 to 32. Also limited by CPU core count.")
+	int maxTerrainWorkers = 32;
 	@Comment("Strategy used to prime shadow regions. Tiered has fewer gaps but is more expensive, while Padded is slightly cleverer than Naive.")
 	TerrainIterator.ShadowPriming shadowPrimingStrategy = TerrainIterator.ShadowPriming.PADDED;
 	@Comment("Maximum shadow render distance to be compared against render distance. TEMPORARY, meant to become a pipeline configuration.")
@@ -99,6 +105,16 @@ class ConfigData {
 	boolean disableUnseenSpriteAnimation = true;
 	@Comment("When true, terrain facing away from the camera is not rendered.  Usually improves frame rate.")
 	boolean cullBackfacingTerrain = true;
+	@Comment("When true and supported (OpenGL 4.3), terrain draw commands are kept in GL buffers and submitted with multi-draw-indirect. May reduce driver overhead.")
+	boolean indirectTerrainDraw = false;
+	@Comment("When true, adjacent flat terrain faces with the same texture, color and lighting are merged into larger quads. Reduces vertex memory at long render distance.")
+	boolean mergeTerrainQuads = false;
+	@Comment("When true, terrain vertices are stored on the GPU in a smaller format with reduced position and light precision. Lets more regions fit in video memory at long render distance.")
+	boolean compactTerrainVertices = false;
+	@Comment("When true, quads of simple block models are captured once per block state and reused when building terrain. Reduces chunk build time.")
+	boolean cacheTerrainQuads = true;
+	@Comment("When true, solid terrain is written directly to off-heap transfer buffers while building. Avoids one copy of terrain vertices and reduces heap use. Not used with compact terrain vertices.")
+	boolean directTerrainBuffers = false;
 	@Comment("Enabling may help performance by drawing fewer regions but some regions may flicker as you move around nearby blocks.")
 	boolean enableNearOccluders = false;
 	@Comment("Method used to transfer data to GPU. AUTO is recommended but performance can be specific to your system. Other options are DIRECT, HYBRID, and MAPPED")
@@ -54,6 +54,9 @@ public class Configurator {
 	public static int dynamicFrustumPadding = DEFAULTS.dynamicFrustumPadding;
 	public static boolean cullParticles = DEFAULTS.cullParticles;
 	public static StartupFinalBoolean useCombinedThreadPool = new StartupFinalBoolean(DEFAULTS.useCombinedThreadPool);
+	public static StartupFinalBoolean useWorkStealingExecutor = new StartupFinalBoolean(DEFAULTS.useWorkStealingExecutor);
+	public static int minTerrainWorkers = DEFAULTS.minTerrainWorkers;
+	public static int maxTerrainWorkers = DEFAULTS.maxTerrainWorkers;
 	public static boolean shaderDebug = DEFAULTS.shaderDebug;
 	public static boolean preprocessShaderSource = DEFAULTS.preprocessShaderSource;
 	// public static boolean lightmapDebug = DEFAULTS.lightmapDebug;
@@ -93,6 +96,11 @@ public class Configurator {
 	public static boolean steadyDebugScreen = DEFAULTS.steadyDebugScreen;
 	public static boolean disableUnseenSpriteAnimation = DEFAULTS.disableUnseenSpriteAnimation;
 	public static boolean cullBackfacingTerrain = DEFAULTS.cullBackfacingTerrain;
+	public static boolean indirectTerrainDraw = DEFAULTS.indirectTerrainDraw;
+	public static boolean mergeTerrainQuads = DEFAULTS.mergeTerrainQuads;
+	public static boolean compactTerrainVertices = DEFAULTS.compactTerrainVertices;
+	public static boolean cacheTerrainQuads = DEFAULTS.cacheTerrainQuads;
+	public static boolean directTerrainBuffers = DEFAULTS.directTerrainBuffers;
 	public static boolean debugSpriteAtlas = DEFAULTS.debugSpriteAtlas;
 	public static boolean traceTextureLoad = DEFAULTS.traceTextureLoad;
 
@@ -152,6 +160,9 @@ public class Configurator {
 		staticFrustumPadding = Mth.clamp(config.staticFrustumPadding, 0, 20);
 		cullParticles = config.cullParticles;
 		useCombinedThreadPool.set(config.useCombinedThreadPool, isStartup);
+		useWorkStealingExecutor.set(config.useWorkStealingExecutor, isStartup);
+		minTerrainWorkers = Mth.clamp(config.minTerrainWorkers, 1, 32);
+		maxTerrainWorkers = Mth.clamp(config.maxTerrainWorkers, 1, 32);
 		transferBufferMode = config.transferBufferMode;
 		steadyDebugScreen = config.steadyDebugScreen;
 
@@ -183,6 +194,11 @@ public class Configurator {
 		enableNearOccluders = config.enableNearOccluders;
 		disableUnseenSpriteAnimation = config.disableUnseenSpriteAnimation;
 		cullBackfacingTerrain = config.cullBackfacingTerrain;
+		indirectTerrainDraw = config.indirectTerrainDraw;
+		mergeTerrainQuads = config.mergeTerrainQuads;
+		compactTerrainVertices = config.compactTerrainVertices;
+		cacheTerrainQuads = config.cacheTerrainQuads;
+		directTerrainBuffers = config.directTerrainBuffers;
 		debugSpriteAtlas = config.debugSpriteAtlas;
 		traceTextureLoad = config.traceTextureLoad;
 	}
@@ -217,6 +233,9 @@ public class Configurator {
 		config.dynamicFrustumPadding = dynamicFrustumPadding;
 		config.cullParticles = cullParticles;
 		config.useCombinedThreadPool = useCombinedThreadPool.current;
+		config.useWorkStealingExecutor = useWorkStealingExecutor.current;
+		config.minTerrainWorkers = minTerrainWorkers;
+		config.maxTerrainWorkers = maxTerrainWorkers;
 		config.transferBufferMode = transferBufferMode;
 		config.steadyDebugScreen = steadyDebugScreen;
 
@@ -248,6 +267,11 @@ public class Configurator {
 		config.enableNearOccluders = enableNearOccluders;
 		config.disableUnseenSpriteAnimation = disableUnseenSpriteAnimation;
 		config.cullBackfacingTerrain = cullBackfacingTerrain;
+		config.indirectTerrainDraw = indirectTerrainDraw;
+		config.mergeTerrainQuads = mergeTerrainQuads;
+		config.compactTerrainVertices = compactTerrainVertices;
+		config.cacheTerrainQuads = cacheTerrainQuads;
+		config.directTerrainBuffers = directTerrainBuffers;
 		config.debugSpriteAtlas = debugSpriteAtlas;
 		config.traceTextureLoad = traceTextureLoad;
 	}
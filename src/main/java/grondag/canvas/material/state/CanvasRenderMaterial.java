@@ -44,6 +44,10 @@ import grondag.canvas.shader.ProgramType;
 import grondag.canvas.texture.MaterialIndexer;
 
 public class CanvasRenderMaterial extends BaseRenderMaterial {
+	/** Vertex shaders that leave vertices and texture coordinates as encoded. The canvas one is deprecated. */
+	private static final ResourceLocation DEFAULT_VERTEX_SOURCE = new ResourceLocation("frex:shaders/material/default.vert");
+	private static final ResourceLocation LEGACY_DEFAULT_VERTEX_SOURCE = new ResourceLocation("canvas:shaders/material/default.vert");
+
 	protected final ResourceCache<MaterialIndexer> indexer;
 	protected final long collectorKey;
 	protected final int collectorIndex;
@@ -55,6 +59,7 @@ public class CanvasRenderMaterial extends BaseRenderMaterial {
 	protected final TextureMaterialState texture;
 
 	protected final BaseMaterialShader shaderId;
+	protected final boolean allowsQuadMerge;
 
 	protected final int vertexShaderIndex;
 	protected final ResourceLocation vertexShaderId;
@@ -115,6 +120,11 @@ public class CanvasRenderMaterial extends BaseRenderMaterial {
 
 		indexer = new ResourceCache<>(() -> renderState.texture.materialIndexProvider().getIndexer(this));
 
+		// overlays and LOD bias aren't handled by the tiled texture path, and material vertex
+		// shaders may move vertices or read texture coordinates per vertex, as foliage does
+		allowsQuadMerge = materialTexture.isAtlas() && !sorted() && !unmipped() && !foilOverlay() && !hurtOverlay() && !flashOverlay()
+				&& isDefaultVertexShader(vertexShaderId) && isDefaultVertexShader(depthVertexShaderId);
+
 		//System.out.println("\n");
 		//System.out.println("Material State");
 		//System.out.println(this.toString());
@@ -122,10 +132,23 @@ public class CanvasRenderMaterial extends BaseRenderMaterial {
 		//System.out.println(renderState.toString());
 	}
 
+	private static boolean isDefaultVertexShader(ResourceLocation id) {
+		return DEFAULT_VERTEX_SOURCE.equals(id) || LEGACY_DEFAULT_VERTEX_SOURCE.equals(id);
+	}
+
 	public MaterialIndexer materialIndexer() {
 		return indexer.getOrLoad();
 	}
 
+	/**
+	 * True if terrain quads with this material and sprite may be merged into
+	 * larger quads with repeating texture coordinates. Only materials with the default
+	 * vertex and depth vertex shaders qualify. Animated sprites opt out.
+	 */
+	public boolean allowsQuadMerge(int spriteId) {
+		return allowsQuadMerge && ((SpriteExt) texture().spriteIndex().fromIndex(spriteId)).canvas_animationIndex() <= 0;
+	}
+
 	public void trackPerFrameAnimation(int spriteId) {
 		if (!this.discardsTexture() && texture().isAtlas()) {
 			// WIP: create and use sprite method on quad
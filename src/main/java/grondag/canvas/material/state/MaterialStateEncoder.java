@@ -78,10 +78,18 @@ public abstract class MaterialStateEncoder {
 	private static final BitPacker64<Void>.BooleanElement M_FOG = MATERIAL_PACKER.createBooleanElement();
 	private static final BitPacker64<Void>.BooleanElement M_ENABLE_GLINT = MATERIAL_PACKER.createBooleanElement();
 
+	/**
+	 * Shader flag for material indices whose quads have texture coordinates in sprite repeats.
+	 * Not part of the material key - only set on the tiled indices of merged terrain quads.
+	 */
+	public static final int SHADER_FLAG_TILED_UV = 1 << 11;
+
 	private static final long TRANSLUCENT_TERRAIN_KEY;
 	private static final long TRANSLUCENT_ENTITY_KEY;
 
 	static {
+		assert (SHADER_FLAG_TILED_UV >> (MATERIAL_PACKER.bitLength() - FLAG_SHIFT)) != 0 : "Tiled UV shader flag overlaps material flags";
+
 		long translucentBits = R_TARGET.setValue(MaterialConstants.TARGET_TRANSLUCENT, 0);
 		translucentBits = R_TEXTURE.setValue(TextureMaterialState.fromId(InventoryMenu.BLOCK_ATLAS).index, translucentBits);
 		translucentBits = R_BLUR.setValue(false, translucentBits);
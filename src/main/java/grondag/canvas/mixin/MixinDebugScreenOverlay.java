@@ -47,12 +47,14 @@ import net.minecraft.client.gui.components.DebugScreenOverlay;
 //import net.minecraft.client.renderer.GameRenderer;
 
 import grondag.canvas.CanvasMod;
+import grondag.canvas.apiimpl.rendercontext.TerrainQuadCache;
 import grondag.canvas.buffer.input.ArrayVertexCollector;
 import grondag.canvas.buffer.render.TransferBuffers;
 import grondag.canvas.buffer.util.DirectBufferAllocator;
 import grondag.canvas.buffer.util.GlBufferAllocator;
 import grondag.canvas.render.terrain.cluster.SlabAllocator;
 import grondag.canvas.render.world.CanvasWorldRenderer;
+import grondag.canvas.terrain.occlusion.geometry.OcclusionResultCache;
 import grondag.canvas.terrain.util.TerrainExecutor;
 import grondag.canvas.varia.CanvasGlHelper;
 //import grondag.canvas.config.Configurator;
@@ -210,6 +212,8 @@ public class MixinDebugScreenOverlay extends GuiComponent {
 		result.add(GlBufferAllocator.debugString());
 		result.add(TransferBuffers.debugString());
 		result.add(ArrayVertexCollector.debugReport());
+		result.add(OcclusionResultCache.debugReport());
+		result.add(TerrainQuadCache.debugReport());
 		TerrainExecutor.INSTANCE.debugReport(result);
 
 		@SuppressWarnings("resource")
@@ -217,8 +221,14 @@ public class MixinDebugScreenOverlay extends GuiComponent {
 		result.add("Solid " + worldRenderState.solidClusterRealm.debugSummary());
 		result.add("Translucent " + worldRenderState.translucentClusterRealm.debugSummary());
 		result.add(worldRenderState.drawlistDebugSummary());
+		result.add(worldRenderState.terrainIterator.occlusionDebugSummary());
+		result.add(worldRenderState.terrainIterator.temporalDebugSummary());
 		result.add(SlabAllocator.debugSummary());
 
+		if (worldRenderState.regionBuilder() != null) {
+			result.add(worldRenderState.regionBuilder().getDebugString());
+		}
+
 		return result;
 	}
 }
@@ -318,6 +318,31 @@ public class TerrainFrustum extends CanvasFrustum {
 		return !(cx * bottomX + cy * bottomY + cz * bottomZ + bottomRegionExtent > 0);
 	};
 
+	/** True when the entire region is inside the frustum, not merely intersecting it. */
+	public final RegionVisibilityTest containmentTest = p -> {
+		final float cx = p.cameraRelativeCenterX();
+		final float cy = p.cameraRelativeCenterY();
+		final float cz = p.cameraRelativeCenterZ();
+
+		if (cx * leftX + cy * leftY + cz * leftZ + leftW + 8 * (leftXe + leftYe + leftZe) > 0) {
+			return false;
+		}
+
+		if (cx * rightX + cy * rightY + cz * rightZ + rightW + 8 * (rightXe + rightYe + rightZe) > 0) {
+			return false;
+		}
+
+		if (cx * nearX + cy * nearY + cz * nearZ + nearW + 8 * (nearXe + nearYe + nearZe) > 0) {
+			return false;
+		}
+
+		if (cx * topX + cy * topY + cz * topZ + topW + 8 * (topXe + topYe + topZe) > 0) {
+			return false;
+		}
+
+		return !(cx * bottomX + cy * bottomY + cz * bottomZ + bottomW + 8 * (bottomXe + bottomYe + bottomZe) > 0);
+	};
+
 	public interface RegionVisibilityTest {
 		boolean isVisible(RegionPosition pos);
 	}
@@ -76,6 +76,11 @@ public abstract class AbstractDrawableRegion<T extends UploadableVertexStorage>
 
 	protected abstract void closeInner();
 
+	@Override
+	public final void discard() {
+		close();
+	}
+
 	@Override
 	public void retainFromDrawList() {
 		final int count = retainCount.getAndIncrement();
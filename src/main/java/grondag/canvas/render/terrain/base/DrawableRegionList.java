@@ -20,10 +20,12 @@
 
 package grondag.canvas.render.terrain.base;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
 import grondag.canvas.material.state.RenderState;
 import grondag.canvas.material.state.TerrainRenderStates;
+import grondag.canvas.render.terrain.drawlist.ClusterGrouping;
 import grondag.canvas.render.terrain.drawlist.RealmDrawList;
 import grondag.canvas.render.world.WorldRenderState;
 import grondag.canvas.terrain.occlusion.VisibleRegionList;
@@ -60,30 +62,73 @@ public interface DrawableRegionList {
 		}
 	};
 
+	/**
+	 * Parts of the prior list for clusters whose regions are unchanged are carried
+	 * over instead of rebuilt, so the prior list should be closed only after this returns.
+	 * Uses the list's cluster grouping and the draw commands prepared with it if it has one,
+	 * which gives the same result.
+	 *
+	 * @param prior List being replaced, or {@link #EMPTY}.
+	 * @param faceCullingKey Changes whenever region face culling flags may have changed.
+	 */
 	static DrawableRegionList build(
 			final VisibleRegionList visibleRegions,
 			boolean isTranslucent,
-			boolean isShadowMap
+			boolean isShadowMap,
+			DrawableRegionList prior,
+			long faceCullingKey
 	) {
 		final ObjectArrayList<DrawableRegion> drawables = new ObjectArrayList<>();
-
-		final int count = visibleRegions.size();
-		final int startIndex = isTranslucent ? count - 1 : 0;
-		final int endIndex = isTranslucent ? -1 : count;
-		final int step = isTranslucent ? -1 : 1;
-
-		for (int regionLoopIndex = startIndex; regionLoopIndex != endIndex; regionLoopIndex += step) {
-			final RenderRegion region = visibleRegions.get(regionLoopIndex);
-			final DrawableRegion drawable = isTranslucent ? region.translucentDrawable() : region.solidDrawable();
-
-			if (drawable != null && drawable != DrawableRegion.EMPTY_DRAWABLE) {
-				drawables.add(drawable);
-				drawable.retainFromDrawList();
+		final ClusterGrouping grouping = visibleRegions.clusterGrouping(isTranslucent);
+		int[] groupEnds = null;
+		int[] groups = null;
+
+		if (grouping == null) {
+			final int count = visibleRegions.size();
+			final int startIndex = isTranslucent ? count - 1 : 0;
+			final int endIndex = isTranslucent ? -1 : count;
+			final int step = isTranslucent ? -1 : 1;
+
+			for (int regionLoopIndex = startIndex; regionLoopIndex != endIndex; regionLoopIndex += step) {
+				addDrawable(drawables, visibleRegions.get(regionLoopIndex), isTranslucent);
 			}
+		} else {
+			// Grouping was done off thread, but drawables are resolved here because
+			// regions may have been closed or rebuilt since iteration completed.
+			final int groupCount = grouping.groupCount();
+			final IntArrayList ends = new IntArrayList(groupCount);
+			final IntArrayList kept = new IntArrayList(groupCount);
+			int position = 0;
+
+			for (int group = 0; group < groupCount; ++group) {
+				final int groupEnd = grouping.groupEnd(group);
+
+				for (; position < groupEnd; ++position) {
+					addDrawable(drawables, visibleRegions.get(grouping.regionIndex(position)), isTranslucent);
+				}
+
+				// groups with no drawables are dropped
+				if (ends.isEmpty() ? !drawables.isEmpty() : drawables.size() > ends.topInt()) {
+					ends.add(drawables.size());
+					kept.add(group);
+				}
+			}
+
+			groupEnds = ends.toIntArray();
+			groups = kept.toIntArray();
 		}
 
 		final var renderState = isTranslucent ? TerrainRenderStates.TRANSLUCENT : TerrainRenderStates.SOLID;
-		return drawables.isEmpty() ? DrawableRegionList.EMPTY : RealmDrawList.build(drawables, renderState, isShadowMap);
+		return drawables.isEmpty() ? DrawableRegionList.EMPTY : RealmDrawList.build(drawables, grouping, groupEnds, groups, renderState, isShadowMap, prior, faceCullingKey);
+	}
+
+	private static void addDrawable(ObjectArrayList<DrawableRegion> drawables, RenderRegion region, boolean isTranslucent) {
+		final DrawableRegion drawable = isTranslucent ? region.translucentDrawable() : region.solidDrawable();
+
+		if (drawable != null && drawable != DrawableRegion.EMPTY_DRAWABLE) {
+			drawables.add(drawable);
+			drawable.retainFromDrawList();
+		}
 	}
 
 	@FunctionalInterface
@@ -27,5 +27,18 @@ public interface UploadableRegion {
 	 */
 	DrawableRegion produceDrawable();
 
+	/**
+	 * Called from client thread instead of {@link #produceDrawable()} when
+	 * the upload is superseded or no longer needed. Releases any held buffers.
+	 */
+	default void discard() { }
+
+	/**
+	 * Bytes that will be transferred by {@link #produceDrawable()}. For metrics.
+	 */
+	default int byteCount() {
+		return 0;
+	}
+
 	UploadableRegion EMPTY_UPLOADABLE = () -> DrawableRegion.EMPTY_DRAWABLE;
 }
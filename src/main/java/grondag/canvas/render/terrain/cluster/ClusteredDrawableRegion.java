@@ -22,11 +22,15 @@ package grondag.canvas.render.terrain.cluster;
 
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
+import grondag.canvas.buffer.format.CompactTerrainEncoder;
 import grondag.canvas.buffer.input.DrawableVertexCollector;
 import grondag.canvas.buffer.input.FaceBucket;
+import grondag.canvas.buffer.input.TerrainVertexCollector;
 import grondag.canvas.buffer.input.VertexCollectorList;
+import grondag.canvas.buffer.render.SegmentedTransferBuffer;
 import grondag.canvas.buffer.render.TransferBuffer;
 import grondag.canvas.buffer.render.TransferBuffers;
+import grondag.canvas.config.Configurator;
 import grondag.canvas.material.state.TerrainRenderStates;
 import grondag.canvas.render.terrain.base.AbstractDrawableRegion;
 import grondag.canvas.render.terrain.base.DrawableRegion;
@@ -55,12 +59,26 @@ public class ClusteredDrawableRegion extends AbstractDrawableRegion<ClusteredDra
 		assert drawList.size() == 1;
 		assert collector.sorted() == translucent;
 
-		final TransferBuffer transferBuffer = TransferBuffers.claim(byteCount);
 		final FaceBucket[] buckets = translucent ? null : collector.faceBuckets();
-		collector.toBuffer(transferBuffer, 0);
+		final int storageBytes;
+		final TransferBuffer transferBuffer;
+
+		if (collector instanceof TerrainVertexCollector terrainCollector && terrainCollector.isDirect()) {
+			// Vertices are already off-heap - collector hands over its buffers without a copy
+			storageBytes = byteCount;
+			transferBuffer = new SegmentedTransferBuffer();
+			collector.toBuffer(transferBuffer, 0);
+		} else {
+			// Collectors always hold the standard terrain format and are converted here if storage is compact
+			final boolean compact = Configurator.compactTerrainVertices;
+			storageBytes = compact ? CompactTerrainEncoder.storageBytes(byteCount) : byteCount;
+			transferBuffer = TransferBuffers.claim(storageBytes);
+			collector.toBuffer(compact ? CompactTerrainEncoder.compacting(transferBuffer) : transferBuffer, 0);
+		}
+
 		final ClusteredDrawableStorage storage = new ClusteredDrawableStorage(
 				realm,
-				transferBuffer, byteCount, origin, collector.quadCount() * 4,
+				transferBuffer, storageBytes, origin, collector.quadCount() * 4,
 				buckets);
 
 		return new ClusteredDrawableRegion(collector.quadCount() * 4, storage);
@@ -72,6 +90,11 @@ public class ClusteredDrawableRegion extends AbstractDrawableRegion<ClusteredDra
 		return this;
 	}
 
+	@Override
+	public int byteCount() {
+		return storage().byteCount;
+	}
+
 	@Override
 	protected void closeInner() {
 		// NOOP
@@ -20,8 +20,6 @@
 
 package grondag.canvas.render.terrain.cluster;
 
-import static grondag.canvas.render.terrain.cluster.SlabAllocator.BYTES_PER_SLAB_VERTEX;
-
 import java.nio.ByteBuffer;
 import java.nio.ShortBuffer;
 
@@ -42,12 +40,14 @@ public class Slab extends AbstractGlBuffer implements SynchronizedBuffer {
 	private int headVertexIndex = 0;
 	private int usedVertexCount;
 	private final int maxVertexCount;
+	private final int bytesPerVertex;
 
-	Slab(int capacityBytes) {
+	Slab(int capacityBytes, int bytesPerVertex) {
 		// NB: STATIC makes a huge positive difference on AMD at least
 		super(capacityBytes, GFX.GL_ARRAY_BUFFER, GFX.GL_STATIC_DRAW);
 		assert RenderSystem.isOnRenderThread();
-		maxVertexCount = (capacityBytes / BYTES_PER_SLAB_VERTEX) & ~3;
+		this.bytesPerVertex = bytesPerVertex;
+		maxVertexCount = (capacityBytes / bytesPerVertex) & ~3;
 	}
 
 	TransferBuffer asTransferBuffer() {
@@ -70,11 +70,11 @@ public class Slab extends AbstractGlBuffer implements SynchronizedBuffer {
 	 * Thus, may not match {@link #capacityBytes()} - {@link #availableBytes()}.
 	 */
 	int usedBytes() {
-		return usedVertexCount * BYTES_PER_SLAB_VERTEX;
+		return usedVertexCount * bytesPerVertex;
 	}
 
 	int availableBytes() {
-		return availableVertexCount() * BYTES_PER_SLAB_VERTEX;
+		return availableVertexCount() * bytesPerVertex;
 	}
 
 	public boolean isFull() {
@@ -96,7 +96,7 @@ public class Slab extends AbstractGlBuffer implements SynchronizedBuffer {
 	private void addToVertexCounts(int vertexCount) {
 		usedVertexCount += vertexCount;
 		assert usedVertexCount >= 0;
-		SlabAllocator.addToVertexCount(vertexCount);
+		SlabAllocator.addToUsedBytes(vertexCount * bytesPerVertex);
 	}
 
 	@Override
@@ -106,13 +106,14 @@ public class Slab extends AbstractGlBuffer implements SynchronizedBuffer {
 
 	/** Returns the number of vertices allocated. */
 	SlabAllocation allocateAndLoad(SlabAllocationFactory factory, TransferBuffer buffer) {
-		final int quadVertexCount = buffer.sizeBytes() / BYTES_PER_SLAB_VERTEX;
-		assert quadVertexCount * BYTES_PER_SLAB_VERTEX == buffer.sizeBytes();
+		final int quadVertexCount = buffer.sizeBytes() / bytesPerVertex;
+		assert quadVertexCount * bytesPerVertex == buffer.sizeBytes();
 		return allocateInner(factory, buffer, 0, quadVertexCount);
 	}
 
 	/** Returns the number of quad vertices transfered. */
 	SlabAllocation transferFromSlabAllocation(SlabAllocationFactory factory, SlabAllocation source) {
+		assert source.slab.bytesPerVertex == bytesPerVertex : "Slab transfer between vertex formats";
 		return allocateInner(factory, source.slab.asTransferBuffer(), source.baseQuadVertexIndex, source.quadVertexCount);
 	}
 
@@ -127,9 +128,9 @@ public class Slab extends AbstractGlBuffer implements SynchronizedBuffer {
 
 		GFX.bindBuffer(bindTarget, glBufferId());
 		buffer.transferToBoundBuffer(bindTarget,
-				headVertexIndex * BYTES_PER_SLAB_VERTEX,
-				sourceStartVertexIndex * BYTES_PER_SLAB_VERTEX,
-				allocatedVertexCount * BYTES_PER_SLAB_VERTEX);
+				headVertexIndex * bytesPerVertex,
+				sourceStartVertexIndex * bytesPerVertex,
+				allocatedVertexCount * bytesPerVertex);
 
 		headVertexIndex = newHeadVertexIndex;
 		return allocation;
@@ -29,8 +29,8 @@ public class SlabAllocator {
 	private static long usedBytes = 0;
 	private static long capacityBytes = 0;
 
-	static void addToVertexCount(int vertexCount) {
-		usedBytes += vertexCount * BYTES_PER_SLAB_VERTEX;
+	static void addToUsedBytes(int bytes) {
+		usedBytes += bytes;
 	}
 
 	static void notifyShutdown(Slab slab) {
@@ -40,18 +40,14 @@ public class SlabAllocator {
 	}
 
 	public static final int SLAB_QUAD_VERTEX_COUNT_INCREMENT = 0x1000;
-	public static final int BYTES_PER_SLAB_VERTEX = 28;
-	static final int SLAB_BYTES_INCREMENT = SLAB_QUAD_VERTEX_COUNT_INCREMENT * BYTES_PER_SLAB_VERTEX;
-
-	static {
-		// Want IDE to show actual numbers above, so check here at run time that nothing changed and got missed.
-		assert BYTES_PER_SLAB_VERTEX == TerrainEncoder.TERRAIN_MATERIAL.vertexStrideBytes : "Slab vertex size doesn't match vertex format";
-	}
 
 	static Slab claim(int minCapacityBytes) {
 		assert RenderSystem.isOnRenderThread();
 		++slabCount;
-		final var result = new Slab((minCapacityBytes + SLAB_BYTES_INCREMENT - 1) / SLAB_BYTES_INCREMENT * SLAB_BYTES_INCREMENT);
+		// Vertex size depends on configuration so slabs capture it when created
+		final int bytesPerVertex = TerrainEncoder.storageFormat().vertexStrideBytes;
+		final int bytesIncrement = SLAB_QUAD_VERTEX_COUNT_INCREMENT * bytesPerVertex;
+		final var result = new Slab((minCapacityBytes + bytesIncrement - 1) / bytesIncrement * bytesIncrement, bytesPerVertex);
 		capacityBytes += result.capacityBytes();
 		return result;
 	}
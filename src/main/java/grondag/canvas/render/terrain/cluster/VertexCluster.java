@@ -48,6 +48,12 @@ public class VertexCluster implements ClusterTask {
 	private boolean isScheduled = false;
 	private boolean itMe = false;
 
+	/**
+	 * Incremented on the render thread after any change to the slab allocations of this cluster.
+	 * Draw commands computed off thread are only used if this is unchanged when they are consumed.
+	 */
+	private volatile int allocationVersion;
+
 	public VertexCluster(VertexClusterRealm owner, long clusterPos) {
 		realm = owner;
 		this.clusterPos = clusterPos;
@@ -57,6 +63,16 @@ public class VertexCluster implements ClusterTask {
 		return activeBytes;
 	}
 
+	/** Safe to read from any thread. */
+	public int allocationVersion() {
+		return allocationVersion;
+	}
+
+	/** Render thread is the only writer so increment doesn't need to be atomic. */
+	private void bumpAllocationVersion() {
+		++allocationVersion;
+	}
+
 	private Slab getHungrySlab(int slabBytes) {
 		if (hungrySlab == null || hungrySlab.availableBytes() < slabBytes) {
 			// We want to use the new slab for compaction so request one big enough to hold everything we have
@@ -91,6 +107,7 @@ public class VertexCluster implements ClusterTask {
 			}
 
 			slabs.clear();
+			bumpAllocationVersion();
 
 			realm.notifyClosed(this);
 		}
@@ -170,6 +187,8 @@ public class VertexCluster implements ClusterTask {
 		assert slabs.size() == 1;
 		assert slabs.get(0) == hungrySlab;
 
+		bumpAllocationVersion();
+
 		if (!holdingLists.isEmpty()) {
 			for (final var list : holdingLists) {
 				list.invalidate();
@@ -177,15 +196,15 @@ public class VertexCluster implements ClusterTask {
 		}
 	}
 
-	void addListListener(ClusterDrawList listener) {
+	public void addListListener(ClusterDrawList listener) {
 		assert !holdingLists.contains(listener);
 		assert !isClosed;
 		holdingLists.add(listener);
 	}
 
-	void removeListListener(ClusterDrawList listener) {
+	/** Cluster may already be closed if the list outlived its regions. */
+	public void removeListListener(ClusterDrawList listener) {
 		assert holdingLists.contains(listener);
-		assert !isClosed;
 		holdingLists.remove(listener);
 	}
 
@@ -205,6 +224,7 @@ public class VertexCluster implements ClusterTask {
 			transferBuffer.release();
 			allocatedRegions.put(region, this);
 			activeBytes += region.byteCount;
+			bumpAllocationVersion();
 		}
 
 		private void closeRegion() {
@@ -274,6 +294,7 @@ public class VertexCluster implements ClusterTask {
 
 				if (!isSlabAllocationClosed) {
 					isSlabAllocationClosed = true;
+					bumpAllocationVersion();
 					vao.shutdown();
 					slab.removeAllocation(this);
 					scheduleIfNeeded();
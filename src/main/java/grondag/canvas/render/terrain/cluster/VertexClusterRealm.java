@@ -40,7 +40,7 @@ public class VertexClusterRealm {
 	 */
 	private static final int BLOCKPOS_TO_CLUSTER_SHIFT = 4 + CLUSTER_SHIFT;
 
-	static long clusterPos(long packedOriginBlockPos) {
+	public static long clusterPos(long packedOriginBlockPos) {
 		final int x = BlockPos.getX(packedOriginBlockPos);
 		final int z = BlockPos.getZ(packedOriginBlockPos);
 		return BlockPos.asLong(x >> BLOCKPOS_TO_CLUSTER_SHIFT, 0, z >> BLOCKPOS_TO_CLUSTER_SHIFT);
@@ -23,6 +23,7 @@ package grondag.canvas.render.terrain.drawlist;
 import java.util.IdentityHashMap;
 
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.jetbrains.annotations.Nullable;
 
 import grondag.canvas.config.Configurator;
 import grondag.canvas.render.terrain.cluster.ClusteredDrawableStorage;
@@ -30,7 +31,6 @@ import grondag.canvas.render.terrain.cluster.Slab;
 import grondag.canvas.render.terrain.cluster.VertexCluster;
 import grondag.canvas.render.terrain.cluster.VertexCluster.RegionAllocation.SlabAllocation;
 import grondag.canvas.render.world.SkyShadowRenderer;
-import grondag.canvas.varia.GFX;
 
 public class ClusterDrawList {
 	final ObjectArrayList<ClusteredDrawableStorage> regions = new ObjectArrayList<>();
@@ -42,6 +42,8 @@ public class ClusterDrawList {
 	ClusterDrawList(VertexCluster cluster, RealmDrawList owner) {
 		this.cluster = cluster;
 		this.owner = owner;
+		// so compaction can tell us when slab allocations move
+		cluster.addListListener(this);
 	}
 
 	public int quadCount() {
@@ -51,44 +53,109 @@ public class ClusterDrawList {
 	void build() {
 		assert drawSpecs.isEmpty();
 
-		if (cluster.realm.isTranslucent) {
-			buildTranslucent();
-		} else {
-			buildSolid();
+		final ObjectArrayList<SlabDrawCommands> commands = new ObjectArrayList<>();
+		quadCount = buildCommands(regions, cluster.realm.isTranslucent, owner.isShadowMap, commands);
+		assert quadCount >= 0 : "Draw list region without slab allocation";
+		commands.forEach(c -> drawSpecs.add(new DrawSpec(c)));
+	}
+
+	/**
+	 * Takes the draw specs of a list from a prior draw list if both hold the same
+	 * regions in the same order. The prior list is left with nothing to release.
+	 */
+	boolean takeSpecsIfSame(ClusterDrawList prior) {
+		assert drawSpecs.isEmpty();
+		assert prior.cluster == cluster;
+
+		final int limit = regions.size();
+
+		if (prior.regions.size() != limit) {
+			return false;
 		}
+
+		for (int i = 0; i < limit; ++i) {
+			if (prior.regions.get(i) != regions.get(i)) {
+				return false;
+			}
+		}
+
+		drawSpecs.addAll(prior.drawSpecs);
+		prior.drawSpecs.clear();
+		quadCount = prior.quadCount;
+		return true;
+	}
+
+	/**
+	 * Creates draw specs from commands computed off thread if they were computed for the
+	 * same regions, face culling and cluster allocations as now. Only GL objects are created here.
+	 */
+	boolean buildFromPreparedIfCurrent(@Nullable PreparedClusterSpecs prepared, long faceCullingKey) {
+		assert drawSpecs.isEmpty();
+
+		if (prepared == null || !prepared.isCurrentFor(cluster, regions, faceCullingKey)) {
+			return false;
+		}
+
+		for (final SlabDrawCommands c : prepared.commands) {
+			drawSpecs.add(new DrawSpec(c));
+		}
+
+		quadCount = prepared.quadCount;
+		return true;
+	}
+
+	/**
+	 * Computes draw commands for regions of a single cluster, in draw order. Makes no GL calls.
+	 * May be called off the render thread, in which case allocations can change or be released
+	 * concurrently and the caller must validate the result against the cluster allocation version.
+	 *
+	 * @return Quad count, or -1 if a region has no slab allocation.
+	 */
+	static int buildCommands(ObjectArrayList<ClusteredDrawableStorage> regions, boolean isTranslucent, boolean isShadowMap, ObjectArrayList<SlabDrawCommands> output) {
+		final DrawSpecBuilder builder = DrawSpecBuilder.get();
+		return isTranslucent ? buildTranslucent(regions, builder, output) : buildSolid(regions, isShadowMap, builder, output);
 	}
 
 	/** Maintains region sort order at the cost of extra binds/calls if needed. */
-	private void buildTranslucent() {
+	private static int buildTranslucent(ObjectArrayList<ClusteredDrawableStorage> regions, DrawSpecBuilder builder, ObjectArrayList<SlabDrawCommands> output) {
 		Slab lastSlab = null;
 		final ObjectArrayList<SlabAllocation> specAllocations = new ObjectArrayList<>();
 		int quadCount = 0;
 
 		for (final var region : regions) {
-			final var alloc = region.allocation().getAllocation();
+			final var alloc = slabAllocation(region);
+
+			if (alloc == null) {
+				return -1;
+			}
 
 			if (alloc.slab != lastSlab) {
 				// NB: builder checks for empty region list (will be true for first region)
 				// and also clears the list when done.
-				quadCount += DrawSpecBuilder.build(specAllocations, drawSpecs, false, false);
+				quadCount += builder.build(specAllocations, output, false, false);
 				lastSlab = alloc.slab;
 			}
 
 			specAllocations.add(alloc);
 		}
 
-		quadCount += DrawSpecBuilder.build(specAllocations, drawSpecs, false, false);
+		quadCount += builder.build(specAllocations, output, false, false);
 
-		this.quadCount = quadCount;
+		return quadCount;
 	}
 
 	/** Minimizes binds/calls. */
-	private void buildSolid() {
+	private static int buildSolid(ObjectArrayList<ClusteredDrawableStorage> regions, boolean isShadowMap, DrawSpecBuilder builder, ObjectArrayList<SlabDrawCommands> output) {
 		final IdentityHashMap<Slab, ObjectArrayList<SlabAllocation>> map = new IdentityHashMap<>();
 
 		// first group regions by slab
 		for (final var region : regions) {
-			final var alloc = region.allocation().getAllocation();
+			final var alloc = slabAllocation(region);
+
+			if (alloc == null) {
+				return -1;
+			}
+
 			var list = map.get(alloc.slab);
 
 			if (list == null) {
@@ -100,12 +167,19 @@ public class ClusterDrawList {
 		}
 
 		int quadCount = 0;
+		final boolean cullBackFace = Configurator.cullBackfacingTerrain && (!isShadowMap || Configurator.shadowFaceCulling != SkyShadowRenderer.Culling.NONE);
 
 		for (final var list: map.values()) {
-			quadCount += DrawSpecBuilder.build(list, drawSpecs, owner.isShadowMap, Configurator.cullBackfacingTerrain && (!owner.isShadowMap || Configurator.shadowFaceCulling != SkyShadowRenderer.Culling.NONE));
+			quadCount += builder.build(list, output, isShadowMap, cullBackFace);
 		}
 
-		this.quadCount = quadCount;
+		return quadCount;
+	}
+
+	@Nullable
+	private static SlabAllocation slabAllocation(ClusteredDrawableStorage region) {
+		final var allocation = region.allocation();
+		return allocation == null ? null : allocation.getAllocation();
 	}
 
 	public void draw() {
@@ -114,7 +188,7 @@ public class ClusterDrawList {
 		for (int i = 0; i < limit; ++i) {
 			final var spec = drawSpecs.get(i);
 			spec.bind();
-			GFX.glMultiDrawElementsBaseVertex(GFX.GL_TRIANGLES, spec.triVertexCount(), GFX.GL_UNSIGNED_SHORT, spec.triIndexOffset(), spec.baseQuadVertexOffset());
+			spec.draw();
 		}
 	}
 
@@ -129,5 +203,7 @@ public class ClusterDrawList {
 
 	public void release() {
 		drawSpecs.forEach(DrawSpec::release);
+		drawSpecs.clear();
+		cluster.removeListListener(this);
 	}
 }
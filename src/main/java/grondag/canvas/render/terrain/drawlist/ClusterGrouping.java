@@ -0,0 +1,128 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.render.terrain.drawlist;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import org.jetbrains.annotations.Nullable;
+
+import grondag.canvas.render.terrain.cluster.VertexClusterRealm;
+import grondag.canvas.terrain.occlusion.VisibleRegionList;
+
+/**
+ * Order in which a draw list visits the regions of a visible region list,
+ * grouped by vertex cluster. Clusters are in order of first appearance and
+ * regions keep their relative order within each cluster.
+ *
+ * <p>Depends only on region positions, so it can be computed off the render
+ * thread as soon as terrain iteration completes. Draw commands for each group are
+ * also computed then, but drawables are still resolved on the render thread when the
+ * draw list is built and commands are only used if they were computed for the same
+ * storages and slab allocations. Groups affected by regions closed or slabs compacted
+ * in the meantime are rebuilt on the render thread as usual.
+ */
+public final class ClusterGrouping {
+	/** Indices into the source list, grouped by cluster. */
+	private final int[] regionIndices;
+	/** Exclusive end of each group in {@link #regionIndices}. */
+	private final int[] groupEnds;
+	/** Draw commands for each group, or null for groups that couldn't be prepared. */
+	private final PreparedClusterSpecs[] prepared;
+
+	private ClusterGrouping(int[] regionIndices, int[] groupEnds, PreparedClusterSpecs[] prepared) {
+		this.regionIndices = regionIndices;
+		this.groupEnds = groupEnds;
+		this.prepared = prepared;
+	}
+
+	public int groupCount() {
+		return groupEnds.length;
+	}
+
+	/** Source list index of the region visited at the given position. */
+	public int regionIndex(int position) {
+		return regionIndices[position];
+	}
+
+	/** Exclusive end position of the given group. Groups are contiguous, starting at position zero. */
+	public int groupEnd(int group) {
+		return groupEnds[group];
+	}
+
+	@Nullable
+	PreparedClusterSpecs prepared(int group) {
+		return prepared[group];
+	}
+
+	/**
+	 * @param reverse True to visit regions last to first and prepare translucent draw commands,
+	 * as translucent draw lists do. Otherwise solid draw commands are prepared.
+	 * @param faceCullingKey Same key the draw list will be built with.
+	 */
+	public static ClusterGrouping build(VisibleRegionList regions, boolean reverse, boolean isShadowMap, long faceCullingKey) {
+		final int count = regions.size();
+		final Long2IntOpenHashMap groupMap = new Long2IntOpenHashMap();
+		groupMap.defaultReturnValue(-1);
+		final IntArrayList groupSizes = new IntArrayList();
+		final int[] regionGroups = new int[count];
+
+		for (int i = 0; i < count; ++i) {
+			final long clusterPos = VertexClusterRealm.clusterPos(regions.get(reverse ? count - 1 - i : i).origin.asLong());
+			int group = groupMap.get(clusterPos);
+
+			if (group == -1) {
+				group = groupSizes.size();
+				groupMap.put(clusterPos, group);
+				groupSizes.add(0);
+			}
+
+			regionGroups[i] = group;
+			groupSizes.set(group, groupSizes.getInt(group) + 1);
+		}
+
+		final int groupCount = groupSizes.size();
+		final int[] groupEnds = new int[groupCount];
+		final int[] cursors = new int[groupCount];
+		int end = 0;
+
+		for (int g = 0; g < groupCount; ++g) {
+			cursors[g] = end;
+			end += groupSizes.getInt(g);
+			groupEnds[g] = end;
+		}
+
+		final int[] regionIndices = new int[count];
+
+		for (int i = 0; i < count; ++i) {
+			regionIndices[cursors[regionGroups[i]]++] = reverse ? count - 1 - i : i;
+		}
+
+		final PreparedClusterSpecs[] prepared = new PreparedClusterSpecs[groupCount];
+		int start = 0;
+
+		for (int g = 0; g < groupCount; ++g) {
+			prepared[g] = PreparedClusterSpecs.prepare(regions, regionIndices, start, groupEnds[g], reverse, isShadowMap, faceCullingKey);
+			start = groupEnds[g];
+		}
+
+		return new ClusterGrouping(regionIndices, groupEnds, prepared);
+	}
+}
@@ -20,37 +20,73 @@
 
 package grondag.canvas.render.terrain.drawlist;
 
+import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 
 import org.lwjgl.PointerBuffer;
 import org.lwjgl.system.MemoryUtil;
 
+import grondag.canvas.buffer.util.GlBufferAllocator;
+import grondag.canvas.config.Configurator;
 import grondag.canvas.render.terrain.cluster.Slab;
+import grondag.canvas.varia.CanvasGlHelper;
+import grondag.canvas.varia.GFX;
 
 class DrawSpec {
+	/** Size of a DrawElementsIndirectCommand: count, instanceCount, firstIndex, baseVertex, baseInstance. */
+	private static final int INDIRECT_COMMAND_BYTES = 20;
+
 	private IntBuffer triVertexCount;
 	private IntBuffer baseQuadVertexOffset;
 	private PointerBuffer triIndexOffset;
 	private final int size;
 	private final TerrainVAO vao;
+	/** Zero unless draw commands are held in a GL buffer for multi-draw-indirect. */
+	private int indirectBuffer;
 	private boolean isClosed = false;
 
-	DrawSpec (Slab slab, int size, int[] triVertexCount, int[] baseQuadVertexOffset) {
+	/** Render thread only. Uploads the commands and creates GL objects. */
+	DrawSpec(SlabDrawCommands commands) {
+		final int size = commands.size;
+		final int[] triVertexCount = commands.triVertexCount;
+		final int[] baseQuadVertexOffset = commands.baseQuadVertexOffset;
+		final Slab slab = commands.slab;
 		this.size = size;
-		this.triVertexCount = MemoryUtil.memAllocInt(size);
-		this.triVertexCount.put(0, triVertexCount, 0, size);
-
-		this.baseQuadVertexOffset = MemoryUtil.memAllocInt(size);
-		this.baseQuadVertexOffset.put(0, baseQuadVertexOffset, 0, size);
 
-		triIndexOffset = MemoryUtil.memAllocPointer(size);
-
-		for (int i = 0; i < size; ++i) {
-			triIndexOffset.put(i, 0L);
+		if (Configurator.indirectTerrainDraw && CanvasGlHelper.supportsMultiDrawIndirect()) {
+			// Commands are uploaded once and stay on the GPU for the life of the spec
+			final ByteBuffer commands = MemoryUtil.memAlloc(size * INDIRECT_COMMAND_BYTES);
+
+			for (int i = 0; i < size; ++i) {
+				final int base = i * INDIRECT_COMMAND_BYTES;
+				commands.putInt(base, triVertexCount[i]);
+				commands.putInt(base + 4, 1);
+				commands.putInt(base + 8, 0);
+				commands.putInt(base + 12, baseQuadVertexOffset[i]);
+				commands.putInt(base + 16, 0);
+			}
+
+			indirectBuffer = GlBufferAllocator.claimBuffer(size * INDIRECT_COMMAND_BYTES);
+			GFX.bindBuffer(GFX.GL_DRAW_INDIRECT_BUFFER, indirectBuffer);
+			GFX.bufferData(GFX.GL_DRAW_INDIRECT_BUFFER, commands, GFX.GL_STATIC_DRAW);
+			GFX.bindBuffer(GFX.GL_DRAW_INDIRECT_BUFFER, 0);
+			MemoryUtil.memFree(commands);
+		} else {
+			this.triVertexCount = MemoryUtil.memAllocInt(size);
+			this.triVertexCount.put(0, triVertexCount, 0, size);
+
+			this.baseQuadVertexOffset = MemoryUtil.memAllocInt(size);
+			this.baseQuadVertexOffset.put(0, baseQuadVertexOffset, 0, size);
+
+			triIndexOffset = MemoryUtil.memAllocPointer(size);
+
+			for (int i = 0; i < size; ++i) {
+				triIndexOffset.put(i, 0L);
+			}
+
+			triIndexOffset.position(0);
 		}
 
-		triIndexOffset.position(0);
-
 		vao = new TerrainVAO(() -> slab.glBufferId(), () -> SlabIndex.get().glBufferId(), 0);
 	}
 
@@ -80,18 +116,33 @@ class DrawSpec {
 
 			vao.shutdown();
 
-			MemoryUtil.memFree(triVertexCount);
-			triVertexCount = null;
+			if (indirectBuffer != 0) {
+				GlBufferAllocator.releaseBuffer(indirectBuffer, size * INDIRECT_COMMAND_BYTES);
+				indirectBuffer = 0;
+			} else {
+				MemoryUtil.memFree(triVertexCount);
+				triVertexCount = null;
 
-			MemoryUtil.memFree(triIndexOffset);
-			triIndexOffset = null;
+				MemoryUtil.memFree(triIndexOffset);
+				triIndexOffset = null;
 
-			MemoryUtil.memFree(baseQuadVertexOffset);
-			baseQuadVertexOffset = null;
+				MemoryUtil.memFree(baseQuadVertexOffset);
+				baseQuadVertexOffset = null;
+			}
 		}
 	}
 
 	public void bind() {
 		vao.bind();
 	}
+
+	/** Caller must bind first and reset the indirect buffer binding when done. */
+	public void draw() {
+		if (indirectBuffer != 0) {
+			GFX.bindBuffer(GFX.GL_DRAW_INDIRECT_BUFFER, indirectBuffer);
+			GFX.multiDrawElementsIndirect(GFX.GL_TRIANGLES, GFX.GL_UNSIGNED_SHORT, 0L, size, 0);
+		} else {
+			GFX.glMultiDrawElementsBaseVertex(GFX.GL_TRIANGLES, triVertexCount(), GFX.GL_UNSIGNED_SHORT, triIndexOffset(), baseQuadVertexOffset());
+		}
+	}
 }
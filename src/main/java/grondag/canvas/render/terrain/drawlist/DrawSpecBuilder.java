@@ -23,25 +23,37 @@ package grondag.canvas.render.terrain.drawlist;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
-import com.mojang.blaze3d.systems.RenderSystem;
-
 import grondag.canvas.render.terrain.cluster.VertexCluster.RegionAllocation.SlabAllocation;
 
-abstract class DrawSpecBuilder {
-	private static boolean isShadowMap = false;
-	private static final IntArrayList triVertexCount = new IntArrayList();
-	private static final IntArrayList baseQuadVertexOffset = new IntArrayList();
-	private static int quadCount;
+/**
+ * Computes draw commands for slab allocations. Makes no GL calls, so it can run
+ * off the render thread, but instances are NOT THREAD-SAFE - use one per thread.
+ */
+final class DrawSpecBuilder {
+	private static final ThreadLocal<DrawSpecBuilder> BUILDERS = ThreadLocal.withInitial(DrawSpecBuilder::new);
+
+	private boolean isShadowMap = false;
+	private final IntArrayList triVertexCount = new IntArrayList();
+	private final IntArrayList baseQuadVertexOffset = new IntArrayList();
+	private int quadCount;
 
-	/** NOT THREAD-SAFE. */
-	public static int build(ObjectArrayList<SlabAllocation> inputs, ObjectArrayList<DrawSpec> output, boolean isShadowMap, boolean cullBackFace) {
-		assert RenderSystem.isOnRenderThread();
+	private DrawSpecBuilder() { }
+
+	static DrawSpecBuilder get() {
+		return BUILDERS.get();
+	}
 
+	/**
+	 * Adds commands for the inputs, which must all be in the same slab, and clears the inputs.
+	 *
+	 * @return Number of quads drawn by the added commands.
+	 */
+	int build(ObjectArrayList<SlabAllocation> inputs, ObjectArrayList<SlabDrawCommands> output, boolean isShadowMap, boolean cullBackFace) {
 		if (inputs.isEmpty()) {
 			return 0;
 		}
 
-		DrawSpecBuilder.isShadowMap = isShadowMap;
+		this.isShadowMap = isShadowMap;
 		quadCount = 0;
 
 		final var slab = inputs.get(0).slab;
@@ -61,12 +73,12 @@ abstract class DrawSpecBuilder {
 			}
 		}
 
-		output.add(new DrawSpec(slab, triVertexCount.size(), triVertexCount.elements(), baseQuadVertexOffset.elements()));
+		output.add(new SlabDrawCommands(slab, triVertexCount.size(), triVertexCount.toIntArray(), baseQuadVertexOffset.toIntArray()));
 		inputs.clear();
 		return quadCount;
 	}
 
-	private static void acceptAlloc(SlabAllocation alloc) {
+	private void acceptAlloc(SlabAllocation alloc) {
 		quadCount += alloc.quadVertexCount;
 
 		if (alloc.quadVertexCount <= 65536) {
@@ -87,7 +99,7 @@ abstract class DrawSpecBuilder {
 		}
 	}
 
-	private static void acceptAllocBucketed(SlabAllocation alloc) {
+	private void acceptAllocBucketed(SlabAllocation alloc) {
 		final var region = alloc.region();
 		final int bucketFlags = isShadowMap ? region.shadowVisibleFaceFlags() : region.visibleFaceFlags();
 		final var buckets = alloc.region().faceBuckets;
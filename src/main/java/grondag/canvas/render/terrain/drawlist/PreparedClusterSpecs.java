@@ -0,0 +1,125 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package grondag.canvas.render.terrain.drawlist;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.jetbrains.annotations.Nullable;
+
+import grondag.canvas.render.terrain.base.DrawableRegion;
+import grondag.canvas.render.terrain.cluster.ClusteredDrawableRegion;
+import grondag.canvas.render.terrain.cluster.ClusteredDrawableStorage;
+import grondag.canvas.render.terrain.cluster.VertexCluster;
+import grondag.canvas.terrain.occlusion.VisibleRegionList;
+import grondag.canvas.terrain.region.RenderRegion;
+
+/**
+ * Draw commands for one cluster group of a {@link ClusterGrouping}, computed on the
+ * terrain worker. Regions may be closed or rebuilt and slabs compacted before the
+ * render thread consumes them, so they are only used if the same region storages
+ * are still drawn and the cluster allocation version is unchanged.
+ */
+final class PreparedClusterSpecs {
+	final VertexCluster cluster;
+	final int allocationVersion;
+	final long faceCullingKey;
+	final ClusteredDrawableStorage[] regions;
+	final SlabDrawCommands[] commands;
+	final int quadCount;
+
+	private PreparedClusterSpecs(VertexCluster cluster, int allocationVersion, long faceCullingKey, ClusteredDrawableStorage[] regions, SlabDrawCommands[] commands, int quadCount) {
+		this.cluster = cluster;
+		this.allocationVersion = allocationVersion;
+		this.faceCullingKey = faceCullingKey;
+		this.regions = regions;
+		this.commands = commands;
+		this.quadCount = quadCount;
+	}
+
+	/** Render thread only. */
+	boolean isCurrentFor(VertexCluster cluster, ObjectArrayList<ClusteredDrawableStorage> regions, long faceCullingKey) {
+		if (cluster != this.cluster || cluster.allocationVersion() != allocationVersion || faceCullingKey != this.faceCullingKey) {
+			return false;
+		}
+
+		final int limit = regions.size();
+
+		if (limit != this.regions.length) {
+			return false;
+		}
+
+		for (int i = 0; i < limit; ++i) {
+			if (regions.get(i) != this.regions[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Computes commands for the regions at the given positions of a grouping.
+	 * Reads allocations while the render thread may be changing them, so any
+	 * inconsistency that is noticed here means the version will also have changed.
+	 *
+	 * @return Null if the group has nothing to draw or could not be prepared.
+	 */
+	@Nullable
+	static PreparedClusterSpecs prepare(VisibleRegionList source, int[] regionIndices, int start, int end, boolean isTranslucent, boolean isShadowMap, long faceCullingKey) {
+		final ObjectArrayList<ClusteredDrawableStorage> regions = new ObjectArrayList<>(end - start);
+
+		for (int position = start; position < end; ++position) {
+			final RenderRegion region = source.get(regionIndices[position]);
+			final DrawableRegion drawable = isTranslucent ? region.translucentDrawable() : region.solidDrawable();
+
+			if (drawable != null && drawable != DrawableRegion.EMPTY_DRAWABLE) {
+				regions.add(((ClusteredDrawableRegion) drawable).storage());
+			}
+		}
+
+		if (regions.isEmpty()) {
+			return null;
+		}
+
+		final var firstAllocation = regions.get(0).allocation();
+
+		if (firstAllocation == null) {
+			return null;
+		}
+
+		final VertexCluster cluster = firstAllocation.cluster();
+		// must be read before any allocation
+		final int allocationVersion = cluster.allocationVersion();
+		final ObjectArrayList<SlabDrawCommands> commands = new ObjectArrayList<>();
+		final int quadCount;
+
+		try {
+			quadCount = ClusterDrawList.buildCommands(regions, isTranslucent, isShadowMap, commands);
+		} catch (final RuntimeException e) {
+			// allocations changed underneath us - render thread will build the list
+			return null;
+		}
+
+		if (quadCount < 0 || cluster.allocationVersion() != allocationVersion) {
+			return null;
+		}
+
+		return new PreparedClusterSpecs(cluster, allocationVersion, faceCullingKey, regions.toArray(new ClusteredDrawableStorage[regions.size()]), commands.toArray(new SlabDrawCommands[commands.size()]), quadCount);
+	}
+}
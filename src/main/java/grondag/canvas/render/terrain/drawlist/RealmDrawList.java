@@ -20,8 +20,11 @@
 
 package grondag.canvas.render.terrain.drawlist;
 
+import java.util.IdentityHashMap;
+
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.jetbrains.annotations.Nullable;
 
 import grondag.canvas.material.state.RenderState;
 import grondag.canvas.render.terrain.base.AbstractDrawableRegionList;
@@ -29,20 +32,34 @@ import grondag.canvas.render.terrain.base.DrawableRegion;
 import grondag.canvas.render.terrain.base.DrawableRegionList;
 import grondag.canvas.render.terrain.cluster.ClusteredDrawableRegion;
 import grondag.canvas.render.terrain.cluster.ClusteredDrawableStorage;
+import grondag.canvas.render.terrain.cluster.VertexCluster;
 import grondag.canvas.render.world.WorldRenderState;
 import grondag.canvas.varia.GFX;
 
 public class RealmDrawList extends AbstractDrawableRegionList {
 	final ObjectArrayList<ClusterDrawList> clusterLists = new ObjectArrayList<>();
 	final boolean isShadowMap;
+	private final long faceCullingKey;
+	/** Exclusive end of each cluster's regions if regions arrive already grouped, or null. */
+	@Nullable
+	private final int[] groupEnds;
+	/** Grouping the regions came from, if they arrived grouped, and its group index for each cluster. */
+	@Nullable
+	private final ClusterGrouping grouping;
+	@Nullable
+	private final int[] groups;
 	private int quadCount;
 
 	boolean isInvalid = false;
 
-	private RealmDrawList(final ObjectArrayList<DrawableRegion> regions, RenderState renderState, boolean isShadowMap) {
+	private RealmDrawList(final ObjectArrayList<DrawableRegion> regions, @Nullable ClusterGrouping grouping, @Nullable int[] groupEnds, @Nullable int[] groups, RenderState renderState, boolean isShadowMap, @Nullable RealmDrawList prior, long faceCullingKey) {
 		super(regions, renderState);
+		this.grouping = grouping;
+		this.groupEnds = groupEnds;
+		this.groups = groups;
 		this.isShadowMap = isShadowMap;
-		build();
+		this.faceCullingKey = faceCullingKey;
+		build(prior);
 	}
 
 	@Override
@@ -50,7 +67,46 @@ public class RealmDrawList extends AbstractDrawableRegionList {
 		return quadCount;
 	}
 
-	private void build() {
+	/**
+	 * Cluster lists holding the same regions in the same order as a cluster list in the prior
+	 * draw list take its draw specs, so steady-state rebuilds only build clusters that changed.
+	 * Others use draw commands prepared off thread with the grouping if those are still current,
+	 * so only clusters whose allocations changed since are fully built here.
+	 */
+	private void build(@Nullable RealmDrawList prior) {
+		if (groupEnds == null) {
+			groupRegions();
+		} else {
+			addGroupedRegions();
+		}
+
+		final IdentityHashMap<VertexCluster, ClusterDrawList> priorLists = new IdentityHashMap<>();
+
+		if (prior != null && prior.canShareWith(this)) {
+			prior.clusterLists.forEach(cl -> priorLists.put(cl.cluster, cl));
+		}
+
+		quadCount = 0;
+		final int limit = clusterLists.size();
+
+		for (int i = 0; i < limit; ++i) {
+			final ClusterDrawList cl = clusterLists.get(i);
+			final ClusterDrawList priorList = priorLists.get(cl.cluster);
+
+			if ((priorList == null || !cl.takeSpecsIfSame(priorList)) && !cl.buildFromPreparedIfCurrent(prepared(i), faceCullingKey)) {
+				cl.build();
+			}
+
+			quadCount += cl.quadCount();
+		}
+	}
+
+	@Nullable
+	private PreparedClusterSpecs prepared(int clusterListIndex) {
+		return grouping == null ? null : grouping.prepared(groups[clusterListIndex]);
+	}
+
+	private void groupRegions() {
 		final Long2ObjectOpenHashMap<ClusterDrawList> map = new Long2ObjectOpenHashMap<>();
 		final int limit = regions.size();
 
@@ -67,13 +123,28 @@ public class RealmDrawList extends AbstractDrawableRegionList {
 
 			clusterList.add(storage);
 		}
+	}
 
-		quadCount = 0;
+	/** Same result as {@link #groupRegions()} when regions are already in cluster order. */
+	private void addGroupedRegions() {
+		int regionIndex = 0;
 
-		clusterLists.forEach(cl -> {
-			cl.build();
-			quadCount += cl.quadCount();
-		});
+		for (final int groupEnd : groupEnds) {
+			final ClusteredDrawableStorage first = ((ClusteredDrawableRegion) regions.get(regionIndex)).storage();
+			final ClusterDrawList clusterList = new ClusterDrawList(first.allocation().cluster(), this);
+			clusterLists.add(clusterList);
+
+			for (; regionIndex < groupEnd; ++regionIndex) {
+				clusterList.add(((ClusteredDrawableRegion) regions.get(regionIndex)).storage());
+			}
+		}
+
+		assert regionIndex == regions.size();
+	}
+
+	/** False if specs were built against allocations or face culling that may no longer hold. */
+	private boolean canShareWith(RealmDrawList other) {
+		return !isInvalid && !isClosed() && isShadowMap == other.isShadowMap && renderState == other.renderState && faceCullingKey == other.faceCullingKey;
 	}
 
 	private void rebuildIfInvalid() {
@@ -83,12 +154,18 @@ public class RealmDrawList extends AbstractDrawableRegionList {
 			// a new draw list to be created.
 			isInvalid = false;
 			closeInner();
-			build();
+			build(null);
 		}
 	}
 
-	public static DrawableRegionList build(final ObjectArrayList<DrawableRegion> regions, RenderState renderState, boolean isShadowMap) {
-		return regions.isEmpty() ? DrawableRegionList.EMPTY : new RealmDrawList(regions, renderState, isShadowMap);
+	/**
+	 * @param groupEnds Exclusive end of each cluster's regions if regions are already grouped
+	 * by cluster in draw order, or null if the list should group them itself.
+	 * @param grouping Grouping the regions were ordered by, or null if groupEnds is null.
+	 * @param groups Group index in the grouping for each entry of groupEnds, or null if groupEnds is null.
+	 */
+	public static DrawableRegionList build(final ObjectArrayList<DrawableRegion> regions, @Nullable ClusterGrouping grouping, @Nullable int[] groupEnds, @Nullable int[] groups, RenderState renderState, boolean isShadowMap, DrawableRegionList prior, long faceCullingKey) {
+		return regions.isEmpty() ? DrawableRegionList.EMPTY : new RealmDrawList(regions, grouping, groupEnds, groups, renderState, isShadowMap, prior instanceof RealmDrawList ? (RealmDrawList) prior : null, faceCullingKey);
 	}
 
 	@Override
@@ -105,6 +182,7 @@ public class RealmDrawList extends AbstractDrawableRegionList {
 
 		GFX.bindVertexArray(0);
 		GFX.bindBuffer(GFX.GL_ELEMENT_ARRAY_BUFFER, 0);
+		GFX.bindBuffer(GFX.GL_DRAW_INDIRECT_BUFFER, 0);
 		RenderState.disable();
 	}
 
@@ -0,0 +1,41 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.render.terrain.drawlist;
+
+import grondag.canvas.render.terrain.cluster.Slab;
+
+/**
+ * Draw command arrays for allocations in a single slab, computed without GL calls
+ * so they can be built off the render thread. {@link DrawSpec} uploads them.
+ */
+final class SlabDrawCommands {
+	final Slab slab;
+	final int size;
+	final int[] triVertexCount;
+	final int[] baseQuadVertexOffset;
+
+	SlabDrawCommands(Slab slab, int size, int[] triVertexCount, int[] baseQuadVertexOffset) {
+		this.slab = slab;
+		this.size = size;
+		this.triVertexCount = triVertexCount;
+		this.baseQuadVertexOffset = baseQuadVertexOffset;
+	}
+}
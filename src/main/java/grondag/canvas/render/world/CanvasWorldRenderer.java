@@ -120,6 +120,7 @@ import grondag.canvas.terrain.occlusion.SortableVisibleRegionList;
 import grondag.canvas.terrain.occlusion.TerrainIterator;
 import grondag.canvas.terrain.region.RegionRebuildManager;
 import grondag.canvas.terrain.region.RenderRegionStorage;
+import grondag.canvas.terrain.region.input.SectionLightCache;
 import grondag.canvas.terrain.util.TerrainExecutor;
 import grondag.canvas.varia.GFX;
 
@@ -357,7 +358,10 @@ public class CanvasWorldRenderer extends LevelRenderer {
 		final long updateBudget = wr.canvas_chunkUpdateSmoother().registerValueAndGetMean(usedTime) * 3L / 2L;
 		final long clampedBudget = Mth.clamp(updateBudget, maxFpsLimit, 33333333L);
 
-		worldRenderState.regionBuilder().upload();
+		TerrainExecutor.INSTANCE.updateWorkerCount(maxFpsLimit);
+
+		// Flawless frames must show every completed build
+		worldRenderState.regionBuilder().upload(FlawlessFrames.isActive() ? Long.MAX_VALUE : frameStartNanos + clampedBudget);
 		worldRenderState.regionRebuildManager.processScheduledRegions(frameStartNanos + clampedBudget);
 
 		// WIP: need a way to set the deadline appropriately based on steady frame rate and time already elapsed.
@@ -837,6 +841,13 @@ public class CanvasWorldRenderer extends LevelRenderer {
 	}
 
 	public void scheduleRegionRender(int x, int y, int z, boolean urgent) {
+		final ClientLevel world = worldRenderState.getWorld();
+
+		if (world != null) {
+			// vanilla marks sections dirty for every light change
+			SectionLightCache.invalidate(x, y, z, world.getMinSection());
+		}
+
 		worldRenderState.renderRegionStorage.scheduleRebuild(x << 4, y << 4, z << 4, urgent);
 	}
 
@@ -98,6 +98,9 @@ public class WorldRenderState {
 			shadowVisibleRegions[i] = new VisibleRegionList();
 			shadowDrawLists[i] = DrawableRegionList.EMPTY;
 		}
+
+		// next copy of visible regions must rebuild
+		visibleRegionsCameraOrigin = Long.MIN_VALUE;
 	}
 
 	void computeDistances() {
@@ -151,6 +154,9 @@ public class WorldRenderState {
 	}
 
 	private boolean areDrawListsValid = false;
+	/** Face culling inputs when visible regions were last copied. */
+	private long visibleRegionsCameraOrigin = Long.MIN_VALUE;
+	private int visibleRegionsShadowFaceFlags;
 
 	public void invalidateDrawLists() {
 		areDrawListsValid = false;
@@ -159,6 +165,19 @@ public class WorldRenderState {
 	void copyVisibleRegionsFromIterator() {
 		final TerrainIterator terrainIterator = this.terrainIterator;
 
+		final long cameraRegionOrigin = terrainIterator.cameraRegionOrigin();
+		final int shadowFaceFlags = drawListCullingHlper.shadowVisibleFaceFlags();
+
+		// A temporal iteration often finds the same regions as before. Uploads invalidate
+		// draw lists on their own, so lists only need rebuilt when the region set or the
+		// inputs to face culling have changed.
+		if (cameraRegionOrigin == visibleRegionsCameraOrigin && shadowFaceFlags == visibleRegionsShadowFaceFlags
+				&& cameraVisibleRegions.contentEquals(terrainIterator.visibleRegions) && (!shadowsEnabled() || areShadowRegionsUnchanged())) {
+			return;
+		}
+
+		visibleRegionsCameraOrigin = cameraRegionOrigin;
+		visibleRegionsShadowFaceFlags = shadowFaceFlags;
 		cameraVisibleRegions.copyFrom(terrainIterator.visibleRegions);
 
 		if (shadowsEnabled()) {
@@ -171,6 +190,15 @@ public class WorldRenderState {
 		invalidateDrawLists();
 	}
 
+	private boolean areShadowRegionsUnchanged() {
+		final VisibleRegionList[] source = terrainIterator.shadowVisibleRegions;
+
+		return shadowVisibleRegions[0].contentEquals(source[0])
+				&& shadowVisibleRegions[1].contentEquals(source[1])
+				&& shadowVisibleRegions[2].contentEquals(source[2])
+				&& shadowVisibleRegions[3].contentEquals(source[3]);
+	}
+
 	void rebuidDrawListsIfNeeded() {
 		if (areDrawListsValid) {
 			return;
@@ -178,10 +206,14 @@ public class WorldRenderState {
 
 		areDrawListsValid = true;
 
-		solidDrawList.close();
-		solidDrawList = DrawableRegionList.build(cameraVisibleRegions, false, false);
-		translucentDrawList.close();
-		translucentDrawList = DrawableRegionList.build(cameraVisibleRegions, true, false);
+		// New lists are built before old ones are closed so unchanged clusters can be carried over
+		final DrawableRegionList priorSolid = solidDrawList;
+		solidDrawList = DrawableRegionList.build(cameraVisibleRegions, false, false, priorSolid, visibleRegionsCameraOrigin);
+		priorSolid.close();
+
+		final DrawableRegionList priorTranslucent = translucentDrawList;
+		translucentDrawList = DrawableRegionList.build(cameraVisibleRegions, true, false, priorTranslucent, visibleRegionsCameraOrigin);
+		priorTranslucent.close();
 
 		terrainAnimationBits.clear();
 		final int cameraLimit = cameraVisibleRegions.size();
@@ -195,8 +227,9 @@ public class WorldRenderState {
 
 			for (int i = 0; i < 4; ++i) {
 				final var shadowList = shadowVisibleRegions[i];
-				shadowDrawLists[i].close();
-				shadowDrawLists[i] = DrawableRegionList.build(shadowList, false, true);
+				final DrawableRegionList priorShadow = shadowDrawLists[i];
+				shadowDrawLists[i] = DrawableRegionList.build(shadowList, false, true, priorShadow, visibleRegionsShadowFaceFlags);
+				priorShadow.close();
 				shadowQuadCount += shadowDrawLists[i].quadCount();
 
 				final int shadowLimit = shadowList.size();
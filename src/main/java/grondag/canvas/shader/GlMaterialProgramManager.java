@@ -61,7 +61,7 @@ public final class GlMaterialProgramManager {
 		if (result == null) {
 			final Shader vs = new GlMaterialShader(programType.vertexSource, GFX.GL_VERTEX_SHADER, programType, target);
 			final Shader fs = new GlMaterialShader(programType.fragmentSource, GFX.GL_FRAGMENT_SHADER, programType, target);
-			result = new GlMaterialProgram(vs, fs, programType.isTerrain ? TerrainEncoder.TERRAIN_MATERIAL : CanvasVertexFormats.STANDARD_MATERIAL_FORMAT, programType);
+			result = new GlMaterialProgram(vs, fs, programType.isTerrain ? TerrainEncoder.storageFormat() : CanvasVertexFormats.STANDARD_MATERIAL_FORMAT, programType);
 			ShaderUniforms.MATERIAL_UNIFORM_SETUP.accept(result);
 
 			if (programType.isTerrain) {
@@ -243,7 +243,7 @@ public class GlShader implements Shader {
 			}
 
 			if (programType.isTerrain) {
-				result = StringUtils.replace(result, "#define _CV_VERTEX_DEFAULT", "#define _CV_VERTEX_TERRAIN");
+				result = StringUtils.replace(result, "#define _CV_VERTEX_DEFAULT", Configurator.compactTerrainVertices ? "#define _CV_VERTEX_TERRAIN_COMPACT" : "#define _CV_VERTEX_TERRAIN");
 			}
 
 			if (programType.hasVertexProgramControl) {
@@ -44,6 +44,7 @@ import grondag.canvas.render.world.WorldRenderState;
 import grondag.canvas.shader.data.ShadowMatrixData;
 import grondag.canvas.terrain.occlusion.camera.CameraRegionVisibility;
 import grondag.canvas.terrain.occlusion.camera.CameraVisibility;
+import grondag.canvas.terrain.occlusion.geometry.OcclusionResult;
 import grondag.canvas.terrain.occlusion.geometry.RegionOcclusionCalculator;
 import grondag.canvas.terrain.occlusion.shadow.RegionBoundingSphere;
 import grondag.canvas.terrain.occlusion.shadow.ShadowRegionVisibility;
@@ -52,6 +53,7 @@ import grondag.canvas.terrain.region.RegionBuildState;
 import grondag.canvas.terrain.region.RenderRegion;
 import grondag.canvas.terrain.region.RenderRegionIndexer;
 import grondag.canvas.terrain.region.RenderRegionStorage;
+import grondag.canvas.terrain.util.TerrainExecutor;
 import grondag.canvas.terrain.util.TerrainExecutorTask;
 
 public class TerrainIterator implements TerrainExecutorTask {
@@ -76,6 +78,8 @@ public class TerrainIterator implements TerrainExecutorTask {
 	 * camera is outside world range.  Otherwise will match the origin of the camera region.
 	 */
 	private long cameraChunkOrigin;
+	/** Camera region origin when terrain executor priorities were last invalidated. */
+	private long priorityChunkOrigin = -1;
 	private int renderDistance;
 	private int effectiveDistance;
 	private boolean chunkCullingEnabled = true;
@@ -84,11 +88,15 @@ public class TerrainIterator implements TerrainExecutorTask {
 	private boolean resetShadowOccluder;
 	// Chosen shadow regions priming strategy based on configuration
 	private ShadowPrimer shadowPrimer;
+	private volatile String occlusionDebugSummary = "";
+	private volatile String temporalDebugSummary = "";
+	private int fullIterationCount;
+	private int temporalIterationCount;
 
 	public TerrainIterator(WorldRenderState worldRenderState) {
 		this.worldRenderState = worldRenderState;
 		shadowVisibility = new ShadowVisibility(worldRenderState);
-		cameraVisibility = new CameraVisibility(worldRenderState, shadowVisibility.targetOccluder);
+		cameraVisibility = new CameraVisibility(worldRenderState, shadowVisibility.targetDrawQueue);
 
 		for (int i = 0; i < ShadowMatrixData.CASCADE_COUNT; ++i) {
 			shadowVisibleRegions[i] = new VisibleRegionList();
@@ -138,6 +146,15 @@ public class TerrainIterator implements TerrainExecutorTask {
 		this.chunkCullingEnabled = chunkCullingEnabled;
 		cancelled = false;
 		resetCameraOccluder = cameraVisibility.prepareForIteration();
+		cameraVisibility.updateTemporalMode(resetCameraOccluder);
+
+		if (resetCameraOccluder) {
+			if (cameraVisibility.isTemporal()) {
+				++temporalIterationCount;
+			} else {
+				++fullIterationCount;
+			}
+		}
 
 		if (worldRenderState.shadowsEnabled()) {
 			if (resetCameraOccluder) {
@@ -186,6 +203,16 @@ public class TerrainIterator implements TerrainExecutorTask {
 		return result;
 	}
 
+	/** Neighbors and regions rejected by each culling stage in the most recent advanced iteration. */
+	public String occlusionDebugSummary() {
+		return occlusionDebugSummary;
+	}
+
+	/** Full and temporal camera iterations since start and prior results reused in the most recent one. */
+	public String temporalDebugSummary() {
+		return temporalDebugSummary;
+	}
+
 	public int state() {
 		return state.get();
 	}
@@ -222,6 +249,12 @@ public class TerrainIterator implements TerrainExecutorTask {
 			worldRenderState.renderRegionStorage.updateRegionPositionAndVisibility();
 			worldRenderState.drawListCullingHlper.update();
 
+			// Region distances are now current, so queued rebuilds can be re-sorted
+			if (priorityChunkOrigin != cameraChunkOrigin) {
+				priorityChunkOrigin = cameraChunkOrigin;
+				TerrainExecutor.INSTANCE.invalidatePriorities();
+			}
+
 			if (resetCameraOccluder) {
 				visibleRegions.clear();
 				primeCameraRegions();
@@ -230,7 +263,24 @@ public class TerrainIterator implements TerrainExecutorTask {
 			updateRegions.clear();
 
 			if (Pipeline.advancedTerrainCulling() || FlawlessFrames.isActive()) {
-				iterateTerrain();
+				final boolean drawShadowTargets = worldRenderState.shadowsEnabled();
+
+				if (drawShadowTargets) {
+					shadowVisibility.targetDrawQueue.start();
+				}
+
+				try {
+					iterateTerrain();
+
+					if (!cancelled) {
+						cameraVisibility.completeIteration(chunkCullingEnabled);
+					}
+				} finally {
+					// shadow iteration reads the target occluder
+					if (drawShadowTargets) {
+						shadowVisibility.targetDrawQueue.finish();
+					}
+				}
 			} else {
 				iterateTerrainSimply();
 			}
@@ -247,6 +297,10 @@ public class TerrainIterator implements TerrainExecutorTask {
 			if (cancelled) {
 				state.set(IDLE);
 			} else {
+				if (Configurator.terrainSetupOffThread) {
+					groupVisibleRegions();
+				}
+
 				assert state.get() == RUNNING;
 				state.set(COMPLETE);
 
@@ -303,6 +357,12 @@ public class TerrainIterator implements TerrainExecutorTask {
 	private void iterateTerrain() {
 		final boolean chunkCullingEnabled = this.chunkCullingEnabled;
 		final boolean flawless = FlawlessFrames.isActive();
+		final boolean temporal = cameraVisibility.isTemporal();
+		final int temporalViewVersion = cameraVisibility.temporalViewVersion();
+		int graphRejectCount = 0;
+		int rasterRejectCount = 0;
+		int testCount = 0;
+		int reuseCount = 0;
 
 		while (!cancelled) {
 			final CameraRegionVisibility state = cameraVisibility.next();
@@ -352,7 +412,7 @@ public class TerrainIterator implements TerrainExecutorTask {
 				// time if the result indicates we should.
 
 				if (priorResult != OcclusionStatus.REGION_NOT_VISIBLE) {
-					region.neighbors.enqueueUnvistedCameraNeighbors();
+					region.neighbors.enqueueUnvistedCameraNeighbors(FaceUtil.ALL_REAL_FACE_FLAGS);
 				}
 
 				continue;
@@ -363,7 +423,7 @@ public class TerrainIterator implements TerrainExecutorTask {
 			// For empty regions, check neighbors but don't add to visible set
 			// We currently don't test these against rasterizer because there are many and it would be too expensive.
 			if (!buildState.canOcclude()) {
-				region.neighbors.enqueueUnvistedCameraNeighbors();
+				region.neighbors.enqueueUnvistedCameraNeighbors(FaceUtil.ALL_REAL_FACE_FLAGS);
 				state.setOcclusionStatus(OcclusionStatus.ENTITIES_VISIBLE);
 				continue;
 			}
@@ -372,35 +432,81 @@ public class TerrainIterator implements TerrainExecutorTask {
 
 			if (!chunkCullingEnabled || region.origin.isNear()) {
 				// We are aren't culling, just add it.
-				region.neighbors.enqueueUnvistedCameraNeighbors();
+				region.neighbors.enqueueUnvistedCameraNeighbors(FaceUtil.ALL_REAL_FACE_FLAGS);
 				visibleRegions.add(region);
 				state.setOcclusionStatus(OcclusionStatus.REGION_VISIBLE);
 				cameraVisibility.prepareRegion(region.origin);
 				cameraVisibility.occlude(buildState.getOcclusionResult().occlusionData());
 			} else {
+				// Neighbors are only reachable through faces connected to a face we entered by.
+				// Regions behind the others are rejected here and never reach the raster.
+				final OcclusionResult occlusionResult = buildState.getOcclusionResult();
+				final int openFaceFlags = OcclusionResult.openFacesFlag(occlusionResult.mutalFaceMask(), state.entryFaceFlags());
+
 				cameraVisibility.prepareRegion(region.origin);
-				final int[] occlusionData = buildState.getOcclusionResult().occlusionData();
+				final int[] occlusionData = occlusionResult.occlusionData();
+
+				OcclusionStatus status = temporal ? temporalStatus(state, temporalViewVersion) : OcclusionStatus.UNDETERMINED;
+
+				if (status == OcclusionStatus.UNDETERMINED) {
+					++testCount;
+					final int renderableBounds = occlusionData[RegionOcclusionCalculator.OCCLUSION_RESULT_RENDERABLE_BOUNDS_INDEX];
 
-				if (cameraVisibility.isBoxVisible(occlusionData[RegionOcclusionCalculator.OCCLUSION_RESULT_RENDERABLE_BOUNDS_INDEX], region.origin.fuzz())) {
+					if (cameraVisibility.isBoxVisible(renderableBounds, region.origin.fuzz())) {
+						status = OcclusionStatus.REGION_VISIBLE;
+					} else if (renderableBounds != PackedBox.FULL_BOX && cameraVisibility.isBoxVisible(PackedBox.FULL_BOX, region.origin.fuzz())) {
+						// no need to test the full box again if that is what just failed
+						status = OcclusionStatus.ENTITIES_VISIBLE;
+					} else {
+						status = OcclusionStatus.REGION_NOT_VISIBLE;
+					}
+				} else {
+					++reuseCount;
+				}
+
+				if (status == OcclusionStatus.REGION_VISIBLE) {
 					// Renderable portion is visible
 					// Continue search, mark visible, add to render list and draw to occluder
-					region.neighbors.enqueueUnvistedCameraNeighbors();
+					graphRejectCount += region.neighbors.enqueueUnvistedCameraNeighbors(openFaceFlags);
 					visibleRegions.add(region);
 					state.setOcclusionStatus(OcclusionStatus.REGION_VISIBLE);
 					cameraVisibility.occlude(occlusionData);
+				} else if (status == OcclusionStatus.ENTITIES_VISIBLE) {
+					// need to progress through the region if part of it is visible
+					// Like renderable, but we don't need to draw or add to render list
+					graphRejectCount += region.neighbors.enqueueUnvistedCameraNeighbors(openFaceFlags);
+					state.setOcclusionStatus(OcclusionStatus.ENTITIES_VISIBLE);
 				} else {
-					if (cameraVisibility.isBoxVisible(PackedBox.FULL_BOX, region.origin.fuzz())) {
-						// need to progress through the region if part of it is visible
-						// Like renderable, but we don't need to draw or add to render list
-						region.neighbors.enqueueUnvistedCameraNeighbors();
-						state.setOcclusionStatus(OcclusionStatus.ENTITIES_VISIBLE);
-					} else {
-						// no portion is visible
-						state.setOcclusionStatus(OcclusionStatus.REGION_NOT_VISIBLE);
-					}
+					// no portion is visible
+					++rasterRejectCount;
+					state.setOcclusionStatus(OcclusionStatus.REGION_NOT_VISIBLE);
 				}
 			}
 		}
+
+		occlusionDebugSummary = String.format("Occlusion culled: %d neighbors by face graph, %d regions by raster", graphRejectCount, rasterRejectCount);
+		temporalDebugSummary = String.format("Terrain iterations: %d full %d temporal, reused %d of %d raster results", fullIterationCount, temporalIterationCount, reuseCount, reuseCount + testCount);
+	}
+
+	/**
+	 * Prior result that still holds after the view turned without the occlusion position changing,
+	 * or {@link OcclusionStatus#UNDETERMINED} if the region must be tested against the raster.
+	 * A region seen from the same point is still seen. Hidden and partly hidden results only
+	 * cover the part of the region that was inside the prior frustum, so they are reused only
+	 * for regions that were entirely inside it.
+	 */
+	private static OcclusionStatus temporalStatus(CameraRegionVisibility state, int priorViewVersion) {
+		final OcclusionStatus priorStatus = state.priorStatus();
+
+		if (priorStatus == OcclusionStatus.REGION_VISIBLE) {
+			return priorStatus;
+		}
+
+		if ((priorStatus == OcclusionStatus.REGION_NOT_VISIBLE || priorStatus == OcclusionStatus.ENTITIES_VISIBLE) && state.region.origin.wasInsideCameraFrustum(priorViewVersion)) {
+			return priorStatus;
+		}
+
+		return OcclusionStatus.UNDETERMINED;
 	}
 
 	private void iterateTerrainSimply() {
@@ -663,13 +769,15 @@ public class TerrainIterator implements TerrainExecutorTask {
 			shadowVisibility.prepareRegion(region.origin);
 			final int[] occlusionData = buildState.getOcclusionResult().occlusionData();
 
-			if (shadowVisibility.isBoxVisible(occlusionData[RegionOcclusionCalculator.OCCLUSION_RESULT_RENDERABLE_BOUNDS_INDEX], 0)) {
+			final int renderableBounds = occlusionData[RegionOcclusionCalculator.OCCLUSION_RESULT_RENDERABLE_BOUNDS_INDEX];
+
+			if (shadowVisibility.isBoxVisible(renderableBounds, 0)) {
 				region.neighbors.enqueueUnvistedShadowNeighbors();
 				addShadowRegion(region);
 				state.setOcclusionStatus(OcclusionStatus.REGION_VISIBLE);
 				shadowVisibility.occlude(occlusionData);
 			} else {
-				if (shadowVisibility.isBoxVisible(PackedBox.FULL_BOX, 0)) {
+				if (renderableBounds != PackedBox.FULL_BOX && shadowVisibility.isBoxVisible(PackedBox.FULL_BOX, 0)) {
 					region.neighbors.enqueueUnvistedShadowNeighbors();
 					state.setOcclusionStatus(OcclusionStatus.ENTITIES_VISIBLE);
 				} else {
@@ -679,6 +787,23 @@ public class TerrainIterator implements TerrainExecutorTask {
 		}
 	}
 
+	/**
+	 * Does the cluster grouping and draw command computation for draw lists while still
+	 * off the render thread, leaving only drawable lookup, GL object creation and building
+	 * of clusters whose allocations changed for the render thread.
+	 */
+	private void groupVisibleRegions() {
+		visibleRegions.groupByCluster(false, cameraRegionOrigin());
+
+		if (worldRenderState.shadowsEnabled()) {
+			final int shadowFaceFlags = worldRenderState.drawListCullingHlper.shadowVisibleFaceFlags();
+			shadowVisibleRegions[0].groupByCluster(true, shadowFaceFlags);
+			shadowVisibleRegions[1].groupByCluster(true, shadowFaceFlags);
+			shadowVisibleRegions[2].groupByCluster(true, shadowFaceFlags);
+			shadowVisibleRegions[3].groupByCluster(true, shadowFaceFlags);
+		}
+	}
+
 	private void clearShadowRegions() {
 		shadowVisibleRegions[0].clear();
 		shadowVisibleRegions[1].clear();
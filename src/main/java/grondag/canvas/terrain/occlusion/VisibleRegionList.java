@@ -22,18 +22,27 @@ package grondag.canvas.terrain.occlusion;
 
 import java.util.Arrays;
 
+import org.jetbrains.annotations.Nullable;
+
+import grondag.canvas.render.terrain.drawlist.ClusterGrouping;
 import grondag.canvas.terrain.region.RenderRegion;
 
 public class VisibleRegionList {
 	protected RenderRegion[] visibleRegions = new RenderRegion[4096];
 	protected volatile int visibleRegionCount = 0;
+	/** Null unless grouped since the last change. */
+	private ClusterGrouping forwardGrouping, reverseGrouping;
 
 	public void clear() {
 		visibleRegionCount = 0;
 		Arrays.fill(visibleRegions, null);
+		forwardGrouping = null;
+		reverseGrouping = null;
 	}
 
 	public final void add(RenderRegion builtRegion) {
+		forwardGrouping = null;
+		reverseGrouping = null;
 		int index = visibleRegionCount++;
 		RenderRegion[] visibleRegions = this.visibleRegions;
 
@@ -56,6 +65,47 @@ public class VisibleRegionList {
 		}
 
 		System.arraycopy(source.visibleRegions, 0, visibleRegions, 0, count);
+		forwardGrouping = source.forwardGrouping;
+		reverseGrouping = source.reverseGrouping;
+	}
+
+	/**
+	 * Groups the current regions by vertex cluster and prepares their draw commands so
+	 * draw lists built from this list or a copy of it don't have to. Groupings are
+	 * immutable and are discarded by any change to the list.
+	 *
+	 * @param isShadowMap True if only solid shadow draw lists are built from this list.
+	 * Otherwise the reverse order is also grouped, for translucent draw lists.
+	 * @param faceCullingKey Same key draw lists will be built with.
+	 */
+	public final void groupByCluster(boolean isShadowMap, long faceCullingKey) {
+		forwardGrouping = ClusterGrouping.build(this, false, isShadowMap, faceCullingKey);
+		reverseGrouping = isShadowMap ? null : ClusterGrouping.build(this, true, false, faceCullingKey);
+	}
+
+	@Nullable
+	public final ClusterGrouping clusterGrouping(boolean reverse) {
+		return reverse ? reverseGrouping : forwardGrouping;
+	}
+
+	/** True if both lists hold the same regions in the same order. */
+	public final boolean contentEquals(VisibleRegionList other) {
+		final int count = visibleRegionCount;
+
+		if (count != other.visibleRegionCount) {
+			return false;
+		}
+
+		final RenderRegion[] a = visibleRegions;
+		final RenderRegion[] b = other.visibleRegions;
+
+		for (int i = 0; i < count; ++i) {
+			if (a[i] != b[i]) {
+				return false;
+			}
+		}
+
+		return true;
 	}
 
 	public final int size() {
@@ -46,6 +46,7 @@ public abstract class AbstractVisbility<T extends AbstractVisbility<T, U, V, W>,
 	protected long lastCameraRegionOrigin = Long.MIN_VALUE;
 
 	protected boolean shouldInvalidateNextPass = false;
+	private boolean wasInvalidated = false;
 
 	public AbstractVisbility(WorldRenderState worldRenderState, V pvrs, W occluder) {
 		this.worldRenderState = worldRenderState;
@@ -126,6 +127,8 @@ public abstract class AbstractVisbility<T extends AbstractVisbility<T, U, V, W>,
 			result = true;
 		}
 
+		wasInvalidated = result;
+
 		if (result) {
 			invalidateOccluder();
 		}
@@ -146,6 +149,15 @@ public abstract class AbstractVisbility<T extends AbstractVisbility<T, U, V, W>,
 		return result;
 	}
 
+	/**
+	 * True if the most recent call to {@link #prepareForIteration()} restarted
+	 * because of {@link #invalidate()} or a change to the region set. False
+	 * when a restart was due only to a change in the occluder view.
+	 */
+	public final boolean wasInvalidated() {
+		return wasInvalidated;
+	}
+
 	public abstract U createRegionState(RenderRegion region);
 
 	/**
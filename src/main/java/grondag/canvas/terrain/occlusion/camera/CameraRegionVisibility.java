@@ -20,6 +20,8 @@
 
 package grondag.canvas.terrain.occlusion.camera;
 
+import io.vram.frex.api.model.util.FaceUtil;
+
 import grondag.canvas.pipeline.Pipeline;
 import grondag.canvas.terrain.occlusion.OcclusionStatus;
 import grondag.canvas.terrain.occlusion.base.AbstractRegionVisibility;
@@ -27,6 +29,7 @@ import grondag.canvas.terrain.region.RenderRegion;
 
 public class CameraRegionVisibility extends AbstractRegionVisibility<CameraVisibility, CameraRegionVisibility> {
 	private int entryFaceFlags;
+	private OcclusionStatus priorStatus = OcclusionStatus.UNDETERMINED;
 
 	public CameraRegionVisibility(CameraVisibility visibility, RenderRegion region) {
 		super(visibility, region);
@@ -46,16 +49,23 @@ public class CameraRegionVisibility extends AbstractRegionVisibility<CameraVisib
 		}
 	}
 
+	/** Faces through which the region was entered during the current iteration. */
 	public final int entryFaceFlags() {
-		assert !Pipeline.advancedTerrainCulling();
 		return entryFaceFlags;
 	}
 
+	/**
+	 * Result of the previous version if it was determined, otherwise {@link OcclusionStatus#UNDETERMINED}.
+	 * Only meaningful while the region is being classified in the current version.
+	 */
+	public final OcclusionStatus priorStatus() {
+		return priorStatus;
+	}
+
+	/** Entry face is unknown, so treated as entered through all faces. */
 	@Override
 	public void addIfValid() {
-		if (region.origin.isPotentiallyVisibleFromCamera() && !region.isClosed() && region.isNearOrHasLoadedNeighbors()) {
-			addVisitedIfNotPresent();
-		}
+		addIfValid(FaceUtil.ALL_REAL_FACE_FLAGS);
 	}
 
 	/**
@@ -64,11 +74,10 @@ public class CameraRegionVisibility extends AbstractRegionVisibility<CameraVisib
 	 * Will mark region with result {@link OcclusionStatus#VISITED}.
 	 */
 	public void addVisitedIfNotPresent(int entryFaceFlags) {
-		assert !Pipeline.advancedTerrainCulling();
-
 		final int v = visibility.version();
 
 		if (visibilityVersion != v) {
+			priorStatus = visibilityVersion == v - 1 && occlusionStatus != OcclusionStatus.VISITED ? occlusionStatus : OcclusionStatus.UNDETERMINED;
 			visibilityVersion = v;
 			occlusionStatus = OcclusionStatus.VISITED;
 			visibility.add(this);
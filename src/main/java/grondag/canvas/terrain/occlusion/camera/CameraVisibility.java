@@ -29,19 +29,25 @@ import grondag.canvas.render.frustum.TerrainFrustum;
 import grondag.canvas.render.world.WorldRenderState;
 import grondag.canvas.terrain.occlusion.base.AbstractVisbility;
 import grondag.canvas.terrain.occlusion.geometry.RegionOcclusionCalculator;
-import grondag.canvas.terrain.occlusion.shadow.ShadowOccluder;
+import grondag.canvas.terrain.occlusion.shadow.ShadowTargetDrawQueue;
 import grondag.canvas.terrain.region.RegionPosition;
 import grondag.canvas.terrain.region.RenderRegion;
 
 public class CameraVisibility extends AbstractVisbility<CameraVisibility, CameraRegionVisibility, CameraPotentiallyVisibleRegionSet, CameraOccluder> {
-	private final ShadowOccluder targetOccluder;
+	private final ShadowTargetDrawQueue targetDrawQueue;
 
 	/** Stashed during prepare in case we need it to draw to target occluder. */
 	private RegionPosition lastOrigin;
 
-	public CameraVisibility(WorldRenderState worldRenderState, ShadowOccluder targetOccluder) {
+	/** Version, view and position of the most recent iteration that ran to completion with culling enabled. */
+	private int completedVersion = -1;
+	private int completedViewVersion = -1;
+	private int completedPositionVersion = -1;
+	private boolean isTemporal;
+
+	public CameraVisibility(WorldRenderState worldRenderState, ShadowTargetDrawQueue targetDrawQueue) {
 		super(worldRenderState, new CameraPotentiallyVisibleRegionSet(), new CameraOccluder());
-		this.targetOccluder = targetOccluder;
+		this.targetDrawQueue = targetDrawQueue;
 	}
 
 	@Override
@@ -64,6 +70,40 @@ public class CameraVisibility extends AbstractVisbility<CameraVisibility, Camera
 		occluder.invalidateFrustum();
 	}
 
+	/**
+	 * Call after {@link #prepareForIteration()} with its result. A restart caused only by the
+	 * view turning from the same occlusion position is temporal: what can be seen from a point
+	 * doesn't depend on view direction, so results of the completed prior version can be
+	 * reused by regions that don't straddle the prior frustum.
+	 *
+	 * <p>Does nothing when iteration resumes within the same version.
+	 */
+	public void updateTemporalMode(boolean reset) {
+		if (reset) {
+			isTemporal = !wasInvalidated() && version() == completedVersion + 1 && frustumPositionVersion() == completedPositionVersion;
+		}
+	}
+
+	/** True if regions in this version may reuse results of the prior version. */
+	public boolean isTemporal() {
+		return isTemporal;
+	}
+
+	/** Frustum view version of the prior version, for {@link RegionPosition#wasInsideCameraFrustum(int)}. */
+	public int temporalViewVersion() {
+		return completedViewVersion;
+	}
+
+	/**
+	 * Call when iteration reaches the end without cancellation.
+	 * Results of an iteration without culling can't be reused.
+	 */
+	public void completeIteration(boolean reusable) {
+		completedVersion = reusable ? version() : -1;
+		completedViewVersion = frustumViewVersion();
+		completedPositionVersion = frustumPositionVersion();
+	}
+
 	public Vec3 frustumCameraPos() {
 		return occluder.frustumCameraPos();
 	}
@@ -107,8 +147,8 @@ public class CameraVisibility extends AbstractVisbility<CameraVisibility, Camera
 		occluder.occlude(occlusionData);
 
 		if (worldRenderState.shadowsEnabled()) {
-			targetOccluder.prepareRegion(lastOrigin);
-			targetOccluder.occludeBox(occlusionData[RegionOcclusionCalculator.OCCLUSION_RESULT_RENDERABLE_BOUNDS_INDEX]);
+			// drawn on another worker while iteration continues
+			targetDrawQueue.add(lastOrigin, occlusionData[RegionOcclusionCalculator.OCCLUSION_RESULT_RENDERABLE_BOUNDS_INDEX]);
 		}
 	}
 }
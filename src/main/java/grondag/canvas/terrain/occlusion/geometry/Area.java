@@ -31,6 +31,8 @@ public class Area {
 	private static final int[] AREA_INDEX_TO_KEY;
 	private static final int[] SECTION_KEYS;
 	private static final int[] SECTION_INDEX;
+	/** Full rows (low 16 bits) or full columns (high 16 bits) a slice needs to include each section. */
+	private static final int[] SECTION_REQUIREMENTS;
 	private static final long[] AREA_BITS;
 
 	static {
@@ -88,8 +90,19 @@ public class Area {
 		SECTION_KEYS = sections.toArray(new int[SECTION_COUNT]);
 		SECTION_INDEX = new int[SECTION_COUNT];
 
+		SECTION_REQUIREMENTS = new int[SECTION_COUNT];
+
 		for (int k = 0; k < SECTION_COUNT; ++k) {
-			SECTION_INDEX[k] = keyToIndex(SECTION_KEYS[k]);
+			final int a = SECTION_KEYS[k];
+			SECTION_INDEX[k] = keyToIndex(a);
+
+			if (Area.x0(a) == 0 && Area.x1(a) == 15) {
+				// spans all columns, so every row in range must be full
+				SECTION_REQUIREMENTS[k] = (0xFFFF << Area.y0(a)) & (0xFFFF >> (15 - Area.y1(a)));
+			} else {
+				// spans all rows, so every column in range must be full
+				SECTION_REQUIREMENTS[k] = ((0xFFFF << Area.x0(a)) & (0xFFFF >> (15 - Area.x1(a)))) << 16;
+			}
 		}
 
 		final long[] xMasks = new long[256];
@@ -144,6 +157,16 @@ public class Area {
 		return SECTION_INDEX[sectionIndex];
 	}
 
+	/**
+	 * Equivalent to {@link #isIncludedBySample(long[], int, int)} for section areas.
+	 *
+	 * @param fullRowsAndColumns Full rows of the sample in the low 16 bits and full columns in the high 16 bits.
+	 */
+	public static boolean isSectionIncluded(int fullRowsAndColumns, int sectionIndex) {
+		final int required = SECTION_REQUIREMENTS[sectionIndex];
+		return (required & fullRowsAndColumns) == required;
+	}
+
 	public static boolean isIncludedBySample(long[] sample, int sampleStart, int areaIndex) {
 		areaIndex <<= 2;
 
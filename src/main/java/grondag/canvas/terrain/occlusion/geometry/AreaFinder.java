@@ -195,22 +195,46 @@ public class AreaFinder {
 		}
 	}
 
+	/**
+	 * Section areas span every row or every column, so instead of testing each
+	 * section against the sample we find full rows and full columns once and
+	 * test each section against those with a single int compare.
+	 */
 	public void findSections(long[] bitsIn, int sourceIndex, IntConsumer areaIndexConsumer) {
-		final long[] bits = this.bits;
-		System.arraycopy(bitsIn, sourceIndex, bits, 0, 4);
+		final long b0 = bitsIn[sourceIndex];
+		final long b1 = bitsIn[sourceIndex + 1];
+		final long b2 = bitsIn[sourceIndex + 2];
+		final long b3 = bitsIn[sourceIndex + 3];
+
+		long columns = b0 & b1 & b2 & b3;
+		columns &= columns >>> 32;
+		columns &= columns >>> 16;
 
-		final int bitCount = Long.bitCount(bits[0]) + Long.bitCount(bits[1]) + Long.bitCount(bits[2]) + Long.bitCount(bits[3]);
+		final int fullRowsAndColumns = fullRows(b0) | (fullRows(b1) << 4) | (fullRows(b2) << 8) | (fullRows(b3) << 12) | ((int) (columns & 0xFFFF) << 16);
 
-		if (bitCount == 0) {
+		if (fullRowsAndColumns == 0) {
 			return;
 		}
 
 		for (int i = 0; i < Area.SECTION_COUNT; ++i) {
-			final int areaIndex = Area.sectionToAreaIndex(i);
-
-			if (Area.isIncludedBySample(bits, 0, areaIndex)) {
-				areaIndexConsumer.accept(areaIndex);
+			if (Area.isSectionIncluded(fullRowsAndColumns, i)) {
+				areaIndexConsumer.accept(Area.sectionToAreaIndex(i));
 			}
 		}
 	}
+
+	/** One bit for each of the four rows in the word that are fully set. */
+	private static int fullRows(long bits) {
+		if (bits == 0) {
+			return 0;
+		}
+
+		// lowest bit of each row survives only if all 16 bits of the row are set
+		bits &= bits >>> 8;
+		bits &= bits >>> 4;
+		bits &= bits >>> 2;
+		bits &= bits >>> 1;
+		bits &= 0x0001000100010001L;
+		return (int) ((bits | (bits >>> 15) | (bits >>> 30) | (bits >>> 45)) & 0xF);
+	}
 }
@@ -0,0 +1,152 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.terrain.occlusion.geometry;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Shares occlusion results between rebuilds whose occlusion inputs are identical,
+ * so that block changes that don't affect opacity (redstone, signs, etc.) skip the
+ * flood fill and box search.
+ *
+ * <p>Keys are the closed and renderable bits captured by {@link RegionOcclusionCalculator#prepare()}
+ * plus the build mode. Values hold the result, which includes the occluding boxes, and
+ * the interior closed and renderable bits as they were left by the build, because
+ * terrain rendering reads those afterwards. Keys are compared in full on lookup
+ * so hash collisions are only a miss.
+ *
+ * <p>Shared by all terrain workers. Least recently used entries are evicted beyond
+ * a fixed size and the cache is cleared on renderer reload.
+ */
+public final class OcclusionResultCache {
+	/** Each entry holds a bit more than 2KB. */
+	private static final int MAX_ENTRIES = 2048;
+
+	private static final Long2ObjectLinkedOpenHashMap<Entry> MAP = new Long2ObjectLinkedOpenHashMap<>();
+	private static final AtomicLong HIT_COUNT = new AtomicLong();
+	private static final AtomicLong MISS_COUNT = new AtomicLong();
+
+	/** Guarded by MAP. */
+	private static long byteCount;
+
+	private OcclusionResultCache() { }
+
+	static final class Entry {
+		private final long[] key;
+		private final int mode;
+		final long[] closedBits;
+		final long[] renderableBits;
+		final OcclusionResult result;
+
+		private Entry(long[] key, int mode, long[] closedBits, long[] renderableBits, OcclusionResult result) {
+			this.key = key;
+			this.mode = mode;
+			this.closedBits = closedBits;
+			this.renderableBits = renderableBits;
+			this.result = result;
+		}
+
+		private int byteCount() {
+			final int[] data = result.occlusionData();
+			return (key.length + closedBits.length + renderableBits.length) * 8 + (data == null ? 0 : data.length * 4) + 128;
+		}
+	}
+
+	static int mode(boolean isNear, boolean advancedCulling) {
+		return (isNear ? 1 : 0) | (advancedCulling ? 2 : 0);
+	}
+
+	static long hash(long[] key, int mode) {
+		long result = mode;
+
+		for (final long word : key) {
+			result = result * 0x9E3779B97F4A7C15L + word;
+		}
+
+		return HashCommon.mix(result);
+	}
+
+	static @Nullable Entry get(long hash, long[] key, int mode) {
+		Entry result;
+
+		synchronized (MAP) {
+			result = MAP.getAndMoveToLast(hash);
+		}
+
+		if (result != null && (result.mode != mode || !Arrays.equals(result.key, key))) {
+			result = null;
+		}
+
+		(result == null ? MISS_COUNT : HIT_COUNT).incrementAndGet();
+		return result;
+	}
+
+	/** Key array is retained and must not be modified afterwards. */
+	static void put(long hash, long[] key, int mode, long[] closedBits, long[] renderableBits, OcclusionResult result) {
+		final Entry entry = new Entry(key, mode, closedBits, renderableBits, result);
+
+		synchronized (MAP) {
+			final Entry prior = MAP.put(hash, entry);
+			byteCount += entry.byteCount();
+
+			if (prior != null) {
+				byteCount -= prior.byteCount();
+			}
+
+			if (MAP.size() > MAX_ENTRIES) {
+				byteCount -= MAP.removeFirst().byteCount();
+			}
+		}
+	}
+
+	static long hitCount() {
+		return HIT_COUNT.get();
+	}
+
+	public static void clear() {
+		synchronized (MAP) {
+			MAP.clear();
+			byteCount = 0;
+		}
+
+		HIT_COUNT.set(0);
+		MISS_COUNT.set(0);
+	}
+
+	public static String debugReport() {
+		final long hits = HIT_COUNT.get();
+		final long total = hits + MISS_COUNT.get();
+		final int size;
+		final long bytes;
+
+		synchronized (MAP) {
+			size = MAP.size();
+			bytes = byteCount;
+		}
+
+		return String.format("Occlusion cache: %d %4.1fMb hit rate: %.1f%%", size, bytes / 1048576f, total == 0 ? 0f : hits * 100f / total);
+	}
+}
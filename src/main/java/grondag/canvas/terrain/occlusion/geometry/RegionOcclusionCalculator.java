@@ -26,18 +26,16 @@ import static grondag.canvas.terrain.util.RenderRegionStateIndexer.TOTAL_CACHE_W
 import static grondag.canvas.terrain.util.RenderRegionStateIndexer.interiorIndex;
 import static grondag.canvas.terrain.util.RenderRegionStateIndexer.regionIndex;
 
-import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
-import it.unimi.dsi.fastutil.ints.IntArrayList;
+import java.util.Arrays;
 
-import net.minecraft.world.level.block.Blocks;
-import net.minecraft.world.level.block.RenderShape;
-import net.minecraft.world.level.block.state.BlockState;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 import io.vram.frex.api.model.util.FaceUtil;
 
 import grondag.bitraster.PackedBox;
 import grondag.canvas.config.Configurator;
 import grondag.canvas.pipeline.Pipeline;
+import grondag.canvas.terrain.util.BlockStateTable;
 
 public abstract class RegionOcclusionCalculator {
 	public static final int OCCLUSION_RESULT_RENDERABLE_BOUNDS_INDEX = 0;
@@ -46,11 +44,18 @@ public abstract class RegionOcclusionCalculator {
 	public static final OcclusionResult EMPTY_OCCLUSION_RESULT = new OcclusionResult(EMPTY_OCCLUSION_DATA, -1L);
 
 	private static final int RENDERABLE_OFFSET = TOTAL_CACHE_WORDS;
-	private static final int EXTERIOR_VISIBLE_OFFSET = RENDERABLE_OFFSET + TOTAL_CACHE_WORDS;
-	private static final int WORD_COUNT = EXTERIOR_VISIBLE_OFFSET + TOTAL_CACHE_WORDS;
+	static final int EXTERIOR_VISIBLE_OFFSET = RENDERABLE_OFFSET + TOTAL_CACHE_WORDS;
+	static final int WORD_COUNT = EXTERIOR_VISIBLE_OFFSET + TOTAL_CACHE_WORDS;
 	static final long[] EMPTY_BITS = new long[WORD_COUNT];
 	private static final long[] EXTERIOR_MASK = new long[INTERIOR_CACHE_WORDS];
 
+	// Each interior word holds four x-rows of 16 bits: bit = x | (y & 3) << 4, word = z << 2 | y >> 2
+	private static final long X_MIN_MASK = 0x0001000100010001L;
+	private static final long X_MAX_MASK = 0x8000800080008000L;
+	private static final long X_INNER_MASK = ~(X_MIN_MASK | X_MAX_MASK);
+	private static final long Y_MIN_ROW = 0x000000000000FFFFL;
+	private static final long Y_MAX_ROW = 0xFFFF000000000000L;
+
 	static {
 		for (int i = 0; i < 4096; i++) {
 			final int x = i & 15;
@@ -64,7 +69,8 @@ public abstract class RegionOcclusionCalculator {
 	}
 
 	public final BoxFinder boxFinder = new BoxFinder(new AreaFinder());
-	private final IntArrayFIFOQueue queue = new IntArrayFIFOQueue();
+	private final long[] fillBits = new long[INTERIOR_CACHE_WORDS];
+	private final long[] cacheKey = new long[TOTAL_CACHE_WORDS + INTERIOR_CACHE_WORDS];
 	private final long[] bits = new long[WORD_COUNT];
 	private int openCount;
 	private int minRenderableX;
@@ -87,9 +93,15 @@ public abstract class RegionOcclusionCalculator {
 		captureInterior();
 	}
 
-	protected abstract BlockState blockStateAtIndex(int regionIndex);
+	/** {@link BlockStateTable} flags of the state at the given index. */
+	protected abstract int stateFlagsAtIndex(int regionIndex);
 
-	protected abstract boolean closedAtRelativePos(BlockState blockState, int regionIndex);
+	/** Only called for states flagged {@link BlockStateTable#DYNAMIC_OPACITY}. */
+	protected abstract boolean closedAtRelativePos(int regionIndex);
+
+	private boolean isClosed(int stateFlags, int regionIndex) {
+		return (stateFlags & BlockStateTable.OPAQUE) != 0 || ((stateFlags & BlockStateTable.DYNAMIC_OPACITY) != 0 && closedAtRelativePos(regionIndex));
+	}
 
 	public boolean isClosed(int index) {
 		return (bits[(index >> 6)] & (1L << (index & 63))) != 0;
@@ -114,10 +126,10 @@ public abstract class RegionOcclusionCalculator {
 	}
 
 	private void captureInteriorVisibility(int regionIndex) {
-		final BlockState blockState = blockStateAtIndex(regionIndex);
+		final int stateFlags = stateFlagsAtIndex(regionIndex);
 
-		if (blockState.getRenderShape() != RenderShape.INVISIBLE || !blockState.getFluidState().isEmpty()) {
-			final boolean closed = closedAtRelativePos(blockState, regionIndex) || (Configurator.renderWhiteGlassAsOccluder && blockState.getBlock() == Blocks.WHITE_STAINED_GLASS);
+		if ((stateFlags & BlockStateTable.RENDERS) != 0) {
+			final boolean closed = isClosed(stateFlags, regionIndex) || (Configurator.renderWhiteGlassAsOccluder && (stateFlags & BlockStateTable.WHITE_GLASS) != 0);
 			setVisibility(regionIndex, true, closed);
 		}
 	}
@@ -235,9 +247,9 @@ public abstract class RegionOcclusionCalculator {
 	}
 
 	private void captureExteriorVisibility(int regionIndex) {
-		final BlockState blockState = blockStateAtIndex(regionIndex);
+		final int stateFlags = stateFlagsAtIndex(regionIndex);
 
-		if ((blockState.getRenderShape() != RenderShape.INVISIBLE || !blockState.getFluidState().isEmpty()) && closedAtRelativePos(blockState, regionIndex)) {
+		if ((stateFlags & BlockStateTable.RENDERS) != 0 && isClosed(stateFlags, regionIndex)) {
 			setVisibility(regionIndex, false, true);
 		}
 	}
@@ -255,7 +267,7 @@ public abstract class RegionOcclusionCalculator {
 	/**
 	 * Checks if the position is interior and not already visited.
 	 * If the position is interior and not already visited, marks it visited
-	 * and returns a boolean indicating opacity.
+	 * and returns a boolean indicating opacity. Visited faces are tracked by {@link #fill}.
 	 *
 	 * @param index
 	 * @return True if position met the conditions for visiting AND was not opaque.
@@ -276,15 +288,7 @@ public abstract class RegionOcclusionCalculator {
 			bits[wordIndex + EXTERIOR_VISIBLE_OFFSET] |= mask;
 
 			// return opacity result
-			if ((bits[wordIndex] & mask) == 0) {
-				if (!Pipeline.advancedTerrainCulling()) {
-					trackVistedFaces(index);
-				}
-
-				return true;
-			} else {
-				return false;
-			}
+			return (bits[wordIndex] & mask) == 0;
 		} else {
 			// already visited
 			return false;
@@ -555,45 +559,39 @@ public abstract class RegionOcclusionCalculator {
 
 	private void visitSurfaceIfPossible(int index) {
 		if (setVisited(index)) {
-			fill(index);
+			visitedFacesMask |= fill(bits, fillBits, index);
 		}
 	}
 
-	private OcclusionResult computeOcclusion(boolean isNear) {
+	private OcclusionResult computeOcclusion(boolean isNear, boolean advancedCulling) {
 		// Determine which blocks are visible by visiting exterior blocks
 		// that aren't occluded by neighboring regions and doing a fill from there.
+		// Face connectivity is tracked in both modes - advanced culling uses it
+		// to reject regions before they are tested against the occlusion raster.
 		long mutualFaceMask = 0;
 
-		if (Pipeline.advancedTerrainCulling()) {
-			for (int i = 0; i < COVERING_INDEX_COUNT; ++i) {
-				if (!isClosed(COVERING_INDEXES[i])) {
-					visitSurfaceIfPossible(COVERED_INDEXES[i]);
+		for (int i = 0; i < COVERING_INDEX_COUNT; ++i) {
+			// face indices are six groups of 256, one for each face.
+			// We want to reset visibility search on each new face and
+			// exploit this fact to know when we progress to the next face
+			if ((i & 0xFF) == 0) {
+				if (visitedFacesMask != 0) {
+					mutualFaceMask |= OcclusionResult.buildMutualFaceMask(visitedFacesMask);
+					visitedFacesMask = 0;
 				}
 			}
-		} else {
-			for (int i = 0; i < COVERING_INDEX_COUNT; ++i) {
-				// face indices are six groups of 256, one for each face.
-				// We want to reset visibility search on each new face and
-				// exploit this fact to know when we progress to the next face
-				if ((i & 0xFF) == 0) {
-					if (visitedFacesMask != 0) {
-						mutualFaceMask |= OcclusionResult.buildMutualFaceMask(visitedFacesMask);
-						visitedFacesMask = 0;
-					}
-				}
 
-				if (!isClosed(COVERING_INDEXES[i])) {
-					visitSurfaceIfPossible(COVERED_INDEXES[i]);
-				}
+			if (!isClosed(COVERING_INDEXES[i])) {
+				visitSurfaceIfPossible(COVERED_INDEXES[i]);
 			}
+		}
 
-			if (visitedFacesMask != 0) {
-				mutualFaceMask |= OcclusionResult.buildMutualFaceMask(visitedFacesMask);
-				visitedFacesMask = 0;
-			}
+		if (visitedFacesMask != 0) {
+			mutualFaceMask |= OcclusionResult.buildMutualFaceMask(visitedFacesMask);
+			visitedFacesMask = 0;
 		}
 
-		if (Pipeline.advancedTerrainCulling()) {
+		if (advancedCulling) {
 			// don't hide inside position if we may be inside the chunk!
 			if (!isNear) {
 				hideInteriorClosedPositions();
@@ -629,13 +627,45 @@ public abstract class RegionOcclusionCalculator {
 				}
 			}
 
-			return new OcclusionResult(result, 0L);
+			return new OcclusionResult(result, mutualFaceMask);
 		} else {
 			return new OcclusionResult(null, mutualFaceMask);
 		}
 	}
 
 	public OcclusionResult build(boolean isNear) {
+		return build(isNear, Pipeline.advancedTerrainCulling());
+	}
+
+	/**
+	 * Reuses the result of an earlier build with identical inputs when one is
+	 * cached, restoring the closed and renderable bits that build left behind.
+	 */
+	OcclusionResult build(boolean isNear, boolean advancedCulling) {
+		final long[] key = cacheKey;
+		System.arraycopy(bits, 0, key, 0, TOTAL_CACHE_WORDS);
+		System.arraycopy(bits, RENDERABLE_OFFSET, key, TOTAL_CACHE_WORDS, INTERIOR_CACHE_WORDS);
+		final int mode = OcclusionResultCache.mode(isNear, advancedCulling);
+		final long hash = OcclusionResultCache.hash(key, mode);
+		final OcclusionResultCache.Entry cached = OcclusionResultCache.get(hash, key, mode);
+
+		if (cached != null) {
+			System.arraycopy(cached.closedBits, 0, bits, 0, INTERIOR_CACHE_WORDS);
+			System.arraycopy(cached.renderableBits, 0, bits, RENDERABLE_OFFSET, INTERIOR_CACHE_WORDS);
+			return cached.result;
+		}
+
+		final OcclusionResult result = buildUncached(isNear, advancedCulling);
+
+		OcclusionResultCache.put(hash, key.clone(), mode,
+				Arrays.copyOf(bits, INTERIOR_CACHE_WORDS),
+				Arrays.copyOfRange(bits, RENDERABLE_OFFSET, RENDERABLE_OFFSET + INTERIOR_CACHE_WORDS),
+				result);
+
+		return result;
+	}
+
+	private OcclusionResult buildUncached(boolean isNear, boolean advancedCulling) {
 		if (openCount == 0) {
 			// If there are no open interior positions then only surface blocks can be visible,
 			// and only if they not covered by positions in adjacent sections.
@@ -653,87 +683,120 @@ public abstract class RegionOcclusionCalculator {
 			result[OCCLUSION_RESULT_FIRST_BOX_INDEX] = PackedBox.FULL_BOX;
 			return new OcclusionResult(result, 0L);
 		} else {
-			return computeOcclusion(isNear);
+			return computeOcclusion(isNear, advancedCulling);
 		}
 	}
 
-	private void fill(int xyz4) {
-		visit(xyz4);
+	/**
+	 * Floods open interior space from an open seed position, a whole word (four x-rows) at a time.
+	 * Each word is dilated against the closed mask to a local fixed point, and sweeps alternate
+	 * direction until no word changes. Afterwards, every filled position and each of its interior
+	 * neighbors are marked visited, matching a voxel-at-a-time breadth-first fill.
+	 *
+	 * <p>Seed must be open and already marked visited, and no other position of its open
+	 * component may have been visited. Components found by earlier fills are disjoint from
+	 * the seed's component, so filling against the closed mask alone is sufficient.
+	 *
+	 * @param bits Calculator bits - closed words first, visited words at {@link #EXTERIOR_VISIBLE_OFFSET}.
+	 * @param fill Scratch array of {@code INTERIOR_CACHE_WORDS} words.
+	 * @param seed Interior index of the starting position.
+	 * @return Face flags of exterior faces touched by the filled component. Edge and corner
+	 * positions count only for the first face in the order x, y, z.
+	 */
+	static int fill(long[] bits, long[] fill, int seed) {
+		Arrays.fill(fill, 0L);
+		fill[seed >> 6] = 1L << (seed & 63);
+
+		int minZ = seed >> 8;
+		int maxZ = minZ;
+		boolean forward = true;
+		boolean changed;
+
+		do {
+			changed = false;
+			final int low = Math.max(0, minZ - 1) << 2;
+			final int high = (Math.min(15, maxZ + 1) << 2) + 3;
+
+			for (int n = low; n <= high; ++n) {
+				final int w = forward ? n : low + high - n;
+				final long prior = fill[w];
+				final long open = ~bits[w];
+
+				long f = prior;
+
+				if ((w & 3) != 0) f |= (fill[w - 1] >>> 48) & open;
+				if ((w & 3) != 3) f |= (fill[w + 1] << 48) & open;
+				if (w >= 4) f |= fill[w - 4] & open;
+				if (w < 60) f |= fill[w + 4] & open;
+
+				if (f == 0) {
+					continue;
+				}
 
-		while (!queue.isEmpty()) {
-			final int nextXyz4 = queue.dequeueInt();
-			visit(nextXyz4);
-		}
-	}
+				long last;
 
-	private void visit(int xyz4) {
-		final int x = xyz4 & 0xF;
+				do {
+					last = f;
+					f |= (((f << 1) & ~X_MIN_MASK) | ((f >>> 1) & ~X_MAX_MASK) | (f << 16) | (f >>> 16)) & open;
+				} while (f != last);
 
-		if (x == 0) {
-			enqueIfUnvisited(xyz4 + 1);
-		} else if (x == 15) {
-			enqueIfUnvisited(xyz4 - 1);
-		} else {
-			enqueIfUnvisited(xyz4 - 1);
-			enqueIfUnvisited(xyz4 + 1);
-		}
+				if (f != prior) {
+					fill[w] = f;
+					changed = true;
+					final int z = w >> 2;
 
-		final int y = xyz4 & 0xF0;
+					if (z < minZ) {
+						minZ = z;
+					} else if (z > maxZ) {
+						maxZ = z;
+					}
+				}
+			}
 
-		if (y == 0) {
-			enqueIfUnvisited(xyz4 + 0x10);
-		} else if (y == 0xF0) {
-			enqueIfUnvisited(xyz4 - 0x10);
-		} else {
-			enqueIfUnvisited(xyz4 - 0x10);
-			enqueIfUnvisited(xyz4 + 0x10);
-		}
+			forward = !forward;
+		} while (changed);
 
-		final int z = xyz4 & 0xF00;
+		int faces = 0;
+		final int low = Math.max(0, minZ - 1) << 2;
+		final int high = (Math.min(15, maxZ + 1) << 2) + 3;
 
-		if (z == 0) {
-			enqueIfUnvisited(xyz4 + 0x100);
-		} else if (z == 0xF00) {
-			enqueIfUnvisited(xyz4 - 0x100);
-		} else {
-			enqueIfUnvisited(xyz4 - 0x100);
-			enqueIfUnvisited(xyz4 + 0x100);
-		}
-	}
+		for (int w = low; w <= high; ++w) {
+			final long f = fill[w];
+			long visited = f | ((f << 1) & ~X_MIN_MASK) | ((f >>> 1) & ~X_MAX_MASK) | (f << 16) | (f >>> 16);
 
-	private void trackVistedFaces(int xyz4) {
-		final int x = xyz4 & 0xF;
+			if ((w & 3) != 0) visited |= fill[w - 1] >>> 48;
+			if ((w & 3) != 3) visited |= fill[w + 1] << 48;
+			if (w >= 4) visited |= fill[w - 4];
+			if (w < 60) visited |= fill[w + 4];
 
-		if (x == 0) {
-			visitedFacesMask |= FaceUtil.WEST_FLAG;
-			return;
-		} else if (x == 15) {
-			visitedFacesMask |= FaceUtil.EAST_FLAG;
-			return;
-		}
+			bits[w + EXTERIOR_VISIBLE_OFFSET] |= visited;
 
-		final int y = xyz4 & 0xF0;
+			if (f == 0) {
+				continue;
+			}
 
-		if (y == 0) {
-			visitedFacesMask |= FaceUtil.DOWN_FLAG;
-			return;
-		} else if (y == 0xF0) {
-			visitedFacesMask |= FaceUtil.UP_FLAG;
-			return;
-		}
+			if ((f & X_MIN_MASK) != 0) faces |= FaceUtil.WEST_FLAG;
+			if ((f & X_MAX_MASK) != 0) faces |= FaceUtil.EAST_FLAG;
 
-		final int z = xyz4 & 0xF00;
+			long inner = f & X_INNER_MASK;
 
-		if (z == 0) {
-			visitedFacesMask |= FaceUtil.NORTH_FLAG;
-		} else if (z == 0xF00) {
-			visitedFacesMask |= FaceUtil.SOUTH_FLAG;
-		}
-	}
+			if ((w & 3) == 0) {
+				if ((inner & Y_MIN_ROW) != 0) faces |= FaceUtil.DOWN_FLAG;
+				inner &= ~Y_MIN_ROW;
+			} else if ((w & 3) == 3) {
+				if ((inner & Y_MAX_ROW) != 0) faces |= FaceUtil.UP_FLAG;
+				inner &= ~Y_MAX_ROW;
+			}
 
-	private void enqueIfUnvisited(int xyz4) {
-		if (setVisited(xyz4)) {
-			queue.enqueue(xyz4);
+			if (inner != 0) {
+				if (w < 4) {
+					faces |= FaceUtil.NORTH_FLAG;
+				} else if (w >= 60) {
+					faces |= FaceUtil.SOUTH_FLAG;
+				}
+			}
 		}
+
+		return faces;
 	}
 }
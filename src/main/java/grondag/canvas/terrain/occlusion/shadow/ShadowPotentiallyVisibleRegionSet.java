@@ -20,8 +20,8 @@
 
 package grondag.canvas.terrain.occlusion.shadow;
 
-import java.util.Arrays;
-
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import org.jetbrains.annotations.Nullable;
 
 import com.mojang.math.Vector3f;
@@ -33,123 +33,42 @@ import io.vram.dtk.CircleUtil;
 import grondag.canvas.terrain.occlusion.base.PotentiallyVisibleRegionSet;
 import grondag.canvas.terrain.region.RenderRegionIndexer;
 
+/**
+ * Sorts regions by distance from the sky light using a priority queue over
+ * only the regions that have been added. Cost of iteration depends on the
+ * number of regions present rather than the size of the padded index space.
+ *
+ * <p>Matches the order of a scan along the three axes, most aligned with
+ * the light first. Like such a scan, iteration does not back up to visit
+ * regions added behind the current position until {@link #returnToStart()}.
+ */
 public class ShadowPotentiallyVisibleRegionSet implements PotentiallyVisibleRegionSet<ShadowPotentiallyVisibleRegionSet, ShadowRegionVisibility> {
 	private int version = 1;
-	private int regionCount = 0;
-	private final ShadowRegionVisibility[] states = new ShadowRegionVisibility[RenderRegionIndexer.PADDED_REGION_INDEX_COUNT];
-
-	int xBase;
-	int zBase;
-
-	private int x, y, z;
-
-	private DirectionFunction xDir = DIRECTION_NORMAL, yDir = DIRECTION_NORMAL, zDir = DIRECTION_NORMAL;
-
-	private final AxisIterator XPOS = new AxisIterator() {
-		@Override
-		public boolean next() {
-			if (++x < RenderRegionIndexer.MAX_LOADED_CHUNK_DIAMETER) {
-				return true;
-			} else {
-				reset();
-				return false;
-			}
-		}
 
-		@Override
-		public void reset() {
-			x = 0;
-		}
-	};
+	/** All regions added since the last clear, in the order they were added. */
+	private final ObjectArrayList<ShadowRegionVisibility> states = new ObjectArrayList<>();
 
-	private final AxisIterator XNEG = new AxisIterator() {
-		@Override
-		public boolean next() {
-			if (--x >= 0) {
-				return true;
-			} else {
-				reset();
-				return false;
-			}
-		}
-
-		@Override
-		public void reset() {
-			x = RenderRegionIndexer.MAX_LOADED_CHUNK_DIAMETER - 1;
-		}
-	};
-
-	private final AxisIterator YPOS = new AxisIterator() {
-		@Override
-		public boolean next() {
-			if (++y < RenderRegionIndexer.MAX_Y_REGIONS) {
-				return true;
-			} else {
-				reset();
-				return false;
-			}
-		}
-
-		@Override
-		public void reset() {
-			y = 0;
-		}
-	};
-
-	private final AxisIterator YNEG = new AxisIterator() {
-		@Override
-		public boolean next() {
-			if (--y >= 0) {
-				return true;
-			} else {
-				reset();
-				return false;
-			}
-		}
-
-		@Override
-		public void reset() {
-			y = RenderRegionIndexer.MAX_Y_REGIONS - 1;
-		}
-	};
+	/** Iteration order in the high 32 bits and index into {@link #states} in the low 32 bits. */
+	private final LongHeapPriorityQueue queue = new LongHeapPriorityQueue();
 
-	private final AxisIterator ZPOS = new AxisIterator() {
-		@Override
-		public boolean next() {
-			if (++z < RenderRegionIndexer.MAX_LOADED_CHUNK_DIAMETER) {
-				return true;
-			} else {
-				reset();
-				return false;
-			}
-		}
+	/** Order of the position after the last region returned. Regions added before it are behind iteration. */
+	private int nextOrder;
 
-		@Override
-		public void reset() {
-			z = 0;
-		}
-	};
+	int xBase;
+	int zBase;
 
-	private final AxisIterator ZNEG = new AxisIterator() {
-		@Override
-		public boolean next() {
-			if (--z >= 0) {
-				return true;
-			} else {
-				reset();
-				return false;
-			}
-		}
+	private DirectionFunction xDir = DIRECTION_NORMAL, yDir = DIRECTION_NORMAL, zDir = DIRECTION_NORMAL;
 
-		@Override
-		public void reset() {
-			z = RenderRegionIndexer.MAX_LOADED_CHUNK_DIAMETER - 1;
-		}
-	};
+	private static final AxisOrder XPOS = (rx, ry, rz) -> rx;
+	private static final AxisOrder XNEG = (rx, ry, rz) -> RenderRegionIndexer.MAX_LOADED_CHUNK_DIAMETER - 1 - rx;
+	private static final AxisOrder YPOS = (rx, ry, rz) -> ry;
+	private static final AxisOrder YNEG = (rx, ry, rz) -> RenderRegionIndexer.MAX_Y_REGIONS - 1 - ry;
+	private static final AxisOrder ZPOS = (rx, ry, rz) -> rz;
+	private static final AxisOrder ZNEG = (rx, ry, rz) -> RenderRegionIndexer.MAX_LOADED_CHUNK_DIAMETER - 1 - rz;
 
-	private AxisIterator primary = XPOS;
-	private AxisIterator secondary = YPOS;
-	private AxisIterator tertiary = ZPOS;
+	private AxisOrder primary = XPOS;
+	private AxisOrder secondary = YPOS;
+	private AxisOrder tertiary = ZPOS;
 
 	private DistanceRankFunction distanceRankFunction = RANK_XYZ;
 
@@ -289,61 +208,65 @@ public class ShadowPotentiallyVisibleRegionSet implements PotentiallyVisibleRegi
 
 	@Override
 	public void clear() {
-		Arrays.fill(states, null);
-		regionCount = 0;
+		states.clear();
 		++version;
 		returnToStart();
 	}
 
 	@Override
 	public void add(ShadowRegionVisibility state) {
+		final int index = states.size();
+		states.add(state);
+		enqueue(state, index);
+	}
+
+	private void enqueue(ShadowRegionVisibility state, int index) {
 		final BlockPos origin = state.region.origin;
 		final int rx = (origin.getX() >> 4) + xBase;
 		final int rz = (origin.getZ() >> 4) + zBase;
 		final int ry = (origin.getY() + RenderRegionIndexer.Y_BLOCKPOS_OFFSET) >> 4;
+		assert ry < RenderRegionIndexer.MAX_Y_REGIONS;
 
-		//System.out.println(String.format("Adding origin %s with region pos %d  %d  %d  with index %d", region.origin().toShortString(), rx, ry, rz, index(rx, ry, rz)));
-		final int i = index(rx, ry, rz);
-		assert states[i] == null;
-		states[i] = state;
-		++regionCount;
+		final int order = rankIndex(primary.order(rx, ry, rz), secondary.order(rx, ry, rz), tertiary.order(rx, ry, rz));
+
+		if (!complete && order >= nextOrder) {
+			queue.enqueue(((long) order << 32) | index);
+		}
 	}
 
 	boolean complete = false;
 
 	public int regionCount() {
-		return regionCount;
+		return states.size();
 	}
 
 	@Override
 	public void returnToStart() {
-		primary.reset();
-		secondary.reset();
-		tertiary.reset();
+		queue.clear();
+		nextOrder = 0;
 		complete = false;
+
+		final int limit = states.size();
+
+		for (int i = 0; i < limit; ++i) {
+			enqueue(states.get(i), i);
+		}
 	}
 
 	@Override
 	public @Nullable ShadowRegionVisibility next() {
-		ShadowRegionVisibility result = null;
-
-		if (!complete) {
-			while (result == null) {
-				final int i = index(x, y, z);
-				result = states[i];
-
-				if (!tertiary.next()) {
-					if (!secondary.next()) {
-						if (!primary.next()) {
-							complete = true;
-							break;
-						}
-					}
-				}
-			}
+		if (complete) {
+			return null;
+		}
+
+		if (queue.isEmpty()) {
+			complete = true;
+			return null;
 		}
 
-		return result;
+		final long entry = queue.dequeueLong();
+		nextOrder = (int) (entry >>> 32) + 1;
+		return states.get((int) entry);
 	}
 
 	public int distanceRank(ShadowRegionVisibility state) {
@@ -354,21 +277,6 @@ public class ShadowPotentiallyVisibleRegionSet implements PotentiallyVisibleRegi
 		return distanceRankFunction.distanceRank(xDir.apply(rx), yDir.apply(ry), zDir.apply(rz));
 	}
 
-	/**
-	 * Computes index given normalized x, y, z region coordinates.
-	 *
-	 * <p>These are chunk-type coordinates, not block coordinates. (>> 4).
-	 *
-	 * @param rx chunk coordinate relative to xBase (0 to MAX_CHUNK_DIAMETER - 1)
-	 * @param ry chunk coordinate relative to Y_BLOCKPOS_OFFSET
-	 * @param rz chunk coordinate relative to zBase (0 to MAX_CHUNK_DIAMETER - 1)
-	 * @return index to region array, will be within {@link RenderRegionIndexer#MAX_LOADED_CHUNK_DIAMETER}
-	 */
-	private static int index(int rx, int ry, int rz) {
-		assert ry < RenderRegionIndexer.MAX_Y_REGIONS;
-		return rankIndex(ry, rz, rx);
-	}
-
 	private static int rankIndex(int primary, int secondary, int tertiary) {
 		assert primary >= 0;
 		assert primary <= RenderRegionIndexer.MAX_LOADED_CHUNK_DIAMETER;
@@ -384,10 +292,9 @@ public class ShadowPotentiallyVisibleRegionSet implements PotentiallyVisibleRegi
 		return shadowDistanceRank >> (RenderRegionIndexer.CHUNK_DIAMETER_BITS * 2);
 	}
 
-	private interface AxisIterator {
-		boolean next();
-
-		void reset();
+	private interface AxisOrder {
+		/** Position along the axis in iteration order, given normalized region coordinates. */
+		int order(int rx, int ry, int rz);
 	}
 
 	private interface DirectionFunction {
@@ -0,0 +1,162 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.terrain.occlusion.shadow;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jetbrains.annotations.Nullable;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import grondag.canvas.CanvasMod;
+import grondag.canvas.terrain.region.RegionPosition;
+
+/**
+ * Draws the renderable bounds of camera-visible regions to the shadow target occluder
+ * on a helper thread while camera iteration continues on the iterating thread.
+ * The camera and target rasters are independent, so this splits raster work between
+ * two threads without changing either result.
+ *
+ * <p>The helper is a dedicated daemon thread, started on first use, rather than a
+ * terrain task, so it never holds a rebuild worker while it waits for boxes.
+ *
+ * <p>Shadow iteration reads the target occluder, so the iterating thread must call
+ * {@link #finish()} first. That waits for any batch in progress and draws whatever
+ * the helper has not reached, so results never depend on whether the helper ran.
+ */
+public class ShadowTargetDrawQueue implements Runnable {
+	private final ShadowOccluder targetOccluder;
+
+	/** Held while drawing to the target occluder. Always taken before the monitor. */
+	private final ReentrantLock drawLock = new ReentrantLock();
+
+	@Nullable
+	private Thread helperThread;
+
+	// Guarded by this
+	private ObjectArrayList<RegionPosition> pendingOrigins = new ObjectArrayList<>();
+	private IntArrayList pendingBoxes = new IntArrayList();
+	private boolean isOpen;
+
+	// Guarded by drawLock
+	private ObjectArrayList<RegionPosition> drawOrigins = new ObjectArrayList<>();
+	private IntArrayList drawBoxes = new IntArrayList();
+
+	public ShadowTargetDrawQueue(ShadowOccluder targetOccluder) {
+		this.targetOccluder = targetOccluder;
+	}
+
+	/** Call from the iterating thread before camera iteration. */
+	public void start() {
+		synchronized (this) {
+			isOpen = true;
+			pendingOrigins.clear();
+			pendingBoxes.clear();
+		}
+
+		if (helperThread == null) {
+			helperThread = new Thread(this, "Canvas Shadow Target Thread");
+			helperThread.setDaemon(true);
+			helperThread.start();
+		}
+	}
+
+	/** Call from the iterating thread. */
+	public void add(RegionPosition origin, int packedBox) {
+		synchronized (this) {
+			pendingOrigins.add(origin);
+			pendingBoxes.add(packedBox);
+
+			if (pendingBoxes.size() == 1) {
+				notify();
+			}
+		}
+	}
+
+	/**
+	 * Call from the iterating thread after camera iteration, even if it was cancelled.
+	 * On return every added box has been drawn.
+	 */
+	public void finish() {
+		synchronized (this) {
+			isOpen = false;
+		}
+
+		drawLock.lock();
+
+		try {
+			drawPending();
+		} finally {
+			drawLock.unlock();
+		}
+	}
+
+	/** Helper thread loop. Draws batches while the queue is open and parks between iterations. */
+	@Override
+	public void run() {
+		while (true) {
+			try {
+				synchronized (this) {
+					while (!isOpen || pendingBoxes.isEmpty()) {
+						wait();
+					}
+				}
+
+				drawLock.lock();
+
+				try {
+					drawPending();
+				} finally {
+					drawLock.unlock();
+				}
+			} catch (final InterruptedException e) {
+				// NOOP
+			} catch (final Exception e) {
+				CanvasMod.LOG.error("Unhandled error drawing shadow target occluder. Impact unknown.", e);
+			}
+		}
+	}
+
+	/** Caller must hold drawLock. */
+	private void drawPending() {
+		synchronized (this) {
+			final ObjectArrayList<RegionPosition> origins = pendingOrigins;
+			pendingOrigins = drawOrigins;
+			drawOrigins = origins;
+
+			final IntArrayList boxes = pendingBoxes;
+			pendingBoxes = drawBoxes;
+			drawBoxes = boxes;
+		}
+
+		final ShadowOccluder targetOccluder = this.targetOccluder;
+		final int limit = drawBoxes.size();
+
+		for (int i = 0; i < limit; ++i) {
+			targetOccluder.prepareRegion(drawOrigins.get(i));
+			targetOccluder.occludeBox(drawBoxes.getInt(i));
+		}
+
+		drawOrigins.clear();
+		drawBoxes.clear();
+	}
+}
@@ -34,6 +34,7 @@ import grondag.canvas.terrain.region.RenderRegion;
 
 public class ShadowVisibility extends AbstractVisbility<ShadowVisibility, ShadowRegionVisibility, ShadowPotentiallyVisibleRegionSet, ShadowOccluder> {
 	public final ShadowOccluder targetOccluder = new ShadowOccluder("canvas_shadow_target_occlusion_raster.png");
+	public final ShadowTargetDrawQueue targetDrawQueue = new ShadowTargetDrawQueue(targetOccluder);
 
 	public ShadowVisibility(WorldRenderState worldRenderState) {
 		super(worldRenderState, new ShadowPotentiallyVisibleRegionSet(), new ShadowOccluder("canvas_shadow_occlusion_raster.png"));
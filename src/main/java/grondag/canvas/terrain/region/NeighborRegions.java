@@ -156,33 +156,50 @@ public class NeighborRegions {
 		}
 	}
 
-	/** Used in advanced occlusion config. */
-	public void enqueueUnvistedCameraNeighbors() {
+	/**
+	 * Used in advanced occlusion config. Only neighbors across the given faces are visited,
+	 * so that the face connectivity graph can reject regions before they reach the raster.
+	 *
+	 * @return Count of front-facing neighbors skipped because their face was not open.
+	 */
+	public int enqueueUnvistedCameraNeighbors(int openFaceFlags) {
 		assert Pipeline.advancedTerrainCulling();
 
 		final int mySquaredDist = owner.origin.squaredCameraChunkDistance();
+		int rejectCount = 0;
 
 		var region = getNeighbor(FaceUtil.EAST_INDEX);
-		if (region != null && region.origin.isFrontFacing(mySquaredDist)) region.cameraVisibility.addIfValid();
+		if (region != null && region.origin.isFrontFacing(mySquaredDist)) rejectCount += enqueueIfOpen(region, openFaceFlags, FaceUtil.EAST_FLAG, FaceUtil.WEST_FLAG);
 
 		region = getNeighbor(FaceUtil.WEST_INDEX);
-		if (region != null && region.origin.isFrontFacing(mySquaredDist)) region.cameraVisibility.addIfValid();
+		if (region != null && region.origin.isFrontFacing(mySquaredDist)) rejectCount += enqueueIfOpen(region, openFaceFlags, FaceUtil.WEST_FLAG, FaceUtil.EAST_FLAG);
 
 		region = getNeighbor(FaceUtil.NORTH_INDEX);
-		if (region != null && region.origin.isFrontFacing(mySquaredDist)) region.cameraVisibility.addIfValid();
+		if (region != null && region.origin.isFrontFacing(mySquaredDist)) rejectCount += enqueueIfOpen(region, openFaceFlags, FaceUtil.NORTH_FLAG, FaceUtil.SOUTH_FLAG);
 
 		region = getNeighbor(FaceUtil.SOUTH_INDEX);
-		if (region != null && region.origin.isFrontFacing(mySquaredDist)) region.cameraVisibility.addIfValid();
+		if (region != null && region.origin.isFrontFacing(mySquaredDist)) rejectCount += enqueueIfOpen(region, openFaceFlags, FaceUtil.SOUTH_FLAG, FaceUtil.NORTH_FLAG);
 
 		if (!isTop) {
 			region = getNeighbor(FaceUtil.UP_INDEX);
-			if (region != null && region.origin.isFrontFacing(mySquaredDist)) region.cameraVisibility.addIfValid();
+			if (region != null && region.origin.isFrontFacing(mySquaredDist)) rejectCount += enqueueIfOpen(region, openFaceFlags, FaceUtil.UP_FLAG, FaceUtil.DOWN_FLAG);
 		}
 
 		if (!isBottom) {
 			region = getNeighbor(FaceUtil.DOWN_INDEX);
-			if (region != null && region.origin.isFrontFacing(mySquaredDist)) region.cameraVisibility.addIfValid();
+			if (region != null && region.origin.isFrontFacing(mySquaredDist)) rejectCount += enqueueIfOpen(region, openFaceFlags, FaceUtil.DOWN_FLAG, FaceUtil.UP_FLAG);
 		}
+
+		return rejectCount;
+	}
+
+	private static int enqueueIfOpen(RenderRegion region, int openFaceFlags, int exitFaceFlag, int entryFaceFlag) {
+		if ((openFaceFlags & exitFaceFlag) == 0) {
+			return 1;
+		}
+
+		region.cameraVisibility.addIfValid(entryFaceFlag);
+		return 0;
 	}
 
 	public void enqueueUnvistedShadowNeighbors() {
@@ -38,6 +38,7 @@ public class RegionPosition extends BlockPos {
 	private final TerrainIterator terrainIterator;
 	private final DrawListCullingHelper cullingHelper;
 	private final RegionVisibilityTest cameraFrustumTest;
+	private final RegionVisibilityTest cameraContainmentTest;
 
 	private final long packed;
 
@@ -83,6 +84,11 @@ public class RegionPosition extends BlockPos {
 
 	private boolean isPotentiallyVisibleFromCamera;
 
+	/** See {@link #wasInsideCameraFrustum(int)}. */
+	private boolean isInsideCameraFrustum;
+	private boolean wasInsideCameraFrustum;
+	private int priorCameraFrustumViewVersion = -1;
+
 	/** See {@link #checkAndUpdateSortNeeded(int)}. */
 	private int sortPositionVersion = -1;
 
@@ -100,6 +106,7 @@ public class RegionPosition extends BlockPos {
 		terrainIterator = worldRenderState.terrainIterator;
 		cullingHelper = worldRenderState.drawListCullingHlper;
 		cameraFrustumTest = worldRenderState.terrainFrustum.visibilityTest;
+		cameraContainmentTest = worldRenderState.terrainFrustum.containmentTest;
 
 		chunkY = getY() >> 4;
 		packed = packedPos;
@@ -148,6 +155,8 @@ public class RegionPosition extends BlockPos {
 		final int frustumViewVersion = cameraPVS.frustumViewVersion();
 
 		if (cameraFrustumViewVersion != frustumViewVersion) {
+			priorCameraFrustumViewVersion = cameraFrustumViewVersion;
+			wasInsideCameraFrustum = isInsideCameraFrustum;
 			cameraFrustumViewVersion = frustumViewVersion;
 			visibleFaceFlags = cullingHelper.computeVisibleFaceFlags(packed);
 
@@ -170,6 +179,7 @@ public class RegionPosition extends BlockPos {
 
 			//  PERF: implement hierarchical tests with propagation of per-plane inside test results
 			isPotentiallyVisibleFromCamera = isInsideRenderDistance && cameraFrustumTest.isVisible(this);
+			isInsideCameraFrustum = isPotentiallyVisibleFromCamera && cameraContainmentTest.isVisible(this);
 		}
 	}
 
@@ -188,8 +198,10 @@ public class RegionPosition extends BlockPos {
 		isNear = false;
 		cameraFrustumPositionVersion = -1;
 		cameraFrustumViewVersion = -1;
+		priorCameraFrustumViewVersion = -1;
 		cameraRegionOrigin = -1;
 		isPotentiallyVisibleFromCamera = false;
+		isInsideCameraFrustum = false;
 	}
 
 	/**
@@ -230,6 +242,15 @@ public class RegionPosition extends BlockPos {
 		return isPotentiallyVisibleFromCamera;
 	}
 
+	/**
+	 * True when this region was entirely inside the camera frustum with the given view
+	 * version and that version is the one immediately before the current view. Regions
+	 * that straddled the frustum edge were only partially tested by the occluder.
+	 */
+	public boolean wasInsideCameraFrustum(int frustumViewVersion) {
+		return wasInsideCameraFrustum && priorCameraFrustumViewVersion == frustumViewVersion;
+	}
+
 	/**
 	 * Called for camera region because frustum checks on near plane appear to be a little wobbly.
 	 */
@@ -0,0 +1,102 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.terrain.region;
+
+import java.util.BitSet;
+
+import grondag.canvas.render.terrain.base.UploadableRegion;
+
+/**
+ * Result of an off-thread region build or resort, waiting for the render
+ * thread to transfer it. Resort-only uploads carry translucent data only.
+ */
+class RegionUpload {
+	final RenderRegion region;
+
+	/** Null for resort-only uploads. */
+	private final UploadableRegion solid;
+	private UploadableRegion translucent;
+
+	/** Null for resort-only uploads. */
+	private final BitSet animationBits;
+
+	private RegionUpload(RenderRegion region, UploadableRegion solid, UploadableRegion translucent, BitSet animationBits) {
+		this.region = region;
+		this.solid = solid;
+		this.translucent = translucent;
+		this.animationBits = animationBits;
+	}
+
+	static RegionUpload rebuild(RenderRegion region, UploadableRegion solid, UploadableRegion translucent, BitSet animationBits) {
+		return new RegionUpload(region, solid, translucent, (BitSet) animationBits.clone());
+	}
+
+	static RegionUpload resort(RenderRegion region, UploadableRegion translucent) {
+		return new RegionUpload(region, null, translucent, null);
+	}
+
+	boolean isResortOnly() {
+		return solid == null;
+	}
+
+	UploadableRegion solid() {
+		return solid;
+	}
+
+	UploadableRegion translucent() {
+		return translucent;
+	}
+
+	BitSet animationBits() {
+		return animationBits;
+	}
+
+	int byteCount() {
+		return isResortOnly() ? translucent.byteCount() : solid.byteCount() + translucent.byteCount();
+	}
+
+	/**
+	 * Folds a newer upload for the same region into this one and returns the upload to keep.
+	 * Superseded data is released without being transferred. Must be called on render thread.
+	 */
+	RegionUpload merge(RegionUpload newer) {
+		assert newer.region == region;
+
+		if (newer.isResortOnly()) {
+			// newer sort replaces our translucent data but any solid data is still needed
+			translucent.discard();
+			translucent = newer.translucent;
+			return this;
+		} else {
+			discard();
+			return newer;
+		}
+	}
+
+	/** Releases all data without transfer. Must be called on render thread. */
+	void discard() {
+		if (solid != null) {
+			solid.discard();
+		}
+
+		translucent.discard();
+	}
+}
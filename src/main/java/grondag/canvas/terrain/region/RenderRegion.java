@@ -38,10 +38,8 @@ import net.minecraft.client.renderer.blockentity.BlockEntityRenderer;
 import net.minecraft.client.resources.model.BakedModel;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.block.Block;
-import net.minecraft.world.level.block.RenderShape;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
-import net.minecraft.world.level.material.FluidState;
 import net.minecraft.world.phys.Vec3;
 
 import io.vram.frex.api.math.FastMatrix3f;
@@ -66,6 +64,7 @@ import grondag.canvas.terrain.occlusion.shadow.ShadowRegionVisibility;
 import grondag.canvas.terrain.region.input.InputRegion;
 import grondag.canvas.terrain.region.input.PackedInputRegion;
 import grondag.canvas.terrain.region.input.SignalInputRegion;
+import grondag.canvas.terrain.util.BlockStateTable;
 import grondag.canvas.terrain.util.RenderRegionStateIndexer;
 import grondag.canvas.terrain.util.TerrainExecutor;
 import grondag.canvas.terrain.util.TerrainExecutorTask;
@@ -253,6 +252,29 @@ public class RenderRegion implements TerrainExecutorTask {
 		return origin.squaredCameraChunkDistance();
 	}
 
+	@Override
+	public boolean isObsolete() {
+		return !origin.isPotentiallyVisibleFromCamera() && !origin.isPotentiallyVisibleFromSkylight();
+	}
+
+	/**
+	 * Same outcome as when {@link #run(CanvasTerrainRenderContext)} finds the region
+	 * is no longer potentially visible: input is released and the region
+	 * will be rescheduled if/when it comes back into view.
+	 */
+	@Override
+	public void discard() {
+		final PackedInputRegion protoRegion = inputState.getAndSet(SignalInputRegion.IDLE);
+
+		// Idle means region was cancelled and rescheduling is already handled
+		if (protoRegion == null || protoRegion == SignalInputRegion.INVALID || protoRegion == SignalInputRegion.IDLE) {
+			return;
+		}
+
+		protoRegion.release();
+		markForBuild(false);
+	}
+
 	private void notifyOcclusionChange() {
 		cameraVisibility.notifyOfOcclusionChange();
 		shadowVisibility.notifyOfOcclusionChange();
@@ -318,19 +340,7 @@ public class RenderRegion implements TerrainExecutorTask {
 						final UploadableRegion upload = collectors.toUploadableChunk(true, origin, worldRenderState);
 
 						if (upload != UploadableRegion.EMPTY_UPLOADABLE) {
-							renderRegionBuilder.scheduleUpload(() -> {
-								if (ChunkRebuildCounters.ENABLED) {
-									ChunkRebuildCounters.startUpload();
-								}
-
-								translucentDrawable.releaseFromRegion();
-								translucentDrawable = upload.produceDrawable();
-								worldRenderState.invalidateDrawLists();
-
-								if (ChunkRebuildCounters.ENABLED) {
-									ChunkRebuildCounters.completeUpload();
-								}
-							});
+							renderRegionBuilder.scheduleUpload(RegionUpload.resort(this, upload));
 						}
 					}
 				}
@@ -355,22 +365,7 @@ public class RenderRegion implements TerrainExecutorTask {
 				final UploadableRegion solidUpload = collectors.toUploadableChunk(false, origin, worldRenderState);
 				final UploadableRegion translucentUpload = collectors.toUploadableChunk(true, origin, worldRenderState);
 
-				renderRegionBuilder.scheduleUpload(() -> {
-					if (ChunkRebuildCounters.ENABLED) {
-						ChunkRebuildCounters.startUpload();
-					}
-
-					releaseDrawables();
-					solidDrawable = solidUpload.produceDrawable();
-					translucentDrawable = translucentUpload.produceDrawable();
-					animationBits.clear();
-					animationBits.or(context.encoder.animationBits);
-					worldRenderState.invalidateDrawLists();
-
-					if (ChunkRebuildCounters.ENABLED) {
-						ChunkRebuildCounters.completeUpload();
-					}
-				});
+				renderRegionBuilder.scheduleUpload(RegionUpload.rebuild(this, solidUpload, translucentUpload, context.encoder.animationBits));
 			}
 
 			collectors.clear();
@@ -378,6 +373,35 @@ public class RenderRegion implements TerrainExecutorTask {
 		}
 	}
 
+	/**
+	 * Transfers the result of an off-thread build or resort. Called on render thread
+	 * by {@link RenderRegionBuilder} after superseded uploads have been coalesced.
+	 */
+	void applyUpload(RegionUpload upload) {
+		assert RenderSystem.isOnRenderThread();
+
+		if (ChunkRebuildCounters.ENABLED) {
+			ChunkRebuildCounters.startUpload();
+		}
+
+		if (upload.isResortOnly()) {
+			translucentDrawable.releaseFromRegion();
+			translucentDrawable = upload.translucent().produceDrawable();
+		} else {
+			releaseDrawables();
+			solidDrawable = upload.solid().produceDrawable();
+			translucentDrawable = upload.translucent().produceDrawable();
+			animationBits.clear();
+			animationBits.or(upload.animationBits());
+		}
+
+		worldRenderState.invalidateDrawLists();
+
+		if (ChunkRebuildCounters.ENABLED) {
+			ChunkRebuildCounters.completeUpload();
+		}
+	}
+
 	private RegionBuildState captureAndSetBuildState(CanvasTerrainRenderContext context, boolean isNear) {
 		final RegionBuildState newBuildState = new RegionBuildState();
 		newBuildState.setOcclusionResult(context.region.occlusion.build(isNear));
@@ -392,7 +416,7 @@ public class RenderRegion implements TerrainExecutorTask {
 			renderSector = worldRenderState.sectorManager.findSector(origin);
 		}
 
-		if (oldBuildState == RegionBuildState.UNBUILT || !Arrays.equals(newBuildState.occlusionResult.occlusionData(), oldBuildState.occlusionResult.occlusionData())) {
+		if (oldBuildState == RegionBuildState.UNBUILT || !Arrays.equals(newBuildState.occlusionResult.occlusionData(), oldBuildState.occlusionResult.occlusionData()) || newBuildState.occlusionResult.mutalFaceMask() != oldBuildState.occlusionResult.mutalFaceMask()) {
 			notifyOcclusionChange();
 		}
 
@@ -424,24 +448,24 @@ public class RenderRegion implements TerrainExecutorTask {
 
 		for (int i = 0; i < RenderRegionStateIndexer.INTERIOR_STATE_COUNT; i++) {
 			if (occlusionRegion.shouldRender(i)) {
-				final BlockState blockState = region.getLocalBlockState(i);
-				final FluidState fluidState = blockState.getFluidState();
-				final int x = i & 0xF;
-				final int y = (i >> 4) & 0xF;
-				final int z = (i >> 8) & 0xF;
-				searchPos.set(xOrigin + x, yOrigin + y, zOrigin + z);
-
-				final boolean hasFluid = !fluidState.isEmpty();
+				final int stateFlags = region.getLocalStateFlags(i);
+				final boolean hasFluid = (stateFlags & BlockStateTable.HAS_FLUID) != 0;
 				// Vanilla only checks not invisible, but filters non-model shape down the line
-				final boolean hasBlock = blockState.getRenderShape() == RenderShape.MODEL;
+				final boolean hasBlock = (stateFlags & BlockStateTable.HAS_MODEL) != 0;
 
 				if (hasFluid || hasBlock) {
+					final BlockState blockState = region.getLocalBlockState(i);
+					final int x = i & 0xF;
+					final int y = (i >> 4) & 0xF;
+					final int z = (i >> 8) & 0xF;
+					searchPos.set(xOrigin + x, yOrigin + y, zOrigin + z);
+
 					// Vanilla does a push/pop for each block but that creates needless allocation spam.
 					modelMatrix.f_setIdentity();
 					modelMatrix.f_translate(x, y, z);
 
 					if (hasFluid) {
-						context.renderFluid(blockState, searchPos, FluidModel.get(fluidState.getType()));
+						context.renderFluid(blockState, searchPos, FluidModel.get(blockState.getFluidState().getType()));
 					}
 
 					if (hasBlock) {
@@ -460,6 +484,7 @@ public class RenderRegion implements TerrainExecutorTask {
 			}
 		}
 
+		collectors.mergeQuads();
 		buildState.prepareTranslucentIfNeeded(worldRenderState.sectorManager.cameraPos(), renderSector, collectors);
 
 		if (ChunkRebuildCounters.ENABLED) {
@@ -510,6 +535,9 @@ public class RenderRegion implements TerrainExecutorTask {
 	}
 
 	public void rebuildOnMainThread() {
+		// off-thread results still waiting for transfer are older than this build
+		renderRegionBuilder.discardUploads(this);
+
 		final PackedInputRegion inputRegion = PackedInputRegion.claim(worldRenderState.getWorld(), origin);
 
 		if (inputRegion == SignalInputRegion.EMPTY) {
@@ -519,7 +547,7 @@ public class RenderRegion implements TerrainExecutorTask {
 			// don't rebuild occlusion if occlusion did not change
 			final RegionBuildState oldBuildState = buildState.getAndSet(newBuildState);
 
-			if (oldBuildState == RegionBuildState.UNBUILT || !Arrays.equals(newBuildState.occlusionResult.occlusionData(), oldBuildState.occlusionResult.occlusionData())) {
+			if (oldBuildState == RegionBuildState.UNBUILT || !Arrays.equals(newBuildState.occlusionResult.occlusionData(), oldBuildState.occlusionResult.occlusionData()) || newBuildState.occlusionResult.mutalFaceMask() != oldBuildState.occlusionResult.mutalFaceMask()) {
 				// Even if empty the chunk may still be needed for visibility search to progress
 				notifyOcclusionChange();
 			}
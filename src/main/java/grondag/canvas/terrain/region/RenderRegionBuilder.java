@@ -23,6 +23,8 @@ package grondag.canvas.terrain.region;
 import java.util.Queue;
 
 import com.google.common.collect.Queues;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
 import com.mojang.blaze3d.systems.RenderSystem;
 
@@ -30,39 +32,141 @@ import grondag.canvas.apiimpl.rendercontext.CanvasTerrainRenderContext;
 import grondag.canvas.terrain.util.TerrainExecutor;
 
 public class RenderRegionBuilder {
-	private final Queue<Runnable> uploadQueue = Queues.newConcurrentLinkedQueue();
+	/** Uploads may always use this much time, even when the frame is already over budget, so the backlog drains. */
+	private static final long MIN_UPLOAD_NANOS = 1_000_000L;
+
+	private final Queue<RegionUpload> uploadQueue = Queues.newConcurrentLinkedQueue();
+
+	/** Newest pending upload for each region. Render thread only. */
+	private final Object2ObjectOpenHashMap<RenderRegion, RegionUpload> pendingUploads = new Object2ObjectOpenHashMap<>();
+	private final ObjectArrayList<RegionUpload> sortedUploads = new ObjectArrayList<>();
+
+	private int lastUploadCount;
+	private long lastUploadBytes;
+	private int coalescedUploadCount;
+
 	// for use by render thread rebuilds
 	CanvasTerrainRenderContext mainThreadContext = new CanvasTerrainRenderContext();
 
 	public String getDebugString() {
-		return String.format("not available");
+		return String.format("Upload backlog: %d  last frame: %d regions %,d bytes  coalesced: %d",
+				pendingUploads.size(), lastUploadCount, lastUploadBytes, coalescedUploadCount);
 	}
 
-	public boolean upload() {
+	/**
+	 * Transfers completed off-thread builds, nearest regions first, until the deadline passes.
+	 * Uploads may continue for {@link #MIN_UPLOAD_NANOS} even if the deadline has already passed
+	 * so the backlog cannot stall.
+	 * Uploads superseded by a newer result for the same region are released without transfer.
+	 *
+	 * @param endNanos {@link System#nanoTime()} value after which no more uploads should start.
+	 * @return true if any upload was run.
+	 */
+	public boolean upload(long endNanos) {
 		assert RenderSystem.isOnRenderThread();
 
-		Runnable task = uploadQueue.poll();
+		endNanos = Math.max(endNanos, System.nanoTime() + MIN_UPLOAD_NANOS);
+		RegionUpload incoming = uploadQueue.poll();
 
-		final boolean didRun = task != null;
+		while (incoming != null) {
+			final RegionUpload existing = pendingUploads.get(incoming.region);
 
-		while (task != null) {
-			task.run();
-			task = uploadQueue.poll();
+			if (existing == null) {
+				pendingUploads.put(incoming.region, incoming);
+			} else {
+				pendingUploads.put(incoming.region, existing.merge(incoming));
+				++coalescedUploadCount;
+			}
+
+			incoming = uploadQueue.poll();
 		}
 
-		return didRun;
+		int count = 0;
+		long bytes = 0;
+
+		if (!pendingUploads.isEmpty()) {
+			final ObjectArrayList<RegionUpload> sortedUploads = this.sortedUploads;
+			sortedUploads.addAll(pendingUploads.values());
+			sortedUploads.sort((a, b) -> Integer.compare(a.region.origin.squaredCameraChunkDistance(), b.region.origin.squaredCameraChunkDistance()));
+
+			final int limit = sortedUploads.size();
+
+			for (int i = 0; i < limit; ++i) {
+				final RegionUpload upload = sortedUploads.get(i);
+				pendingUploads.remove(upload.region);
+
+				if (upload.region.isClosed()) {
+					upload.discard();
+				} else {
+					bytes += upload.byteCount();
+					upload.region.applyUpload(upload);
+					++count;
+				}
+
+				if (System.nanoTime() >= endNanos) {
+					break;
+				}
+			}
+
+			sortedUploads.clear();
+		}
+
+		lastUploadCount = count;
+		lastUploadBytes = bytes;
+
+		return count > 0;
 	}
 
 	public void reset() {
+		assert RenderSystem.isOnRenderThread();
+
 		TerrainExecutor.INSTANCE.clear();
 		mainThreadContext = new CanvasTerrainRenderContext();
+
+		RegionUpload upload = uploadQueue.poll();
+
+		while (upload != null) {
+			upload.discard();
+			upload = uploadQueue.poll();
+		}
+
+		for (final RegionUpload pending : pendingUploads.values()) {
+			pending.discard();
+		}
+
+		pendingUploads.clear();
+		sortedUploads.clear();
+	}
+
+	/**
+	 * Releases queued and pending uploads for the region without transfer.
+	 * Called when the region is rebuilt on the render thread so older
+	 * off-thread results cannot replace the newer drawables later.
+	 */
+	void discardUploads(RenderRegion region) {
+		assert RenderSystem.isOnRenderThread();
+
+		final RegionUpload pending = pendingUploads.remove(region);
+
+		if (pending != null) {
+			pending.discard();
+		}
+
+		uploadQueue.removeIf(upload -> {
+			if (upload.region == region) {
+				upload.discard();
+				return true;
+			} else {
+				return false;
+			}
+		});
 	}
 
-	public void scheduleUpload(Runnable task) {
-		uploadQueue.offer(task);
+	void scheduleUpload(RegionUpload upload) {
+		uploadQueue.offer(upload);
 	}
 
 	public boolean isEmpty() {
-		return TerrainExecutor.INSTANCE.isEmpty() && uploadQueue.isEmpty();
+		return TerrainExecutor.INSTANCE.isEmpty() && uploadQueue.isEmpty() && pendingUploads.isEmpty();
 	}
 }
@@ -23,15 +23,15 @@ package grondag.canvas.terrain.region.input;
 import static grondag.canvas.terrain.util.RenderRegionStateIndexer.regionIndex;
 
 import net.minecraft.core.BlockPos;
-import net.minecraft.world.level.Level;
+import net.minecraft.util.Mth;
 import net.minecraft.world.level.chunk.LevelChunk;
-import net.minecraft.world.level.chunk.LevelChunkSection;
 
 /**
  * Tries to prevent InputRegion from being unreadably big. Fails.
  */
 public abstract class AbstractInputRegion {
 	// larger than needed to speed up indexing
+	// only used as keys for per-chunk caches - chunk content is read from snapshots
 	protected final LevelChunk[] chunks = new LevelChunk[16];
 	protected int originX;
 	protected int originY;
@@ -40,7 +40,6 @@ public abstract class AbstractInputRegion {
 	/** Section index of region below this one, -1 if this is the bottom-most region in a chunk. */
 	protected int baseSectionIndex;
 	protected int chunkBaseZ;
-	protected Level world;
 
 	final boolean isInMainChunk(int x, int y, int z) {
 		return originX == (x & 0xFFFFFFF0) && originY == (y & 0xFFFFFFF0) && originZ == (z & 0xFFFFFFF0);
@@ -54,25 +53,11 @@ public abstract class AbstractInputRegion {
 		return regionIndex(x - originX, y - originY, z - originZ);
 	}
 
-	protected LevelChunkSection getSection(int x, int y, int z) {
-		final int index = y + baseSectionIndex;
-
-		if (index < 0) {
-			return null;
-		}
-
-		final LevelChunkSection[] sections = chunks[x | (z << 2)].getSections();
-		return index >= sections.length ? null : sections[index];
-	}
-
+	/**
+	 * Chunks outside the captured 3x3 neighborhood are clamped to it.
+	 * Never looks up chunks in the world.
+	 */
 	protected LevelChunk getChunk(int cx, int cz) {
-		final int chunkBaseX = this.chunkBaseX;
-		final int chunkBaseZ = this.chunkBaseZ;
-
-		if (cx < chunkBaseX || cx > (chunkBaseZ + 2) || cz < chunkBaseZ || cz > (chunkBaseZ + 2)) {
-			return world.getChunk(cx, cz);
-		} else {
-			return chunks[(cx - chunkBaseX) | ((cz - chunkBaseZ) << 2)];
-		}
+		return chunks[Mth.clamp(cx - chunkBaseX, 0, 2) | (Mth.clamp(cz - chunkBaseZ, 0, 2) << 2)];
 	}
 }
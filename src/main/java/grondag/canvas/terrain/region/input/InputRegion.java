@@ -83,7 +83,7 @@ import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
-import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
 import net.minecraft.world.level.lighting.LevelLightEngine;
 import net.minecraft.world.level.material.FluidState;
 
@@ -91,46 +91,54 @@ import io.vram.frex.api.world.RenderRegionBakeListener;
 
 import grondag.canvas.apiimpl.rendercontext.CanvasTerrainRenderContext;
 import grondag.canvas.terrain.occlusion.geometry.RegionOcclusionCalculator;
+import grondag.canvas.terrain.util.BlockStateTable;
 import grondag.canvas.terrain.util.ChunkColorCache;
 
-// FIX: should not allow direct world access, esp from non-main threads
+/**
+ * Worker-side view of a {@link PackedInputRegion} snapshot. Block state, light and
+ * biome queries are answered from the snapshot and never reach the live world.
+ * Tint colors still come from the shared per-chunk {@link ChunkColorCache}.
+ */
 public class InputRegion extends AbstractInputRegion implements BlockAndTintGetter {
-	private static final int[] EMPTY_AO_CACHE = new int[TOTAL_STATE_COUNT];
-	private static final int[] EMPTY_LIGHT_CACHE = new int[TOTAL_STATE_COUNT];
+	private static final int[] EMPTY_LIGHT_AO_CACHE = new int[TOTAL_STATE_COUNT * 2];
 	private static final Object[] EMPTY_RENDER_DATA = new Object[INTERIOR_STATE_COUNT];
 	private static final BlockEntity[] EMPTY_BLOCK_ENTITIES = new BlockEntity[INTERIOR_STATE_COUNT];
+	private static final BlockState AIR = Blocks.AIR.defaultBlockState();
 
 	static {
-		Arrays.fill(EMPTY_AO_CACHE, Integer.MAX_VALUE);
-		Arrays.fill(EMPTY_LIGHT_CACHE, Integer.MAX_VALUE);
+		Arrays.fill(EMPTY_LIGHT_AO_CACHE, Integer.MAX_VALUE);
 	}
 
 	public final BlockEntity[] blockEntities = new BlockEntity[INTERIOR_STATE_COUNT];
 	public final CanvasTerrainRenderContext terrainContext;
 	protected final BlockPos.MutableBlockPos searchPos = new BlockPos.MutableBlockPos();
 	protected final Object[] renderData = new Object[INTERIOR_STATE_COUNT];
-	private final BlockState[] states = new BlockState[TOTAL_STATE_COUNT];
+	/** Global palette ids, resolved through {@link #stateTable}. */
+	private final int[] stateIds = new int[TOTAL_STATE_COUNT];
+	private BlockStateTable stateTable;
+	/** Only valid while the build that prepared this region is running. */
+	private PackedInputRegion snapshot;
+	private final SectionStateReader sectionReader = new SectionStateReader();
 	public final ObjectArrayList<RenderRegionBakeListener> bakeListeners = new ObjectArrayList<>();
 
 	public final RegionOcclusionCalculator occlusion = new RegionOcclusionCalculator() {
 		@Override
-		protected BlockState blockStateAtIndex(int regionIndex) {
-			return states[regionIndex];
+		protected int stateFlagsAtIndex(int regionIndex) {
+			return stateTable.flags(stateIds[regionIndex]);
 		}
 
 		@Override
-		protected boolean closedAtRelativePos(BlockState blockState, int regionIndex) {
+		protected boolean closedAtRelativePos(int regionIndex) {
 			final int xyz5 = regionIndexToPackedSectionPos(regionIndex);
 			final int x = (xyz5 & 31) - REGION_PADDING;
 			final int y = ((xyz5 >> 5) & 31) - REGION_PADDING;
 			final int z = ((xyz5 >> 10) & 31) - REGION_PADDING;
-			return blockState.isSolidRender(InputRegion.this, searchPos.set(originX + x, originY + y, originZ + z));
+			return getLocalBlockState(regionIndex).isSolidRender(InputRegion.this, searchPos.set(originX + x, originY + y, originZ + z));
 		}
 	};
 
-	// PERF: pack for reduced memory, better LOC
-	private final int[] aoCache = new int[TOTAL_STATE_COUNT];
-	private final int[] lightCache = new int[TOTAL_STATE_COUNT];
+	/** Light at even indices, AO at odd, so both values for a position share a cache line. */
+	private final int[] lightAoCache = new int[TOTAL_STATE_COUNT * 2];
 
 	public InputRegion(CanvasTerrainRenderContext terrainContext) {
 		this.terrainContext = terrainContext;
@@ -143,10 +151,9 @@ public class InputRegion extends AbstractInputRegion implements BlockAndTintGett
 		System.arraycopy(packedRegion.chunks, 0, chunks, 0, 16);
 		System.arraycopy(EMPTY_BLOCK_ENTITIES, 0, blockEntities, 0, INTERIOR_STATE_COUNT);
 		System.arraycopy(EMPTY_RENDER_DATA, 0, renderData, 0, INTERIOR_STATE_COUNT);
-		System.arraycopy(EMPTY_AO_CACHE, 0, aoCache, 0, TOTAL_STATE_COUNT);
-		System.arraycopy(EMPTY_LIGHT_CACHE, 0, lightCache, 0, TOTAL_STATE_COUNT);
+		System.arraycopy(EMPTY_LIGHT_AO_CACHE, 0, lightAoCache, 0, TOTAL_STATE_COUNT * 2);
 
-		world = packedRegion.world;
+		snapshot = packedRegion;
 
 		originX = packedRegion.originX;
 		originY = packedRegion.originY;
@@ -156,14 +163,13 @@ public class InputRegion extends AbstractInputRegion implements BlockAndTintGett
 		baseSectionIndex = packedRegion.baseSectionIndex;
 		chunkBaseZ = packedRegion.chunkBaseZ;
 
-		final var mainSection = getSection(1, 1, 1);
+		stateTable = BlockStateTable.get();
+		final int uniformId = sectionReader.load(packedRegion.section(1, 1, 1));
 
-		for (int x = 0; x < 16; x++) {
-			for (int y = 0; y < 16; y++) {
-				for (int z = 0; z < 16; z++) {
-					states[interiorIndex(x, y, z)] = mainSection.getBlockState(x, y, z);
-				}
-			}
+		if (uniformId == SectionStateReader.MIXED) {
+			sectionReader.copyInterior(stateIds);
+		} else {
+			Arrays.fill(stateIds, 0, INTERIOR_STATE_COUNT, uniformId);
 		}
 
 		captureCorners();
@@ -175,116 +181,85 @@ public class InputRegion extends AbstractInputRegion implements BlockAndTintGett
 		occlusion.prepare();
 	}
 
-	private interface BlockStateFunction {
-		BlockState apply (int i, int j, int k);
+	private interface StateIdFunction {
+		int apply(SectionStateReader section, int i, int j, int k);
 	}
 
-	private static final BlockState AIR = Blocks.AIR.defaultBlockState();
-	private static BlockStateFunction AIR_FUNCTION = (i, j, k) -> AIR;
-
 	//NB: the addressing math here must match what is in RenderRegionAddressHelper
-	private void captureFace(int baseIndex, BlockStateFunction func) {
+	private void captureFace(int baseIndex, @Nullable PalettedContainer<BlockState> section, StateIdFunction func) {
+		final int uniformId = sectionReader.load(section);
+
+		if (uniformId != SectionStateReader.MIXED) {
+			Arrays.fill(stateIds, baseIndex, baseIndex + FACE_STATE_COUNT, uniformId);
+			return;
+		}
+
 		for (int n = 0; n < FACE_STATE_COUNT; ++n) {
-			states[baseIndex + n] = func.apply(n & FACE_I_MASK, (n >> FACE_J_SHIFT) & FACE_J_MASK, n >> FACE_K_SHIFT);
+			stateIds[baseIndex + n] = func.apply(sectionReader, n & FACE_I_MASK, (n >> FACE_J_SHIFT) & FACE_J_MASK, n >> FACE_K_SHIFT);
 		}
 	}
 
 	private void captureFaces() {
-		final LevelChunkSection lowX = getSection(0, 1, 1);
-		captureFace(SIDE_INDEX_X0, lowX == null ? AIR_FUNCTION : (i, j, k) -> lowX.getBlockState(14 + k, i, j));
-
-		final LevelChunkSection highX = getSection(2, 1, 1);
-		captureFace(SIDE_INDEX_X2, highX == null ? AIR_FUNCTION : (i, j, k) -> highX.getBlockState(k, i, j));
-
-		final LevelChunkSection lowZ = getSection(1, 1, 0);
-		captureFace(SIDE_INDEX_Z0, lowZ == null ? AIR_FUNCTION : (i, j, k) -> lowZ.getBlockState(i, j, 14 + k));
-
-		final LevelChunkSection highZ = getSection(1, 1, 2);
-		captureFace(SIDE_INDEX_Z2, highZ == null ? AIR_FUNCTION : (i, j, k) -> highZ.getBlockState(i, j, k));
-
-		final LevelChunkSection lowY = getSection(1, 0, 1);
-		captureFace(SIDE_INDEX_Y0, lowY == null ? AIR_FUNCTION : (i, j, k) -> lowY.getBlockState(i, 14 + k, j));
-
-		final LevelChunkSection highY = getSection(1, 2, 1);
-		captureFace(SIDE_INDEX_Y2, highY == null ? AIR_FUNCTION : (i, j, k) -> highY.getBlockState(i, k, j));
+		captureFace(SIDE_INDEX_X0, snapshot.section(0, 1, 1), (s, i, j, k) -> s.get(14 + k, i, j));
+		captureFace(SIDE_INDEX_X2, snapshot.section(2, 1, 1), (s, i, j, k) -> s.get(k, i, j));
+		captureFace(SIDE_INDEX_Z0, snapshot.section(1, 1, 0), (s, i, j, k) -> s.get(i, j, 14 + k));
+		captureFace(SIDE_INDEX_Z2, snapshot.section(1, 1, 2), (s, i, j, k) -> s.get(i, j, k));
+		captureFace(SIDE_INDEX_Y0, snapshot.section(1, 0, 1), (s, i, j, k) -> s.get(i, 14 + k, j));
+		captureFace(SIDE_INDEX_Y2, snapshot.section(1, 2, 1), (s, i, j, k) -> s.get(i, k, j));
 	}
 
 	//NB: the addressing math here must match what is in RenderRegionAddressHelper
-	private void captureEdge(int baseIndex, BlockStateFunction func) {
+	private void captureEdge(int baseIndex, @Nullable PalettedContainer<BlockState> section, StateIdFunction func) {
+		final int uniformId = sectionReader.load(section);
+
+		if (uniformId != SectionStateReader.MIXED) {
+			Arrays.fill(stateIds, baseIndex, baseIndex + EDGE_STATE_COUNT, uniformId);
+			return;
+		}
+
 		for (int n = 0; n < EDGE_STATE_COUNT; ++n) {
-			states[baseIndex + n] = func.apply(n & EDGE_I_MASK, (n >> EDGE_J_SHIFT) & EDGE_J_MASK, n >> EDGE_K_SHIFT);
+			stateIds[baseIndex + n] = func.apply(sectionReader, n & EDGE_I_MASK, (n >> EDGE_J_SHIFT) & EDGE_J_MASK, n >> EDGE_K_SHIFT);
 		}
 	}
 
 	private void captureEdges() {
-		final LevelChunkSection aaZ = getSection(0, 0, 1);
-		captureEdge(EDGE_INDEX_Y0X0, aaZ == null ? AIR_FUNCTION : (i, j, k) -> aaZ.getBlockState(14 + i, 14 + j, k));
-
-		final LevelChunkSection abZ = getSection(0, 2, 1);
-		captureEdge(EDGE_INDEX_Y2X0, abZ == null ? AIR_FUNCTION : (i, j, k) -> abZ.getBlockState(14 + i, j, k));
-
-		final LevelChunkSection baZ = getSection(2, 0, 1);
-		captureEdge(EDGE_INDEX_Y0X2, baZ == null ? AIR_FUNCTION : (i, j, k) -> baZ.getBlockState(i, 14 + j, k));
-
-		final LevelChunkSection bbZ = getSection(2, 2, 1);
-		captureEdge(EDGE_INDEX_Y2X2, bbZ == null ? AIR_FUNCTION : (i, j, k) -> bbZ.getBlockState(i, j, k));
-
-		final LevelChunkSection aYa = getSection(0, 1, 0);
-		captureEdge(EDGE_INDEX_Z0X0, aYa == null ? AIR_FUNCTION : (i, j, k) -> aYa.getBlockState(14 + i, k, 14 + j));
-
-		final LevelChunkSection aYb = getSection(0, 1, 2);
-		captureEdge(EDGE_INDEX_Z2X0, aYb == null ? AIR_FUNCTION : (i, j, k) -> aYb.getBlockState(14 + i, k, j));
-
-		final LevelChunkSection bYa = getSection(2, 1, 0);
-		captureEdge(EDGE_INDEX_Z0X2, bYa == null ? AIR_FUNCTION : (i, j, k) -> bYa.getBlockState(i, k, 14 + j));
-
-		final LevelChunkSection bYb = getSection(2, 1, 2);
-		captureEdge(EDGE_INDEX_Z2X2, bYb == null ? AIR_FUNCTION : (i, j, k) -> bYb.getBlockState(i, k, j));
-
-		final LevelChunkSection Xaa = getSection(1, 0, 0);
-		captureEdge(EDGE_INDEX_Z0Y0, Xaa == null ? AIR_FUNCTION : (i, j, k) -> Xaa.getBlockState(k, 14 + i, 14 + j));
-
-		final LevelChunkSection Xab = getSection(1, 0, 2);
-		captureEdge(EDGE_INDEX_Z2Y0, Xab == null ? AIR_FUNCTION : (i, j, k) -> Xab.getBlockState(k, 14 + i, j));
-
-		final LevelChunkSection Xba = getSection(1, 2, 0);
-		captureEdge(EDGE_INDEX_Z0Y2, Xba == null ? AIR_FUNCTION : (i, j, k) -> Xba.getBlockState(k, i, 14 + j));
-
-		final LevelChunkSection Xbb = getSection(1, 2, 2);
-		captureEdge(EDGE_INDEX_Z2Y2, Xbb == null ? AIR_FUNCTION : (i, j, k) -> Xbb.getBlockState(k, i, j));
+		captureEdge(EDGE_INDEX_Y0X0, snapshot.section(0, 0, 1), (s, i, j, k) -> s.get(14 + i, 14 + j, k));
+		captureEdge(EDGE_INDEX_Y2X0, snapshot.section(0, 2, 1), (s, i, j, k) -> s.get(14 + i, j, k));
+		captureEdge(EDGE_INDEX_Y0X2, snapshot.section(2, 0, 1), (s, i, j, k) -> s.get(i, 14 + j, k));
+		captureEdge(EDGE_INDEX_Y2X2, snapshot.section(2, 2, 1), (s, i, j, k) -> s.get(i, j, k));
+		captureEdge(EDGE_INDEX_Z0X0, snapshot.section(0, 1, 0), (s, i, j, k) -> s.get(14 + i, k, 14 + j));
+		captureEdge(EDGE_INDEX_Z2X0, snapshot.section(0, 1, 2), (s, i, j, k) -> s.get(14 + i, k, j));
+		captureEdge(EDGE_INDEX_Z0X2, snapshot.section(2, 1, 0), (s, i, j, k) -> s.get(i, k, 14 + j));
+		captureEdge(EDGE_INDEX_Z2X2, snapshot.section(2, 1, 2), (s, i, j, k) -> s.get(i, k, j));
+		captureEdge(EDGE_INDEX_Z0Y0, snapshot.section(1, 0, 0), (s, i, j, k) -> s.get(k, 14 + i, 14 + j));
+		captureEdge(EDGE_INDEX_Z2Y0, snapshot.section(1, 0, 2), (s, i, j, k) -> s.get(k, 14 + i, j));
+		captureEdge(EDGE_INDEX_Z0Y2, snapshot.section(1, 2, 0), (s, i, j, k) -> s.get(k, i, 14 + j));
+		captureEdge(EDGE_INDEX_Z2Y2, snapshot.section(1, 2, 2), (s, i, j, k) -> s.get(k, i, j));
 	}
 
 	//NB: the addressing math here must match what is in RenderRegionAddressHelper
-	private void captureCorner(int baseIndex, BlockStateFunction func) {
+	private void captureCorner(int baseIndex, @Nullable PalettedContainer<BlockState> section, StateIdFunction func) {
+		final int uniformId = sectionReader.load(section);
+
+		if (uniformId != SectionStateReader.MIXED) {
+			Arrays.fill(stateIds, baseIndex, baseIndex + CORNER_STATE_COUNT, uniformId);
+			return;
+		}
+
 		for (int n = 0; n < CORNER_STATE_COUNT; ++n) {
-			states[baseIndex + n] = func.apply(n & CORNER_I_MASK, (n >> CORNER_J_SHIFT) & CORNER_J_MASK, n >> CORNER_K_SHIFT);
+			stateIds[baseIndex + n] = func.apply(sectionReader, n & CORNER_I_MASK, (n >> CORNER_J_SHIFT) & CORNER_J_MASK, n >> CORNER_K_SHIFT);
 		}
 	}
 
 	private void captureCorners() {
-		final LevelChunkSection xyz = getSection(0, 0, 0);
-		captureCorner(CORNER_INDEX_000, xyz == null ? AIR_FUNCTION : (i, j, k) -> xyz.getBlockState(14 + i, 14 + j, 14 + k));
-
-		final LevelChunkSection xyZ = getSection(0, 0, 2);
-		captureCorner(CORNER_INDEX_200, xyZ == null ? AIR_FUNCTION : (i, j, k) -> xyZ.getBlockState(14 + i, 14 + j, k));
-
-		final LevelChunkSection xYz = getSection(0, 2, 0);
-		captureCorner(CORNER_INDEX_020, xYz == null ? AIR_FUNCTION : (i, j, k) -> xYz.getBlockState(14 + i, j, 14 + k));
-
-		final LevelChunkSection xYZ = getSection(0, 2, 2);
-		captureCorner(CORNER_INDEX_220, xYZ == null ? AIR_FUNCTION : (i, j, k) -> xYZ.getBlockState(14 + i, j, k));
-
-		final LevelChunkSection Xyz = getSection(2, 0, 0);
-		captureCorner(CORNER_INDEX_002, Xyz == null ? AIR_FUNCTION : (i, j, k) -> Xyz.getBlockState(i, 14 + j, 14 + k));
-
-		final LevelChunkSection XyZ = getSection(2, 0, 2);
-		captureCorner(CORNER_INDEX_202, XyZ == null ? AIR_FUNCTION : (i, j, k) -> XyZ.getBlockState(i, 14 + j, k));
-
-		final LevelChunkSection XYz = getSection(2, 2, 0);
-		captureCorner(CORNER_INDEX_022, XYz == null ? AIR_FUNCTION : (i, j, k) -> XYz.getBlockState(i, j, 14 + k));
-
-		final LevelChunkSection XYZ = getSection(2, 2, 2);
-		captureCorner(CORNER_INDEX_222, XYZ == null ? AIR_FUNCTION : (i, j, k) -> XYZ.getBlockState(i, j, k));
+		captureCorner(CORNER_INDEX_000, snapshot.section(0, 0, 0), (s, i, j, k) -> s.get(14 + i, 14 + j, 14 + k));
+		captureCorner(CORNER_INDEX_200, snapshot.section(0, 0, 2), (s, i, j, k) -> s.get(14 + i, 14 + j, k));
+		captureCorner(CORNER_INDEX_020, snapshot.section(0, 2, 0), (s, i, j, k) -> s.get(14 + i, j, 14 + k));
+		captureCorner(CORNER_INDEX_220, snapshot.section(0, 2, 2), (s, i, j, k) -> s.get(14 + i, j, k));
+		captureCorner(CORNER_INDEX_002, snapshot.section(2, 0, 0), (s, i, j, k) -> s.get(i, 14 + j, 14 + k));
+		captureCorner(CORNER_INDEX_202, snapshot.section(2, 0, 2), (s, i, j, k) -> s.get(i, 14 + j, k));
+		captureCorner(CORNER_INDEX_022, snapshot.section(2, 2, 0), (s, i, j, k) -> s.get(i, j, 14 + k));
+		captureCorner(CORNER_INDEX_222, snapshot.section(2, 2, 2), (s, i, j, k) -> s.get(i, j, k));
 	}
 
 	private void copyBeData(PackedInputRegion protoRegion) {
@@ -316,33 +291,58 @@ public class InputRegion extends AbstractInputRegion implements BlockAndTintGett
 		final int i = blockIndex(pos.getX(), pos.getY(), pos.getZ());
 
 		if (i == -1) {
-			return world.getBlockState(pos);
+			return snapshotBlockState(pos.getX(), pos.getY(), pos.getZ());
 		}
 
-		return states[i];
+		return stateTable.state(stateIds[i]);
 	}
 
 	public BlockState getBlockState(int x, int y, int z) {
 		final int i = blockIndex(x, y, z);
 
 		if (i == -1) {
-			return world.getBlockState(searchPos.set(x, y, z));
+			return snapshotBlockState(x, y, z);
+		}
+
+		return stateTable.state(stateIds[i]);
+	}
+
+	/**
+	 * For positions outside the padded region. Limited to the 3x3x3 sections
+	 * captured in the snapshot - anything further away is reported as air.
+	 */
+	private BlockState snapshotBlockState(int x, int y, int z) {
+		final int sx = (x >> 4) - chunkBaseX;
+		final int sy = (y >> 4) - (originY >> 4) + 1;
+		final int sz = (z >> 4) - chunkBaseZ;
+
+		if ((sx | sy | sz) < 0 || sx > 2 || sy > 2 || sz > 2) {
+			return AIR;
 		}
 
-		return states[i];
+		final PalettedContainer<BlockState> states = snapshot.section(sx, sy, sz);
+		return states == null ? AIR : states.get(x & 15, y & 15, z & 15);
 	}
 
 	/**
-	 * Assumes values 0-15.
+	 * Accepts any region index, including interior indices 0-4095.
 	 */
-	public BlockState getLocalBlockState(int interiorIndex) {
-		return states[interiorIndex];
+	public BlockState getLocalBlockState(int regionIndex) {
+		return stateTable.state(stateIds[regionIndex]);
+	}
+
+	/**
+	 * {@link BlockStateTable} flags for any region index, including interior indices 0-4095.
+	 */
+	public int getLocalStateFlags(int regionIndex) {
+		return stateTable.flags(stateIds[regionIndex]);
 	}
 
 	@Override
 	@Nullable
 	public BlockEntity getBlockEntity(BlockPos pos) {
-		return isInMainChunk(pos) ? blockEntities[interiorIndex(pos)] : world.getBlockEntity(pos);
+		// block entities outside the main chunk are not captured
+		return isInMainChunk(pos) ? blockEntities[interiorIndex(pos)] : null;
 	}
 
 	@Override
@@ -352,7 +352,12 @@ public class InputRegion extends AbstractInputRegion implements BlockAndTintGett
 
 	@Override
 	public int getBrightness(LightLayer type, BlockPos pos) {
-		return world.getBrightness(type, pos);
+		return snapshot.light.get(type, pos.getX() - (chunkBaseX << 4), pos.getY() - originY + 16, pos.getZ() - (chunkBaseZ << 4));
+	}
+
+	@Override
+	public int getRawBrightness(BlockPos pos, int skyDarkening) {
+		return Math.max(getBrightness(LightLayer.BLOCK, pos), getBrightness(LightLayer.SKY, pos) - skyDarkening);
 	}
 
 	// Implements Fabrics API RenderAttachedBlockView
@@ -365,16 +370,16 @@ public class InputRegion extends AbstractInputRegion implements BlockAndTintGett
 	}
 
 	public int cachedBrightness(int cacheIndex) {
-		int result = lightCache[cacheIndex];
+		int result = lightAoCache[cacheIndex << 1];
 
 		if (result == Integer.MAX_VALUE) {
-			final BlockState state = states[cacheIndex];
+			final BlockState state = getLocalBlockState(cacheIndex);
 			final int packedXyz5 = regionIndexToPackedSectionPos(cacheIndex);
 			final int x = (packedXyz5 & 31) - 2 + originX;
 			final int y = ((packedXyz5 >> 5) & 31) - 2 + originY;
 			final int z = (packedXyz5 >> 10) - 2 + originZ;
-			result = LevelRenderer.getLightColor(world, state, searchPos.set(x, y, z));
-			lightCache[cacheIndex] = result;
+			result = LevelRenderer.getLightColor(this, state, searchPos.set(x, y, z));
+			lightAoCache[cacheIndex << 1] = result;
 		}
 
 		return result;
@@ -384,27 +389,28 @@ public class InputRegion extends AbstractInputRegion implements BlockAndTintGett
 	 * For light smoothing.
 	 */
 	public void setLightCache(int x, int y, int z, int val) {
-		lightCache[blockIndex(x, y, z)] = val;
+		lightAoCache[blockIndex(x, y, z) << 1] = val;
 	}
 
 	public int directBrightness(BlockPos pos) {
-		return LevelRenderer.getLightColor(world, getBlockState(pos), pos);
+		return LevelRenderer.getLightColor(this, getBlockState(pos), pos);
 	}
 
 	// TODO: do anything with this?
 	// Vanilla now computes diffuse shading at chunk bake time and consumes this value in AO calc
 	@Override
 	public float getShade(Direction direction, boolean shaded) {
-		return world.getShade(direction, shaded);
+		return snapshot.shade[shaded ? direction.ordinal() + 6 : direction.ordinal()];
 	}
 
 	public int cachedAoLevel(int cacheIndex) {
-		int result = aoCache[cacheIndex];
+		int result = lightAoCache[(cacheIndex << 1) + 1];
 
 		if (result == Integer.MAX_VALUE) {
-			final BlockState state = states[cacheIndex];
+			final int stateId = stateIds[cacheIndex];
 
-			if (state.getLightEmission() == 0) {
+			if ((stateTable.flags(stateId) & BlockStateTable.EMITS_LIGHT) == 0) {
+				final BlockState state = stateTable.state(stateId);
 				final int packedXyz5 = regionIndexToPackedSectionPos(cacheIndex);
 				final int x = (packedXyz5 & 31) - 2 + originX;
 				final int y = ((packedXyz5 >> 5) & 31) - 2 + originY;
@@ -414,7 +420,7 @@ public class InputRegion extends AbstractInputRegion implements BlockAndTintGett
 				result = 255;
 			}
 
-			aoCache[cacheIndex] = result;
+			lightAoCache[(cacheIndex << 1) + 1] = result;
 		}
 
 		return result;
@@ -422,7 +428,7 @@ public class InputRegion extends AbstractInputRegion implements BlockAndTintGett
 
 	@Override
 	public LevelLightEngine getLightEngine() {
-		return world.getLightEngine();
+		return snapshot.lightEngine;
 	}
 
 	@Override
@@ -433,9 +439,7 @@ public class InputRegion extends AbstractInputRegion implements BlockAndTintGett
 	}
 
 	public Biome getBiome(BlockPos blockPos) {
-		final int x = blockPos.getX();
-		final int z = blockPos.getZ();
-		return ChunkColorCache.get(getChunk(x >> 4, z >> 4)).getBiome(x, blockPos.getY(), z);
+		return snapshot.biomeManager.getBiome(blockPos).value();
 	}
 
 	/**
@@ -459,11 +463,11 @@ public class InputRegion extends AbstractInputRegion implements BlockAndTintGett
 
 	@Override
 	public int getHeight() {
-		return world.getHeight();
+		return snapshot.height;
 	}
 
 	@Override
 	public int getMinBuildHeight() {
-		return world.getMinBuildHeight();
+		return snapshot.minBuildHeight;
 	}
 }
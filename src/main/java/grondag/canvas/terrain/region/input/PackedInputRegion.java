@@ -23,6 +23,7 @@ package grondag.canvas.terrain.region.input;
 import static grondag.canvas.terrain.util.RenderRegionStateIndexer.EXTERIOR_STATE_COUNT;
 import static grondag.canvas.terrain.util.RenderRegionStateIndexer.interiorIndex;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 
@@ -31,9 +32,14 @@ import it.unimi.dsi.fastutil.shorts.ShortArrayList;
 
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.biome.BiomeManager;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.lighting.LevelLightEngine;
 
 import io.vram.frex.api.world.BlockEntityRenderData;
 import io.vram.frex.api.world.RenderRegionBakeListener;
@@ -45,6 +51,11 @@ import grondag.canvas.perf.ChunkRebuildCounters;
  * Serves as a container to capture world state data on the main thread as quickly as possible
  * for later consumption on possibly non-render threads for terrain render region rebuild.
  *
+ * <p>Everything a build reads is copied here: block states, block and sky light and
+ * noise biomes for the 3x3x3 sections around the region, plus the few level properties
+ * exposed through {@link net.minecraft.world.level.BlockAndTintGetter}. Copies are
+ * immutable once claimed, so builds need no access to the live world.
+ *
  * <p>Also serves as a state indicator for rebuild activity.
  */
 public class PackedInputRegion extends AbstractInputRegion {
@@ -58,6 +69,19 @@ public class PackedInputRegion extends AbstractInputRegion {
 	final ObjectArrayList<Object> renderData = new ObjectArrayList<>();
 	final ShortArrayList blockEntityPos = new ShortArrayList();
 
+	/** Copies of 3x3x3 section block states, indexed x + y * 3 + z * 9. Null if missing or empty. */
+	@SuppressWarnings("unchecked")
+	final PalettedContainer<BlockState>[] sectionStates = new PalettedContainer[27];
+	final RegionLightSnapshot light = new RegionLightSnapshot();
+	final RegionBiomeSnapshot biomes = new RegionBiomeSnapshot();
+	/** Shade by direction ordinal, unshaded values first. */
+	final float[] shade = new float[12];
+	BiomeManager biomeManager;
+	/** Retained only to satisfy {@link net.minecraft.world.level.BlockAndTintGetter#getLightEngine()}. */
+	LevelLightEngine lightEngine;
+	int height;
+	int minBuildHeight;
+
 	public static PackedInputRegion claim(ClientLevel world, BlockPos origin) {
 		final PackedInputRegion result = POOL.poll();
 		return (result == null ? new PackedInputRegion() : result).prepare(world, origin);
@@ -77,8 +101,6 @@ public class PackedInputRegion extends AbstractInputRegion {
 			ChunkRebuildCounters.startCopy();
 		}
 
-		this.world = world;
-
 		final int originX = origin.getX();
 		final int originY = origin.getY();
 		final int originZ = origin.getZ();
@@ -116,6 +138,7 @@ public class PackedInputRegion extends AbstractInputRegion {
 			chunks[2 | (0 << 2)] = world.getChunk(chunkBaseX + 2, chunkBaseZ + 0);
 			chunks[2 | (1 << 2)] = world.getChunk(chunkBaseX + 2, chunkBaseZ + 1);
 			chunks[2 | (2 << 2)] = world.getChunk(chunkBaseX + 2, chunkBaseZ + 2);
+			captureSnapshot(world);
 
 			result = this;
 		}
@@ -127,6 +150,37 @@ public class PackedInputRegion extends AbstractInputRegion {
 		return result;
 	}
 
+	private void captureSnapshot(ClientLevel world) {
+		final int sectionX = chunkBaseX;
+		final int sectionY = (originY >> 4) - 1;
+		final int sectionZ = chunkBaseZ;
+
+		for (int i = 0; i < 27; ++i) {
+			final LevelChunkSection[] sections = chunks[(i % 3) | ((i / 9) << 2)].getSections();
+			final int sectionIndex = baseSectionIndex + (i / 3) % 3;
+			final LevelChunkSection section = sectionIndex < 0 || sectionIndex >= sections.length ? null : sections[sectionIndex];
+			sectionStates[i] = section == null || section.hasOnlyAir() ? null : section.getStates().copy();
+		}
+
+		lightEngine = world.getLightEngine();
+		light.capture(lightEngine, sectionX, sectionY, sectionZ);
+		biomes.capture(chunks, baseSectionIndex, sectionX, sectionY, sectionZ);
+		biomeManager = world.getBiomeManager().withDifferentSource(biomes);
+
+		for (final Direction face : Direction.values()) {
+			shade[face.ordinal()] = world.getShade(face, false);
+			shade[face.ordinal() + 6] = world.getShade(face, true);
+		}
+
+		height = world.getHeight();
+		minBuildHeight = world.getMinBuildHeight();
+	}
+
+	/** Section-relative offsets, 0-2. */
+	PalettedContainer<BlockState> section(int x, int y, int z) {
+		return sectionStates[x + y * 3 + z * 9];
+	}
+
 	private void captureBlockEntities(LevelChunk mainChunk) {
 		renderDataPos.clear();
 		renderData.clear();
@@ -166,6 +220,11 @@ public class PackedInputRegion extends AbstractInputRegion {
 
 		blockEntities.clear();
 		renderData.clear();
+		Arrays.fill(sectionStates, null);
+		light.clear();
+		biomes.clear();
+		biomeManager = null;
+		lightEngine = null;
 
 		release(this);
 	}
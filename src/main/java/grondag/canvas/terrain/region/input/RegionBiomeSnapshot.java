@@ -0,0 +1,78 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.terrain.region.input;
+
+import net.minecraft.core.Holder;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.BiomeManager;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.chunk.PalettedContainerRO;
+
+/**
+ * Copy of the noise biomes for the 3x3x3 sections around a render region,
+ * captured on the main thread. Positions outside the captured volume are
+ * clamped to it, as vanilla chunks clamp vertically.
+ */
+class RegionBiomeSnapshot implements BiomeManager.NoiseBiomeSource {
+	private static final int SECTION_COUNT = 27;
+
+	@SuppressWarnings("unchecked")
+	private final PalettedContainerRO<Holder<Biome>>[] biomes = new PalettedContainerRO[SECTION_COUNT];
+	private int quartX;
+	private int quartY;
+	private int quartZ;
+
+	/**
+	 * Main thread only.
+	 *
+	 * @param chunks 3x3 chunks, indexed x | (z << 2).
+	 * @param baseSectionIndex Index within each chunk of the lowest captured section. May be out of range.
+	 */
+	void capture(LevelChunk[] chunks, int baseSectionIndex, int sectionX, int sectionY, int sectionZ) {
+		quartX = sectionX << 2;
+		quartY = sectionY << 2;
+		quartZ = sectionZ << 2;
+
+		for (int i = 0; i < SECTION_COUNT; ++i) {
+			final LevelChunkSection[] sections = chunks[(i % 3) | ((i / 9) << 2)].getSections();
+			final int sectionIndex = Mth.clamp(baseSectionIndex + (i / 3) % 3, 0, sections.length - 1);
+			final PalettedContainerRO<Holder<Biome>> source = sections[sectionIndex].getBiomes();
+			biomes[i] = source instanceof PalettedContainer<Holder<Biome>> container ? container.copy() : source;
+		}
+	}
+
+	void clear() {
+		for (int i = 0; i < SECTION_COUNT; ++i) {
+			biomes[i] = null;
+		}
+	}
+
+	@Override
+	public Holder<Biome> getNoiseBiome(int x, int y, int z) {
+		x = Mth.clamp(x - quartX, 0, 11);
+		y = Mth.clamp(y - quartY, 0, 11);
+		z = Mth.clamp(z - quartZ, 0, 11);
+		return biomes[(x >> 2) + (y >> 2) * 3 + (z >> 2) * 9].get(x & 3, y & 3, z & 3);
+	}
+}
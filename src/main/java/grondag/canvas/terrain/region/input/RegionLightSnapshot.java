@@ -0,0 +1,68 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.terrain.region.input;
+
+import java.util.Arrays;
+
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.lighting.LevelLightEngine;
+
+/**
+ * Block and sky light for the 3x3x3 sections around a render region, captured
+ * on the main thread so builds never read the live light engine. Section data
+ * is shared with other snapshots through {@link SectionLightCache}.
+ *
+ * <p>Coordinates passed to {@link #get(LightLayer, int, int, int)} are relative
+ * to the minimum corner of the captured volume and are clamped to it.
+ */
+class RegionLightSnapshot {
+	private static final int SECTION_COUNT = 27;
+
+	private final SectionLight[] blockLight = new SectionLight[SECTION_COUNT];
+	private final SectionLight[] skyLight = new SectionLight[SECTION_COUNT];
+
+	/** Main thread only. Section coordinates are of the minimum corner. */
+	void capture(LevelLightEngine lightEngine, int sectionX, int sectionY, int sectionZ) {
+		for (int i = 0; i < SECTION_COUNT; ++i) {
+			final int x = sectionX + i % 3;
+			final int y = sectionY + (i / 3) % 3;
+			final int z = sectionZ + i / 9;
+			blockLight[i] = SectionLightCache.blockLight(lightEngine, x, y, z);
+			skyLight[i] = SectionLightCache.skyLight(lightEngine, x, y, z);
+		}
+	}
+
+	void clear() {
+		Arrays.fill(blockLight, null);
+		Arrays.fill(skyLight, null);
+	}
+
+	int get(LightLayer layer, int x, int y, int z) {
+		x = Mth.clamp(x, 0, 47);
+		y = Mth.clamp(y, 0, 47);
+		z = Mth.clamp(z, 0, 47);
+
+		final int index = (x >> 4) + (y >> 4) * 3 + (z >> 4) * 9;
+		final SectionLight light = layer == LightLayer.SKY ? skyLight[index] : blockLight[index];
+		return light.get(x & 15, y & 15, z & 15);
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.terrain.region.input;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable light values for one layer of one section. Instances are shared
+ * by every region snapshot that includes the section until the section's light
+ * changes, so must never be modified after construction.
+ */
+final class SectionLight {
+	static final int NIBBLE_BYTES = 2048;
+	static final SectionLight ZERO = new SectionLight(null, 0, false);
+	static final SectionLight FULL = new SectionLight(null, 15, false);
+
+	/** Vanilla nibble layout, y << 8 | z << 4 | x. Null if all values are equal. */
+	private final @Nullable byte[] data;
+	private final int value;
+
+	/**
+	 * True for sky light of sections without light data. Such values are read
+	 * from the nearest section above that has data, so they become stale when
+	 * any section above changes.
+	 */
+	final boolean isDerived;
+
+	private SectionLight(@Nullable byte[] data, int value, boolean isDerived) {
+		this.data = data;
+		this.value = value;
+		this.isDerived = isDerived;
+	}
+
+	static SectionLight of(byte[] data, boolean isDerived) {
+		return new SectionLight(data, 0, isDerived);
+	}
+
+	static SectionLight uniform(int value, boolean isDerived) {
+		if (!isDerived) {
+			if (value == 0) {
+				return ZERO;
+			} else if (value == 15) {
+				return FULL;
+			}
+		}
+
+		return new SectionLight(null, value, isDerived);
+	}
+
+	/** Section-relative coordinates, 0-15. */
+	int get(int x, int y, int z) {
+		final byte[] data = this.data;
+
+		if (data == null) {
+			return value;
+		}
+
+		final int nibbleIndex = (y << 8) | (z << 4) | x;
+		return (data[nibbleIndex >> 1] >> ((nibbleIndex & 1) << 2)) & 15;
+	}
+}
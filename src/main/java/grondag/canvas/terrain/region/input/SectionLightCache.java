@@ -0,0 +1,174 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.terrain.region.input;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.chunk.DataLayer;
+import net.minecraft.world.level.lighting.LayerLightEventListener;
+import net.minecraft.world.level.lighting.LevelLightEngine;
+
+/**
+ * Shares copies of section light data between region snapshots so that
+ * neighboring regions don't each copy the same sections, and sky light for
+ * sections without data doesn't have to be resolved through the light engine
+ * for every rebuild.
+ *
+ * <p>Entries are dropped when a section is marked dirty, which vanilla does for
+ * every light engine update and every light packet, and the whole cache is cleared
+ * on renderer reload. Least recently used entries are evicted beyond a fixed size.
+ *
+ * <p>Main thread only. The {@link SectionLight} instances handed out are immutable
+ * and safe to read from any thread.
+ */
+public final class SectionLightCache {
+	/** Per layer. Each entry with data holds 2KB. */
+	private static final int MAX_ENTRIES = 4096;
+
+	private static final Long2ObjectLinkedOpenHashMap<SectionLight> BLOCK = new Long2ObjectLinkedOpenHashMap<>();
+	private static final Long2ObjectLinkedOpenHashMap<SectionLight> SKY = new Long2ObjectLinkedOpenHashMap<>();
+	private static final BlockPos.MutableBlockPos SEARCH_POS = new BlockPos.MutableBlockPos();
+	private static final int[] COLUMN_VALUES = new int[256];
+
+	private SectionLightCache() { }
+
+	static SectionLight blockLight(LevelLightEngine lightEngine, int x, int y, int z) {
+		final long key = SectionPos.asLong(x, y, z);
+		SectionLight result = BLOCK.getAndMoveToLast(key);
+
+		if (result == null) {
+			result = copyLayer(lightEngine.getLayerListener(LightLayer.BLOCK).getDataLayerData(SectionPos.of(x, y, z)));
+			put(BLOCK, key, result);
+		}
+
+		return result;
+	}
+
+	static SectionLight skyLight(LevelLightEngine lightEngine, int x, int y, int z) {
+		final long key = SectionPos.asLong(x, y, z);
+		SectionLight result = SKY.getAndMoveToLast(key);
+
+		if (result == null) {
+			final LayerLightEventListener listener = lightEngine.getLayerListener(LightLayer.SKY);
+			final SectionPos sectionPos = SectionPos.of(x, y, z);
+			final DataLayer layer = listener.getDataLayerData(sectionPos);
+			result = layer == null ? deriveSkyLight(listener, sectionPos) : copyLayer(layer);
+			put(SKY, key, result);
+		}
+
+		return result;
+	}
+
+	private static void put(Long2ObjectLinkedOpenHashMap<SectionLight> map, long key, SectionLight light) {
+		map.put(key, light);
+
+		if (map.size() > MAX_ENTRIES) {
+			map.removeFirst();
+		}
+	}
+
+	private static SectionLight copyLayer(@Nullable DataLayer layer) {
+		if (layer == null || layer.isEmpty()) {
+			return SectionLight.ZERO;
+		}
+
+		final byte[] source = layer.getData();
+		final byte first = source[0];
+
+		// both nibbles equal in every byte means the section has a single value
+		if (first == (byte) ((first & 15) * 17)) {
+			int i = 1;
+
+			while (i < SectionLight.NIBBLE_BYTES && source[i] == first) {
+				++i;
+			}
+
+			if (i == SectionLight.NIBBLE_BYTES) {
+				return SectionLight.uniform(first & 15, false);
+			}
+		}
+
+		return SectionLight.of(source.clone(), false);
+	}
+
+	/** Vanilla uses the bottom layer of the nearest section above with data, so values are constant in each column. */
+	private static SectionLight deriveSkyLight(LayerLightEventListener listener, SectionPos sectionPos) {
+		final int minX = sectionPos.minBlockX();
+		final int minY = sectionPos.minBlockY();
+		final int minZ = sectionPos.minBlockZ();
+		final int[] columnValues = COLUMN_VALUES;
+		boolean isUniform = true;
+
+		for (int n = 0; n < 256; ++n) {
+			columnValues[n] = listener.getLightValue(SEARCH_POS.set(minX + (n & 15), minY, minZ + (n >> 4)));
+			isUniform &= columnValues[n] == columnValues[0];
+		}
+
+		if (isUniform) {
+			return SectionLight.uniform(columnValues[0], true);
+		}
+
+		final byte[] data = new byte[SectionLight.NIBBLE_BYTES];
+
+		// nibble index is y << 8 | z << 4 | x so each y layer is the same 128 bytes
+		for (int n = 0; n < 256; n += 2) {
+			data[n >> 1] = (byte) (columnValues[n] | (columnValues[n + 1] << 4));
+		}
+
+		for (int y = 1; y < 16; ++y) {
+			System.arraycopy(data, 0, data, y << 7, 128);
+		}
+
+		return SectionLight.of(data, true);
+	}
+
+	/**
+	 * Call when a section is marked dirty. Also drops derived sky light of
+	 * sections below, which may have been read from this one.
+	 */
+	public static void invalidate(int x, int y, int z, int minSectionY) {
+		BLOCK.remove(SectionPos.asLong(x, y, z));
+		SKY.remove(SectionPos.asLong(x, y, z));
+
+		for (int below = y - 1; below >= minSectionY; --below) {
+			final long key = SectionPos.asLong(x, below, z);
+			final SectionLight light = SKY.get(key);
+
+			if (light != null) {
+				if (!light.isDerived) {
+					// sections further down read from this one or its own source
+					break;
+				}
+
+				SKY.remove(key);
+			}
+		}
+	}
+
+	public static void clear() {
+		BLOCK.clear();
+		SKY.clear();
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.terrain.region.input;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.util.BitStorage;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.GlobalPalette;
+import net.minecraft.world.level.chunk.Palette;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+import grondag.canvas.terrain.util.BlockStateTable;
+
+/**
+ * Reads global block state ids directly from the palette and packed bit storage of a
+ * section state container, bypassing the per-call storage decode and palette
+ * dispatch of {@link PalettedContainer#get(int, int, int)}.
+ *
+ * <p>Local palettes are resolved once per section into a flat array of global
+ * ids. Storage values of sections using the global palette are already global
+ * ids. Sections that hold a single state (including missing and all-air sections)
+ * are reported by {@link #load(PalettedContainer)} so callers can fill instead of read.
+ *
+ * <p>Relies on the 1.16+ storage layout: entries never span two longs and
+ * container index is {@code (y << 8) | (z << 4) | x}. Not thread-safe; one
+ * instance per input region.
+ */
+class SectionStateReader {
+	/** Returned by {@link #load(PalettedContainer)} when the section has more than one state. */
+	static final int MIXED = -1;
+
+	/** Linear and hash map palettes never exceed 8 bits. */
+	private static final int MAX_LOCAL_PALETTE_SIZE = 256;
+
+	private final int[] localPalette = new int[MAX_LOCAL_PALETTE_SIZE];
+	private boolean hasLocalPalette;
+	private long[] raw;
+	private int bits;
+	private int valuesPerLong;
+	private int mask;
+
+	/**
+	 * Prepares to read the given section states. Null is treated as a section of air.
+	 *
+	 * @return Id of the only state present if the section is missing or uniform, {@link #MIXED} otherwise.
+	 * Unless the result is {@link #MIXED}, {@link #get(int, int, int)} and {@link #copyInterior(int[])} must not be used.
+	 */
+	int load(@Nullable PalettedContainer<BlockState> states) {
+		if (states == null) {
+			// air is always id zero
+			return 0;
+		}
+
+		// single volatile read so palette and storage are consistent with each other
+		final PalettedContainer.Data<BlockState> data = states.data;
+		final Palette<BlockState> palette = data.palette();
+		final BitStorage storage = data.storage();
+		final int paletteSize = palette.getSize();
+
+		if (storage.getBits() == 0 || paletteSize == 1) {
+			return BlockStateTable.id(palette.valueFor(0));
+		}
+
+		raw = storage.getRaw();
+		bits = storage.getBits();
+		valuesPerLong = 64 / bits;
+		mask = (1 << bits) - 1;
+		hasLocalPalette = !(palette instanceof GlobalPalette);
+
+		if (hasLocalPalette) {
+			final int limit = Math.min(paletteSize, MAX_LOCAL_PALETTE_SIZE);
+
+			for (int i = 0; i < limit; ++i) {
+				localPalette[i] = BlockStateTable.id(palette.valueFor(i));
+			}
+		}
+
+		return MIXED;
+	}
+
+	private int globalId(int paletteId) {
+		return hasLocalPalette ? localPalette[paletteId] : paletteId;
+	}
+
+	/** Section-relative coordinates, 0-15. Returns global state id. */
+	int get(int x, int y, int z) {
+		final int index = (y << 8) | (z << 4) | x;
+		final int cell = index / valuesPerLong;
+		final int shift = (index - cell * valuesPerLong) * bits;
+		return globalId((int) (raw[cell] >>> shift) & mask);
+	}
+
+	/**
+	 * Decodes every entry of the loaded section into the first 4096 elements of target,
+	 * which must be in interior index order ({@code x | y << 4 | z << 8}).
+	 * Walks the packed longs once, in storage order.
+	 */
+	void copyInterior(int[] target) {
+		final long[] raw = this.raw;
+		final int bits = this.bits;
+		final int valuesPerLong = this.valuesPerLong;
+		final int mask = this.mask;
+		int index = 0;
+
+		for (int cell = 0; index < 4096; ++cell) {
+			long word = raw[cell];
+			final int limit = Math.min(4096, index + valuesPerLong);
+
+			while (index < limit) {
+				// storage is y, z, x major to minor - interior is z, y, x
+				final int interiorIndex = (index & 0xF) | ((index >> 4) & 0xF) << 8 | (index >> 8) << 4;
+				target[interiorIndex] = globalId((int) word & mask);
+				word >>>= bits;
+				++index;
+			}
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.terrain.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.RenderShape;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * Flat lookup of every registered block state by global palette id, with a
+ * precomputed flag word per state so region capture, occlusion and AO passes
+ * can test common properties without dereferencing the state.
+ *
+ * <p>Ids can be remapped by registry sync when joining a server, so the table
+ * is discarded on renderer reload and rebuilt on next use.
+ */
+public final class BlockStateTable {
+	/** Render shape is not invisible or the state has a fluid. Candidates for rendering and occlusion. */
+	public static final int RENDERS = 1;
+	/** Render shape is {@link RenderShape#MODEL}. */
+	public static final int HAS_MODEL = 2;
+	public static final int HAS_FLUID = 4;
+	public static final int EMITS_LIGHT = 8;
+	/** Solid render regardless of position. Never set with {@link #DYNAMIC_OPACITY}. */
+	public static final int OPAQUE = 16;
+	/** Block has a dynamic shape so opacity must be checked in the world. */
+	public static final int DYNAMIC_OPACITY = 32;
+	public static final int WHITE_GLASS = 64;
+
+	private static volatile @Nullable BlockStateTable current;
+
+	private final BlockState[] states;
+	private final int[] flags;
+
+	private BlockStateTable() {
+		final int size = Block.BLOCK_STATE_REGISTRY.size();
+		states = new BlockState[size];
+		flags = new int[size];
+
+		for (int id = 0; id < size; ++id) {
+			final BlockState state = Block.BLOCK_STATE_REGISTRY.byId(id);
+			states[id] = state;
+			flags[id] = state == null ? 0 : computeFlags(state);
+		}
+	}
+
+	private static int computeFlags(BlockState state) {
+		int result = 0;
+		final boolean hasFluid = !state.getFluidState().isEmpty();
+		final RenderShape shape = state.getRenderShape();
+
+		if (shape != RenderShape.INVISIBLE || hasFluid) {
+			result |= RENDERS;
+		}
+
+		if (shape == RenderShape.MODEL) {
+			result |= HAS_MODEL;
+		}
+
+		if (hasFluid) {
+			result |= HAS_FLUID;
+		}
+
+		if (state.getLightEmission() != 0) {
+			result |= EMITS_LIGHT;
+		}
+
+		// states without a dynamic shape answer from a position-independent cache
+		if (state.hasDynamicShape()) {
+			result |= DYNAMIC_OPACITY;
+		} else if (state.isSolidRender(EmptyBlockGetter.INSTANCE, BlockPos.ZERO)) {
+			result |= OPAQUE;
+		}
+
+		if (state.getBlock() == Blocks.WHITE_STAINED_GLASS) {
+			result |= WHITE_GLASS;
+		}
+
+		return result;
+	}
+
+	/** Table for the current id mapping, built if needed. Callers should hold the result for the duration of a pass. */
+	public static BlockStateTable get() {
+		BlockStateTable result = current;
+
+		if (result == null) {
+			result = new BlockStateTable();
+			current = result;
+		}
+
+		return result;
+	}
+
+	public static void reload() {
+		current = null;
+	}
+
+	/** Global palette id of the state, or zero (air) if not registered. */
+	public static int id(@Nullable BlockState state) {
+		final int result = Block.BLOCK_STATE_REGISTRY.getId(state);
+		return result < 0 ? 0 : result;
+	}
+
+	public BlockState state(int id) {
+		return states[id];
+	}
+
+	public int flags(int id) {
+		return flags[id];
+	}
+}
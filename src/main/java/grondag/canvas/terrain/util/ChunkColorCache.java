@@ -106,28 +106,30 @@ public class ChunkColorCache implements BiomeManager.NoiseBiomeSource {
 		}
 	}
 
+	/**
+	 * Base colors are computed per column on demand. Blended colors for the whole
+	 * chunk are computed together on first use with a separable box blur: running
+	 * sums along x over a base color grid padded by the blend radius, then running
+	 * sums of those along z. Cost per column is constant regardless of radius.
+	 */
 	private class BiomeColorCache {
 		private static final int BASE_INDEX = 0;
 		private static final int BASE_CONTROL = BASE_INDEX + 256;
-		private static final int BLENDED_INDEX = BASE_CONTROL + 8;
-		private static final int BLENDED_CONTROL = BLENDED_INDEX + 256;
 		private final ColorResolver colorResolver;
 		private final Function<ChunkColorCache, BiomeColorCache> cacheFunc;
-		private final int[] data = new int[512 + 16];
+		private final int[] data = new int[256 + 8];
+		private volatile int[] blended;
 
 		private BiomeColorCache(ColorResolver colorResolver, Function<ChunkColorCache, BiomeColorCache> cacheFunc) {
 			this.colorResolver = colorResolver;
 			this.cacheFunc = cacheFunc;
 		}
 
-		private int getBaseColor(int x, int y, int z) {
-			final int cx = x >> 4;
-			final int cz = z >> 4;
-
+		private BiomeColorCache cacheForChunk(int cx, int cz) {
 			if (cx == chunkX && cz == chunkZ) {
-				return getLocalBaseColor(x, y, z);
+				return this;
 			} else {
-				return cacheFunc.apply(get(world.getChunk(cx, cz))).getLocalBaseColor(x, y, z);
+				return cacheFunc.apply(get(world.getChunk(cx, cz)));
 			}
 		}
 
@@ -151,56 +153,116 @@ public class ChunkColorCache implements BiomeManager.NoiseBiomeSource {
 		}
 
 		private int getColor(int x, int y, int z) {
-			final int cx = x >> 4;
-			final int cz = z >> 4;
-
-			if (cx == chunkX && cz == chunkZ) {
-				return getLocalBlendedColor(x, y, z);
-			} else {
-				return cacheFunc.apply(get(world.getChunk(cx, cz))).getLocalBlendedColor(x, y, z);
-			}
+			return cacheForChunk(x >> 4, z >> 4).blendedColors(y)[(x & 0xF) | ((z & 0xF) << 4)];
 		}
 
-		private int getLocalBlendedColor(int x, int y, int z) {
-			final int index = (x & 0xF) | ((z & 0xF) << 4);
-			final int controlIndex = BLENDED_CONTROL + (index >> 5);
-			final int controlMask = 1 << (index & 31);
+		private int[] blendedColors(int y) {
+			int[] result = blended;
 
-			if ((data[controlIndex] & controlMask) == 0) {
-				final int result = computeLocalBlendedColor(x, y, z);
-				data[controlIndex] |= controlMask;
-				data[index + BLENDED_INDEX] = result;
-				return result;
-			} else {
-				return data[index + BLENDED_INDEX];
+			if (result == null) {
+				result = computeBlendedColors(y);
+				blended = result;
 			}
+
+			return result;
 		}
 
-		private int computeLocalBlendedColor(int xIn, int yIn, int zIn) {
+		private int[] computeBlendedColors(int y) {
 			final int radius = mc.options.biomeBlendRadius().get();
+			final int minX = chunkX << 4;
+			final int minZ = chunkZ << 4;
+			final int[] result = new int[256];
 
 			if (radius == 0) {
-				return getLocalBaseColor(xIn, yIn, zIn);
-			} else {
-				final int sampleCount = (radius * 2 + 1) * (radius * 2 + 1);
+				for (int i = 0; i < 256; ++i) {
+					result[i] = getLocalBaseColor(minX + (i & 0xF), y, minZ + (i >> 4));
+				}
+
+				return result;
+			}
+
+			final int window = radius * 2 + 1;
+			final int diameter = 16 + radius * 2;
+			// neighbor caches are resolved once per pass instead of once per sample
+			final BiomeColorCache[] caches = new BiomeColorCache[9];
+			final int[] lineR = new int[diameter];
+			final int[] lineG = new int[diameter];
+			final int[] lineB = new int[diameter];
+			final int[] rowR = new int[diameter * 16];
+			final int[] rowG = new int[diameter * 16];
+			final int[] rowB = new int[diameter * 16];
+
+			for (int pz = 0; pz < diameter; ++pz) {
+				final int z = minZ - radius + pz;
+
+				for (int px = 0; px < diameter; ++px) {
+					final int x = minX - radius + px;
+					final int cacheIndex = ((x >> 4) - chunkX + 1) + ((z >> 4) - chunkZ + 1) * 3;
+					BiomeColorCache cache = caches[cacheIndex];
+
+					if (cache == null) {
+						cache = cacheForChunk(x >> 4, z >> 4);
+						caches[cacheIndex] = cache;
+					}
+
+					final int color = cache.getLocalBaseColor(x, y, z);
+					lineR[px] = (color >> 16) & 255;
+					lineG[px] = (color >> 8) & 255;
+					lineB[px] = color & 255;
+				}
+
 				int r = 0;
 				int g = 0;
 				int b = 0;
 
-				final int xMax = xIn + radius;
-				final int zMax = zIn + radius;
+				for (int px = 0; px < window; ++px) {
+					r += lineR[px];
+					g += lineG[px];
+					b += lineB[px];
+				}
+
+				final int rowBase = pz * 16;
 
-				for (int x = xIn - radius; x <= xMax; x++) {
-					for (int z = zIn - radius; z <= zMax; z++) {
-						final int color = getBaseColor(x, yIn, z);
-						g += (color >> 8) & 255;
-						r += (color >> 16) & 255;
-						b += color & 255;
+				for (int x = 0; x < 16; ++x) {
+					if (x > 0) {
+						r += lineR[x + window - 1] - lineR[x - 1];
+						g += lineG[x + window - 1] - lineG[x - 1];
+						b += lineB[x + window - 1] - lineB[x - 1];
 					}
+
+					rowR[rowBase + x] = r;
+					rowG[rowBase + x] = g;
+					rowB[rowBase + x] = b;
+				}
+			}
+
+			final int sampleCount = window * window;
+
+			for (int x = 0; x < 16; ++x) {
+				int r = 0;
+				int g = 0;
+				int b = 0;
+
+				for (int pz = 0; pz < window; ++pz) {
+					r += rowR[pz * 16 + x];
+					g += rowG[pz * 16 + x];
+					b += rowB[pz * 16 + x];
 				}
 
-				return (r / sampleCount & 255) << 16 | (g / sampleCount & 255) << 8 | b / sampleCount & 255;
+				for (int z = 0; z < 16; ++z) {
+					if (z > 0) {
+						final int add = (z + window - 1) * 16 + x;
+						final int remove = (z - 1) * 16 + x;
+						r += rowR[add] - rowR[remove];
+						g += rowG[add] - rowG[remove];
+						b += rowB[add] - rowB[remove];
+					}
+
+					result[x | (z << 4)] = (r / sampleCount & 255) << 16 | (g / sampleCount & 255) << 8 | b / sampleCount & 255;
+				}
 			}
+
+			return result;
 		}
 	}
 }
@@ -20,10 +20,8 @@
 
 package grondag.canvas.terrain.util;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.AbstractExecutorService;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -39,31 +37,27 @@ import grondag.canvas.apiimpl.rendercontext.CanvasTerrainRenderContext;
  * and privileged tasks run in order of submission.
  */
 public class DedicatedTerrainExecutor extends AbstractExecutorService implements TerrainExecutor {
-	private final PriorityBlockingQueue<TerrainExecutorTask> queue = new PriorityBlockingQueue<>(1024, new Comparator<TerrainExecutorTask>() {
-		@Override
-		public int compare(TerrainExecutorTask o1, TerrainExecutorTask o2) {
-			return Integer.compare(o1.priority(), o2.priority());
-		}
-	});
+	private final TerrainTaskQueue queue = new TerrainTaskQueue(1024);
 
 	private final int poolSize = threadCount();
 
 	private final ImmutableList<Worker> workers;
+	private final TerrainWorkerController controller = new TerrainWorkerController(poolSize);
 
 	private final AtomicInteger renderTaskCount = new AtomicInteger();
 	private int lastRenderTaskCount;
 	private long nextTime;
-	private String report = "";
+	private String report0 = "", report1 = "", report2 = "";
 
 	DedicatedTerrainExecutor() {
 		final ImmutableList.Builder<Worker> builder = ImmutableList.builder();
 
 		for (int i = 0; i < poolSize; i++) {
-			final Worker w = new Worker();
+			final Worker w = new Worker(i);
 			builder.add(w);
 
 			final Thread thread = new Thread(
-					new Worker(),
+					w,
 					"Canvas Render Thread - " + i);
 			thread.setDaemon(true);
 			thread.start();
@@ -96,17 +90,36 @@ public class DedicatedTerrainExecutor extends AbstractExecutorService implements
 		return queue.isEmpty();
 	}
 
+	@Override
+	public void invalidatePriorities() {
+		queue.invalidatePriorities();
+	}
+
+	@Override
+	public void updateWorkerCount(long frameBudgetNanos) {
+		controller.update(queue.size(), frameBudgetNanos);
+	}
+
 	private class Worker implements Runnable {
+		private final int index;
 		private CanvasTerrainRenderContext context = new CanvasTerrainRenderContext();
 
+		private Worker(int index) {
+			this.index = index;
+		}
+
 		@Override
 		public void run() {
 			while (true) {
 				try {
+					controller.awaitActive(index);
 					final TerrainExecutorTask t = queue.take();
 
-					if (t != null) {
-						t.run(context);
+					// Deactivated while waiting - return the task for an active worker and park
+					if (t != null && !controller.isActive(index)) {
+						queue.add(t);
+					} else if (t != null) {
+						controller.runTask(t, context);
 					}
 				} catch (final InterruptedException e) {
 					// NOOP
@@ -129,11 +142,15 @@ public class DedicatedTerrainExecutor extends AbstractExecutorService implements
 		if (newTime > nextTime) {
 			nextTime = newTime + 1000;
 			final int newRenderCount = renderTaskCount.get();
-			report = String.format("Render tasks: %d rate: %d", queue.size(), newRenderCount - lastRenderTaskCount);
+			report0 = String.format("Render tasks: %d rate: %d", queue.size(), newRenderCount - lastRenderTaskCount);
+			report1 = queue.rekeyReport();
+			report2 = controller.debugReport();
 			lastRenderTaskCount = newRenderCount;
 		}
 
-		target.add(report);
+		target.add(report0);
+		target.add(report1);
+		target.add(report2);
 	}
 
 	@Override
@@ -21,11 +21,9 @@
 package grondag.canvas.terrain.util;
 
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -40,17 +38,17 @@ import grondag.canvas.apiimpl.rendercontext.CanvasTerrainRenderContext;
  * and privileged tasks run in order of submission.
  */
 public class SharedTerrainExecutor extends AbstractExecutorService implements TerrainExecutor {
-	private final PriorityBlockingQueue<TerrainExecutorTask> renderQueue = new PriorityBlockingQueue<>(4096, new Comparator<TerrainExecutorTask>() {
-		@Override
-		public int compare(TerrainExecutorTask o1, TerrainExecutorTask o2) {
-			return Integer.compare(o1.priority(), o2.priority());
-		}
-	});
+	/** How long an inactive mixed worker waits for server work before checking whether it has been reactivated. */
+	private static final long INACTIVE_POLL_MILLIS = 50;
+
+	private final TerrainTaskQueue renderQueue = new TerrainTaskQueue(4096);
 
 	private final LinkedBlockingQueue<Runnable> serverQueue = new LinkedBlockingQueue<>();
 
 	private final int poolSize = threadCount();
 	private final Semaphore mixedSignal = new Semaphore(poolSize - 2);
+	/** Covers the render thread (index 0) and the mixed threads. The server thread never takes render tasks. */
+	private final TerrainWorkerController controller = new TerrainWorkerController(poolSize - 1);
 
 	private final AtomicInteger renderTaskCount = new AtomicInteger();
 	private final AtomicInteger serverTaskCount = new AtomicInteger();
@@ -59,13 +57,13 @@ public class SharedTerrainExecutor extends AbstractExecutorService implements Te
 	private int lastRenderTaskCount;
 	private int lastServerTaskCount;
 	private long nextTime;
-	private String report0 = "", report1 = "";
+	private String report0 = "", report1 = "", report2 = "", report3 = "";
 	private boolean isShutdown = false;
 
 	SharedTerrainExecutor() {
 		assert poolSize >= 4;
 
-		final RenderWorker renderWorker = new RenderWorker();
+		final RenderWorker renderWorker = new RenderWorker(0);
 		final Thread rederThread = new Thread(renderWorker, "Canvas Render Thread");
 		rederThread.setDaemon(true);
 		rederThread.start();
@@ -78,7 +76,7 @@ public class SharedTerrainExecutor extends AbstractExecutorService implements Te
 		final int limit = poolSize - 2;
 
 		for (int i = 0; i < limit; i++) {
-			final RenderWorker w = ((i & 1) == 0) ? new RenderFirstWorker() : new ServerFirstWorker();
+			final RenderWorker w = ((i & 1) == 0) ? new RenderFirstWorker(i + 1) : new ServerFirstWorker(i + 1);
 
 			final Thread thread = new Thread(w, "Canvas Mixed Thread - " + i);
 			thread.setDaemon(true);
@@ -123,9 +121,55 @@ public class SharedTerrainExecutor extends AbstractExecutorService implements Te
 		return renderQueue.isEmpty();
 	}
 
+	@Override
+	public void invalidatePriorities() {
+		renderQueue.invalidatePriorities();
+	}
+
+	@Override
+	public void updateWorkerCount(long frameBudgetNanos) {
+		controller.update(renderQueue.size(), frameBudgetNanos);
+	}
+
 	private class RenderWorker implements Runnable {
+		protected final int index;
 		protected CanvasTerrainRenderContext context = new CanvasTerrainRenderContext();
 
+		private RenderWorker(int index) {
+			this.index = index;
+		}
+
+		/**
+		 * Inactive mixed workers still serve the server queue but don't wait on
+		 * {@link #mixedSignal}, so wake-ups for render tasks always reach an active worker.
+		 *
+		 * @return true if the worker is inactive and the caller should loop.
+		 */
+		protected boolean serveServerIfInactive() throws InterruptedException {
+			if (controller.isActive(index)) {
+				return false;
+			}
+
+			final Runnable runnable = serverQueue.poll(INACTIVE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+
+			if (runnable != null) {
+				runningTaskCount.incrementAndGet();
+				runnable.run();
+				runningTaskCount.decrementAndGet();
+			}
+
+			return true;
+		}
+
+		/** Waits for a task signal, handing it back if the worker was deactivated while waiting. */
+		protected void awaitSignal() throws InterruptedException {
+			mixedSignal.acquire();
+
+			if (!controller.isActive(index)) {
+				mixedSignal.release();
+			}
+		}
+
 		@Override
 		public void run() {
 			while (true) {
@@ -134,7 +178,7 @@ public class SharedTerrainExecutor extends AbstractExecutorService implements Te
 
 					if (t != null) {
 						runningTaskCount.incrementAndGet();
-						t.run(context);
+						controller.runTask(t, context);
 						runningTaskCount.decrementAndGet();
 					}
 				} catch (final InterruptedException e) {
@@ -168,10 +212,18 @@ public class SharedTerrainExecutor extends AbstractExecutorService implements Te
 	}
 
 	private class RenderFirstWorker extends RenderWorker {
+		private RenderFirstWorker(int index) {
+			super(index);
+		}
+
 		@Override
 		public void run() {
 			while (true) {
 				try {
+					if (serveServerIfInactive()) {
+						continue;
+					}
+
 					final TerrainExecutorTask t = renderQueue.poll();
 
 					if (t == null) {
@@ -184,11 +236,11 @@ public class SharedTerrainExecutor extends AbstractExecutorService implements Te
 						}
 					} else {
 						runningTaskCount.incrementAndGet();
-						t.run(context);
+						controller.runTask(t, context);
 						runningTaskCount.decrementAndGet();
 					}
 
-					mixedSignal.acquire();
+					awaitSignal();
 				} catch (final InterruptedException e) {
 					// NOOP
 				} catch (final Exception e) {
@@ -199,10 +251,18 @@ public class SharedTerrainExecutor extends AbstractExecutorService implements Te
 	}
 
 	private class ServerFirstWorker extends RenderWorker {
+		private ServerFirstWorker(int index) {
+			super(index);
+		}
+
 		@Override
 		public void run() {
 			while (true) {
 				try {
+					if (serveServerIfInactive()) {
+						continue;
+					}
+
 					final Runnable runnable = serverQueue.poll();
 
 					if (runnable == null) {
@@ -210,7 +270,7 @@ public class SharedTerrainExecutor extends AbstractExecutorService implements Te
 
 						if (t != null) {
 							runningTaskCount.incrementAndGet();
-							t.run(context);
+							controller.runTask(t, context);
 							runningTaskCount.decrementAndGet();
 						}
 					} else {
@@ -219,7 +279,7 @@ public class SharedTerrainExecutor extends AbstractExecutorService implements Te
 						runningTaskCount.decrementAndGet();
 					}
 
-					mixedSignal.acquire();
+					awaitSignal();
 				} catch (final InterruptedException e) {
 					// NOOP
 				} catch (final Exception e) {
@@ -245,12 +305,17 @@ public class SharedTerrainExecutor extends AbstractExecutorService implements Te
 			report1 = String.format("Server tasks: %d rate: %d",
 					serverQueue.size(), newServerCount - lastServerTaskCount);
 
+			report2 = renderQueue.rekeyReport();
+			report3 = controller.debugReport();
+
 			lastRenderTaskCount = newRenderCount;
 			lastServerTaskCount = newServerCount;
 		}
 
 		target.add(report0);
 		target.add(report1);
+		target.add(report2);
+		target.add(report3);
 	}
 
 	@Override
@@ -26,7 +26,8 @@ import java.util.concurrent.ExecutorService;
 import grondag.canvas.config.Configurator;
 
 public interface TerrainExecutor extends ExecutorService {
-	TerrainExecutor INSTANCE = Configurator.useCombinedThreadPool.get() ? new SharedTerrainExecutor() : new DedicatedTerrainExecutor();
+	TerrainExecutor INSTANCE = Configurator.useCombinedThreadPool.get() ? new SharedTerrainExecutor()
+			: Configurator.useWorkStealingExecutor.get() ? new WorkStealingTerrainExecutor() : new DedicatedTerrainExecutor();
 
 	void execute(TerrainExecutorTask task);
 
@@ -34,5 +35,19 @@ public interface TerrainExecutor extends ExecutorService {
 
 	boolean isEmpty();
 
+	/**
+	 * Call when the camera region changes so queued tasks are re-sorted
+	 * and obsolete tasks are dropped before workers get to them.
+	 */
+	void invalidatePriorities();
+
+	/**
+	 * Call once per frame from the render thread to let the executor
+	 * grow or shrink the number of workers taking render tasks.
+	 *
+	 * @param frameBudgetNanos Target frame time, or zero if frame rate is not capped.
+	 */
+	void updateWorkerCount(long frameBudgetNanos);
+
 	void debugReport(List<String> target);
 }
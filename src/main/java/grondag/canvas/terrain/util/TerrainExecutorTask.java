@@ -29,4 +29,18 @@ public interface TerrainExecutorTask {
 	 * Normally squared chunk distance. Use -1 for privileged execution.
 	 */
 	int priority();
+
+	/**
+	 * True when the task no longer needs to run, for example because the camera
+	 * has moved away. Checked when queued tasks are re-keyed after a camera move.
+	 */
+	default boolean isObsolete() {
+		return false;
+	}
+
+	/**
+	 * Called instead of {@link #run(CanvasTerrainRenderContext)} when an obsolete
+	 * task is dropped from the queue. Should leave the task able to be scheduled again.
+	 */
+	default void discard() { }
 }
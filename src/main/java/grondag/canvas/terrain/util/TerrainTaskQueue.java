@@ -0,0 +1,142 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.terrain.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Distance-sorted terrain task queue that can be re-keyed when the camera moves.
+ *
+ * <p>Task priority is the camera distance at the time the task is examined,
+ * so any queued task can be out of order once the camera region changes.
+ * {@link #invalidatePriorities()} bumps a generation counter and the next
+ * worker to take from the queue drains and re-inserts every task, dropping
+ * any that report themselves obsolete. Re-keying is done by one worker at a
+ * time and never on the thread that requests it.
+ */
+class TerrainTaskQueue {
+	private final PriorityBlockingQueue<TerrainExecutorTask> queue;
+
+	private final AtomicInteger generation = new AtomicInteger();
+	private final AtomicInteger queueGeneration = new AtomicInteger();
+	/** Number of re-keys holding drained tasks. Re-keys can overlap if the generation changes during a drain. */
+	private final AtomicInteger activeRekeyCount = new AtomicInteger();
+
+	private final AtomicInteger purgeCount = new AtomicInteger();
+	private final AtomicInteger reprioritizeCount = new AtomicInteger();
+	private int lastPurgeCount;
+	private int lastReprioritizeCount;
+
+	TerrainTaskQueue(int initialCapacity) {
+		queue = new PriorityBlockingQueue<>(initialCapacity, new Comparator<TerrainExecutorTask>() {
+			@Override
+			public int compare(TerrainExecutorTask o1, TerrainExecutorTask o2) {
+				return Integer.compare(o1.priority(), o2.priority());
+			}
+		});
+	}
+
+	void add(TerrainExecutorTask task) {
+		queue.add(task);
+	}
+
+	TerrainExecutorTask take() throws InterruptedException {
+		rekeyIfNeeded();
+		return queue.take();
+	}
+
+	TerrainExecutorTask poll() {
+		rekeyIfNeeded();
+		return queue.poll();
+	}
+
+	void clear() {
+		queue.clear();
+	}
+
+	boolean isEmpty() {
+		return queue.isEmpty() && activeRekeyCount.get() == 0;
+	}
+
+	int size() {
+		return queue.size();
+	}
+
+	/**
+	 * Signals that the camera region has changed and queued priorities are stale.
+	 * Cheap and safe to call from any thread.
+	 */
+	void invalidatePriorities() {
+		generation.incrementAndGet();
+	}
+
+	private void rekeyIfNeeded() {
+		final int currentGeneration = generation.get();
+		final int lastGeneration = queueGeneration.get();
+
+		if (currentGeneration != lastGeneration && queueGeneration.compareAndSet(lastGeneration, currentGeneration)) {
+			rekey();
+		}
+	}
+
+	private void rekey() {
+		activeRekeyCount.incrementAndGet();
+
+		try {
+			final ArrayList<TerrainExecutorTask> tasks = new ArrayList<>(queue.size());
+			queue.drainTo(tasks);
+			int purged = 0;
+
+			for (final TerrainExecutorTask t : tasks) {
+				if (t.isObsolete()) {
+					t.discard();
+					++purged;
+				} else {
+					queue.add(t);
+				}
+			}
+
+			purgeCount.addAndGet(purged);
+			reprioritizeCount.addAndGet(tasks.size() - purged);
+		} finally {
+			activeRekeyCount.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Summarizes purge and re-key activity since the last call.
+	 * Meant to be called once per second from executor debug reports.
+	 */
+	String rekeyReport() {
+		final int newPurgeCount = purgeCount.get();
+		final int newReprioritizeCount = reprioritizeCount.get();
+
+		final String result = String.format("Purged tasks/sec: %d Reprioritized/sec: %d",
+				newPurgeCount - lastPurgeCount, newReprioritizeCount - lastReprioritizeCount);
+
+		lastPurgeCount = newPurgeCount;
+		lastReprioritizeCount = newReprioritizeCount;
+		return result;
+	}
+}
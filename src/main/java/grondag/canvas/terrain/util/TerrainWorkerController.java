@@ -0,0 +1,174 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.terrain.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import grondag.canvas.apiimpl.rendercontext.CanvasTerrainRenderContext;
+import grondag.canvas.config.Configurator;
+
+/**
+ * Decides how many of an executor's terrain workers may take render tasks.
+ *
+ * <p>All pool threads are still created at startup. Workers with an index at or
+ * above the active count park (or, in the shared pool, only serve server tasks)
+ * until the controller activates them again.
+ *
+ * <p>Evaluated a few times per second from the render thread. The worker count
+ * needed to clear the backlog within {@link #BACKLOG_TARGET_NANOS} is estimated
+ * from the average build time of recent tasks. Growth is immediate but limited
+ * to one worker per evaluation when the render thread is over its frame budget.
+ * Shrinking is one worker per evaluation to avoid thrashing.
+ *
+ * <p>Build time is measured here rather than taken from {@code ChunkRebuildCounters}
+ * because those counters only sample while performance tracing is enabled.
+ */
+public class TerrainWorkerController {
+	private static final long UPDATE_INTERVAL_NANOS = 250_000_000L;
+	private static final long BACKLOG_TARGET_NANOS = 500_000_000L;
+	private static final long DEFAULT_FRAME_BUDGET_NANOS = 1_000_000_000L / 60;
+	/** Assumed build time until the first measurement is available. */
+	private static final long DEFAULT_TASK_NANOS = 2_000_000L;
+
+	private final int poolSize;
+	private final Object parkLock = new Object();
+	private volatile int activeWorkers;
+
+	private final AtomicLong taskNanos = new AtomicLong();
+	private final AtomicInteger taskCount = new AtomicInteger();
+
+	// Render thread only
+	private long lastFrameNanos;
+	private long smoothedFrameNanos;
+	private long averageTaskNanos = DEFAULT_TASK_NANOS;
+	private long nextUpdateNanos;
+	private int lastBacklog;
+
+	TerrainWorkerController(int poolSize) {
+		this.poolSize = poolSize;
+		activeWorkers = maxWorkers();
+	}
+
+	private int minWorkers() {
+		return Math.min(poolSize, Math.max(1, Configurator.minTerrainWorkers));
+	}
+
+	private int maxWorkers() {
+		return Math.min(poolSize, Math.max(minWorkers(), Configurator.maxTerrainWorkers));
+	}
+
+	int activeWorkers() {
+		return activeWorkers;
+	}
+
+	boolean isActive(int workerIndex) {
+		return workerIndex < activeWorkers;
+	}
+
+	/** Parks the calling worker until its index is within the active count. */
+	void awaitActive(int workerIndex) throws InterruptedException {
+		if (workerIndex < activeWorkers) {
+			return;
+		}
+
+		synchronized (parkLock) {
+			while (workerIndex >= activeWorkers) {
+				parkLock.wait();
+			}
+		}
+	}
+
+	/** Runs the task, sampling elapsed time if it is a normal (non-privileged) task. */
+	void runTask(TerrainExecutorTask task, CanvasTerrainRenderContext context) {
+		if (task.priority() < 0) {
+			task.run(context);
+		} else {
+			final long start = System.nanoTime();
+			task.run(context);
+			taskNanos.addAndGet(System.nanoTime() - start);
+			taskCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Call once per frame from the render thread.
+	 *
+	 * @param backlog Number of render tasks waiting to run.
+	 * @param frameBudgetNanos Target frame time, or zero if frame rate is not capped.
+	 */
+	void update(int backlog, long frameBudgetNanos) {
+		final long now = System.nanoTime();
+
+		if (lastFrameNanos != 0) {
+			final long frameNanos = now - lastFrameNanos;
+			smoothedFrameNanos = smoothedFrameNanos == 0 ? frameNanos : (smoothedFrameNanos * 7 + frameNanos) >> 3;
+		}
+
+		lastFrameNanos = now;
+
+		if (now < nextUpdateNanos) {
+			return;
+		}
+
+		nextUpdateNanos = now + UPDATE_INTERVAL_NANOS;
+		lastBacklog = backlog;
+
+		final int count = taskCount.getAndSet(0);
+		final long nanos = taskNanos.getAndSet(0);
+
+		if (count > 0) {
+			averageTaskNanos = (averageTaskNanos + nanos / count) >> 1;
+		}
+
+		final int min = minWorkers();
+		final int max = maxWorkers();
+		final int current = activeWorkers;
+
+		final long budget = frameBudgetNanos > 0 ? frameBudgetNanos : DEFAULT_FRAME_BUDGET_NANOS;
+		final boolean overBudget = smoothedFrameNanos > budget + (budget >> 3);
+
+		final long demand = backlog * averageTaskNanos / BACKLOG_TARGET_NANOS;
+		int target = (int) Math.min(max, demand + 1);
+
+		if (target < current) {
+			target = current - 1;
+		} else if (overBudget && target > current) {
+			target = current + 1;
+		}
+
+		setActiveWorkers(Math.max(min, Math.min(max, target)));
+	}
+
+	private void setActiveWorkers(int count) {
+		if (count != activeWorkers) {
+			synchronized (parkLock) {
+				activeWorkers = count;
+				parkLock.notifyAll();
+			}
+		}
+	}
+
+	String debugReport() {
+		return String.format("Terrain workers: %d/%d (%d-%d) backlog: %d build: %,dns frame: %.1fms",
+				activeWorkers, poolSize, minWorkers(), maxWorkers(), lastBacklog, averageTaskNanos, smoothedFrameNanos / 1000000.0);
+	}
+}
@@ -0,0 +1,423 @@
+/*
+ * This file is part of Canvas Renderer and is licensed to the project under
+ * terms that are compatible with the GNU Lesser General Public License.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership and licensing.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package grondag.canvas.terrain.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import grondag.canvas.CanvasMod;
+import grondag.canvas.apiimpl.rendercontext.CanvasTerrainRenderContext;
+
+/**
+ * Terrain executor that gives each worker its own set of task deques
+ * instead of sharing a single priority queue. Idle workers steal from
+ * the nearest non-empty bucket of other workers.
+ *
+ * <p>Ordering is coarse: tasks are grouped into buckets two chunks wide
+ * by camera distance and are FIFO within a bucket. Privileged tasks
+ * (priority == -1) go in a single shared FIFO queue that every worker
+ * checks before its own buckets, so they run before all other queued
+ * work and in order of submission.
+ *
+ * <p>When priorities are invalidated each worker's buckets are re-sorted,
+ * and obsolete tasks dropped, the next time that worker's lock is taken
+ * for polling or stealing.
+ */
+public class WorkStealingTerrainExecutor extends AbstractExecutorService implements TerrainExecutor {
+	/** Must be <= 32 so occupancy fits in an int mask. */
+	private static final int BUCKET_COUNT = 32;
+
+	private final int poolSize = threadCount();
+	private final Worker[] workers = new Worker[poolSize];
+	private final TerrainWorkerController controller = new TerrainWorkerController(poolSize);
+
+	/** Privileged tasks, shared by all workers and run in order of submission. */
+	private final ConcurrentLinkedQueue<TerrainExecutorTask> privilegedTasks = new ConcurrentLinkedQueue<>();
+
+	/** One permit per queued task. Idle workers park here. */
+	private final Semaphore signal = new Semaphore(0);
+	private final AtomicInteger queuedTaskCount = new AtomicInteger();
+	private final AtomicInteger nextWorker = new AtomicInteger();
+	private final AtomicInteger generation = new AtomicInteger();
+
+	private final AtomicInteger renderTaskCount = new AtomicInteger();
+	private final AtomicInteger stealCount = new AtomicInteger();
+	private final AtomicInteger contentionCount = new AtomicInteger();
+	private final AtomicInteger purgeCount = new AtomicInteger();
+	private final AtomicInteger reprioritizeCount = new AtomicInteger();
+
+	private int lastRenderTaskCount;
+	private int lastStealCount;
+	private int lastContentionCount;
+	private int lastPurgeCount;
+	private int lastReprioritizeCount;
+	private long nextTime;
+	private String report0 = "", report1 = "", report2 = "", report3 = "";
+
+	WorkStealingTerrainExecutor() {
+		for (int i = 0; i < poolSize; i++) {
+			workers[i] = new Worker(i);
+		}
+
+		for (int i = 0; i < poolSize; i++) {
+			final Thread thread = new Thread(workers[i], "Canvas Render Thread - " + i);
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	private static int threadCount() {
+		final int threadCount = Runtime.getRuntime().availableProcessors() - 1;
+		return threadCount > 1 ? threadCount : 1;
+	}
+
+	/** Priority is squared chunk distance - bucket by two-chunk rings. */
+	static int bucket(int priority) {
+		return Math.min(BUCKET_COUNT - 1, ((int) Math.sqrt(priority)) >> 1);
+	}
+
+	@Override
+	public void execute(TerrainExecutorTask task) {
+		if (task.priority() < 0) {
+			privilegedTasks.offer(task);
+		} else {
+			// Prefer active workers, but parked workers' tasks can still be stolen
+			final Worker target = workers[(nextWorker.getAndIncrement() & Integer.MAX_VALUE) % controller.activeWorkers()];
+			target.lockCounted();
+
+			try {
+				target.add(task);
+			} finally {
+				target.lock.unlock();
+			}
+		}
+
+		queuedTaskCount.incrementAndGet();
+		renderTaskCount.incrementAndGet();
+		signal.release();
+	}
+
+	@Override
+	public void clear() {
+		TerrainExecutorTask t = privilegedTasks.poll();
+
+		while (t != null) {
+			queuedTaskCount.decrementAndGet();
+			t = privilegedTasks.poll();
+		}
+
+		for (final Worker w : workers) {
+			w.lockCounted();
+
+			try {
+				queuedTaskCount.addAndGet(-w.clear());
+			} finally {
+				w.lock.unlock();
+			}
+
+			w.context = new CanvasTerrainRenderContext();
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return queuedTaskCount.get() <= 0;
+	}
+
+	@Override
+	public void invalidatePriorities() {
+		generation.incrementAndGet();
+	}
+
+	@Override
+	public void updateWorkerCount(long frameBudgetNanos) {
+		controller.update(Math.max(0, queuedTaskCount.get()), frameBudgetNanos);
+	}
+
+	private class Worker implements Runnable {
+		private final int index;
+		private final ReentrantLock lock = new ReentrantLock();
+
+		@SuppressWarnings("unchecked")
+		private final ArrayDeque<TerrainExecutorTask>[] buckets = new ArrayDeque[BUCKET_COUNT];
+
+		/** Bit n set when bucket n is non-empty. Guarded by lock. */
+		private int occupied;
+		/** Executor generation at which buckets were last sorted. Guarded by lock. */
+		private int bucketGeneration;
+		private CanvasTerrainRenderContext context = new CanvasTerrainRenderContext();
+
+		private Worker(int index) {
+			this.index = index;
+
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				buckets[i] = new ArrayDeque<>();
+			}
+		}
+
+		private void lockCounted() {
+			if (!lock.tryLock()) {
+				contentionCount.incrementAndGet();
+				lock.lock();
+			}
+		}
+
+		/** Caller must hold lock. */
+		private void add(TerrainExecutorTask task) {
+			final int b = bucket(task.priority());
+			buckets[b].addLast(task);
+			occupied |= 1 << b;
+		}
+
+		/** Caller must hold lock. Re-buckets all tasks if priorities were invalidated since last sort. */
+		private void rekeyIfNeeded() {
+			final int currentGeneration = generation.get();
+
+			if (bucketGeneration == currentGeneration) {
+				return;
+			}
+
+			bucketGeneration = currentGeneration;
+
+			if (occupied == 0) {
+				return;
+			}
+
+			final ArrayList<TerrainExecutorTask> tasks = new ArrayList<>();
+
+			for (final ArrayDeque<TerrainExecutorTask> deque : buckets) {
+				tasks.addAll(deque);
+				deque.clear();
+			}
+
+			occupied = 0;
+			int purged = 0;
+
+			for (final TerrainExecutorTask t : tasks) {
+				if (t.isObsolete()) {
+					t.discard();
+					++purged;
+				} else {
+					add(t);
+				}
+			}
+
+			queuedTaskCount.addAndGet(-purged);
+			purgeCount.addAndGet(purged);
+			reprioritizeCount.addAndGet(tasks.size() - purged);
+		}
+
+		/** Caller must hold lock. Nearest bucket first, oldest task first. Used for both own polls and steals. */
+		private TerrainExecutorTask pollNearest() {
+			rekeyIfNeeded();
+
+			if (occupied == 0) {
+				return null;
+			}
+
+			final int b = Integer.numberOfTrailingZeros(occupied);
+			final ArrayDeque<TerrainExecutorTask> deque = buckets[b];
+			final TerrainExecutorTask result = deque.pollFirst();
+
+			if (deque.isEmpty()) {
+				occupied &= ~(1 << b);
+			}
+
+			return result;
+		}
+
+		/** Caller must hold lock. Returns number of tasks removed. */
+		private int clear() {
+			int result = 0;
+
+			for (final ArrayDeque<TerrainExecutorTask> deque : buckets) {
+				result += deque.size();
+				deque.clear();
+			}
+
+			occupied = 0;
+			return result;
+		}
+
+		private TerrainExecutorTask pollOwn() {
+			lockCounted();
+
+			try {
+				return pollNearest();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * First pass skips victims that are busy. If that finds nothing,
+		 * a blocking pass makes sure a queued task is never missed.
+		 */
+		private TerrainExecutorTask steal() {
+			for (int i = 1; i < poolSize; i++) {
+				final Worker victim = workers[(index + i) % poolSize];
+
+				if (victim.lock.tryLock()) {
+					try {
+						final TerrainExecutorTask result = victim.pollNearest();
+
+						if (result != null) {
+							stealCount.incrementAndGet();
+							return result;
+						}
+					} finally {
+						victim.lock.unlock();
+					}
+				} else {
+					contentionCount.incrementAndGet();
+				}
+			}
+
+			for (int i = 1; i < poolSize; i++) {
+				final Worker victim = workers[(index + i) % poolSize];
+				victim.lock.lock();
+
+				try {
+					final TerrainExecutorTask result = victim.pollNearest();
+
+					if (result != null) {
+						stealCount.incrementAndGet();
+						return result;
+					}
+				} finally {
+					victim.lock.unlock();
+				}
+			}
+
+			return null;
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				try {
+					controller.awaitActive(index);
+					signal.acquire();
+
+					// Deactivated while waiting - give the permit to an active worker and park
+					if (!controller.isActive(index)) {
+						signal.release();
+						continue;
+					}
+
+					TerrainExecutorTask t = privilegedTasks.poll();
+
+					if (t == null) {
+						t = pollOwn();
+					}
+
+					if (t == null) {
+						t = steal();
+					}
+
+					// may be null if the queue was cleared after the permit was issued
+					if (t != null) {
+						queuedTaskCount.decrementAndGet();
+						controller.runTask(t, context);
+					}
+				} catch (final InterruptedException e) {
+					// NOOP
+				} catch (final Exception e) {
+					CanvasMod.LOG.error("Unhandled error during rendering. Impact unknown.", e);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		throw new UnsupportedOperationException("Work-stealing terrain executor recevied shared-mode task");
+	}
+
+	@Override
+	public void debugReport(List<String> target) {
+		final long newTime = System.currentTimeMillis();
+
+		if (newTime > nextTime) {
+			nextTime = newTime + 1000;
+
+			final int newRenderCount = renderTaskCount.get();
+			final int newStealCount = stealCount.get();
+			final int newContentionCount = contentionCount.get();
+
+			report0 = String.format("Render tasks: %d rate: %d",
+					Math.max(0, queuedTaskCount.get()), newRenderCount - lastRenderTaskCount);
+
+			report1 = String.format("Steals/sec: %d Contended locks/sec: %d",
+					newStealCount - lastStealCount, newContentionCount - lastContentionCount);
+
+			lastRenderTaskCount = newRenderCount;
+			lastStealCount = newStealCount;
+			final int newPurgeCount = purgeCount.get();
+			final int newReprioritizeCount = reprioritizeCount.get();
+
+			report2 = String.format("Purged tasks/sec: %d Reprioritized/sec: %d",
+					newPurgeCount - lastPurgeCount, newReprioritizeCount - lastReprioritizeCount);
+
+			lastContentionCount = newContentionCount;
+			lastPurgeCount = newPurgeCount;
+			lastReprioritizeCount = newReprioritizeCount;
+			report3 = controller.debugReport();
+		}
+
+		target.add(report0);
+		target.add(report1);
+		target.add(report2);
+		target.add(report3);
+	}
+
+	@Override
+	public void shutdown() {
+		throw new UnsupportedOperationException("Work-stealing terrain executor used as generic service.");
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		throw new UnsupportedOperationException("Work-stealing terrain executor used as generic service.");
+	}
+
+	@Override
+	public boolean isShutdown() {
+		throw new UnsupportedOperationException("Work-stealing terrain executor used as generic service.");
+	}
+
+	@Override
+	public boolean isTerminated() {
+		throw new UnsupportedOperationException("Work-stealing terrain executor used as generic service.");
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		throw new UnsupportedOperationException("Work-stealing terrain executor used as generic service.");
+	}
+}
@@ -32,6 +32,7 @@ import net.minecraft.resources.ResourceLocation;
 import grondag.canvas.CanvasMod;
 import grondag.canvas.config.Configurator;
 import grondag.canvas.material.state.CanvasRenderMaterial;
+import grondag.canvas.material.state.MaterialStateEncoder;
 
 public abstract class MaterialIndexProvider {
 	public abstract MaterialIndexer getIndexer(CanvasRenderMaterial mat);
@@ -94,18 +95,28 @@ public abstract class MaterialIndexProvider {
 
 			private final CanvasRenderMaterial mat;
 			private final Int2IntOpenHashMap spriteMap = new Int2IntOpenHashMap(64, Hash.VERY_FAST_LOAD_FACTOR);
+			private final Int2IntOpenHashMap tiledSpriteMap = new Int2IntOpenHashMap(64, Hash.VERY_FAST_LOAD_FACTOR);
 
 			@Override
 			public int index(int spriteId) {
 				synchronized (sync) {
-					return spriteMap.computeIfAbsent(spriteId, k -> {
-						final int i = nextIndex++;
-						final TextureAtlasSprite sprite = mat.texture().spriteIndex().fromIndex(k);
-						tex.set(i, mat.vertexShaderIndex(), mat.fragmentShaderIndex(), mat.shaderFlags(), mat.condition().index(), sprite);
-						return i;
-					});
+					return spriteMap.computeIfAbsent(spriteId, k -> register(k, mat.shaderFlags()));
 				}
 			}
+
+			@Override
+			public int tiledIndex(int spriteId) {
+				synchronized (sync) {
+					return tiledSpriteMap.computeIfAbsent(spriteId, k -> register(k, mat.shaderFlags() | MaterialStateEncoder.SHADER_FLAG_TILED_UV));
+				}
+			}
+
+			private int register(int spriteId, int shaderFlags) {
+				final int i = nextIndex++;
+				final TextureAtlasSprite sprite = mat.texture().spriteIndex().fromIndex(spriteId);
+				tex.set(i, mat.vertexShaderIndex(), mat.fragmentShaderIndex(), shaderFlags, mat.condition().index(), sprite);
+				return i;
+			}
 		}
 
 		@Override
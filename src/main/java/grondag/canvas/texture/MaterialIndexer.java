@@ -23,4 +23,12 @@ package grondag.canvas.texture;
 @FunctionalInterface
 public interface MaterialIndexer {
 	int index(int spriteId);
+
+	/**
+	 * Index for the same material and sprite with texture coordinates in sprite
+	 * repeats instead of normalized sprite coordinates. Only atlas materials have one.
+	 */
+	default int tiledIndex(int spriteId) {
+		throw new UnsupportedOperationException("Tiled material index requested for non-atlas material");
+	}
 }
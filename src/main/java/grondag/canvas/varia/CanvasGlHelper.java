@@ -35,6 +35,7 @@ public class CanvasGlHelper {
 	private static boolean supportsPersistentMapped = false;
 	private static boolean supportsKhrDebug = false;
 	private static boolean supportsArbConservativeDepth = false;
+	private static boolean supportsMultiDrawIndirect = false;
 
 	private static String maxGlVersion = "3.2";
 
@@ -50,6 +51,10 @@ public class CanvasGlHelper {
 		return supportsArbConservativeDepth;
 	}
 
+	public static boolean supportsMultiDrawIndirect() {
+		return supportsMultiDrawIndirect;
+	}
+
 	public static String maxGlVersion() {
 		return maxGlVersion;
 	}
@@ -63,6 +68,7 @@ public class CanvasGlHelper {
 		supportsPersistentMapped = caps.glBufferStorage != 0;
 		supportsKhrDebug = caps.GL_KHR_debug;
 		supportsArbConservativeDepth = caps.GL_ARB_conservative_depth;
+		supportsMultiDrawIndirect = caps.glMultiDrawElementsIndirect != 0;
 		maxGlVersion = maxGlVersion(caps);
 
 		if (Configurator.logMachineInfo) {
@@ -83,6 +89,7 @@ public class CanvasGlHelper {
 		log.info(String.format(" glBufferStorage: %s", caps.glBufferStorage == 0 ? "N" : "Y"));
 		log.info(String.format(" KHR_debug: %s", supportsKhrDebug() ? "Y" : "N"));
 		log.info(String.format(" ARB_conservative_depth: %s", supportsArbConservativeDepth ? "Y" : "N"));
+		log.info(String.format(" glMultiDrawElementsIndirect: %s", supportsMultiDrawIndirect ? "Y" : "N"));
 		log.info(" (This message can be disabled by configuring logMachineInfo = false.)");
 		log.info("========================================================================");
 	}
@@ -920,6 +920,11 @@ public class GFX extends GL46C {
 		assert logError("glMultiDrawElementsBaseVertex");
 	}
 
+	public static void multiDrawElementsIndirect(int mode, int type, long indirect, int drawcount, int stride) {
+		glMultiDrawElementsIndirect(mode, type, indirect, drawcount, stride);
+		assert logError("glMultiDrawElementsIndirect");
+	}
+
 	public static void bufferSubData(int target, long offsetBytes, long sizeBytes, ByteBuffer data) {
 		nglBufferSubData(target, offsetBytes, sizeBytes, memAddress(data));
 		assert logError("nglBufferSubData");
@@ -13,6 +13,7 @@
 #define _CV_FLAG_FLASH_OVERLAY      8 // 1 if should render white flash overlay
 #define _CV_FLAG_ENABLE_FOG         9
 #define _CV_FLAG_GLINT              10
+#define _CV_FLAG_TILED_UV           11 // 1 if texture coordinates are in sprite repeats - see QuadMerger
 
 #define _CV_CUTOUT_SHIFT 3u
 #define _CV_CUTOUT_MASK 3u
@@ -23,10 +24,16 @@
 
 #define _CV_TRANSLUCENT_CUTOUT_THRESHOLD 0.003921569
 
+// tiled quads encode one sprite repeat as 2048 in a normalized unsigned short
+#define _CV_TILED_UV_SCALE (65535.0 / 2048.0)
+
 #ifdef VERTEX_SHADER
 flat out uint _cvv_flags;
+// sprite repeats of tiled quads - kept out of frx_texcoord so material and pipeline shaders never see them
+out vec2 _cvv_tiledUV;
 #else
 flat in uint _cvv_flags;
+in vec2 _cvv_tiledUV;
 #endif
 
 #define _CV_GET_FLAG(flagId) int((_cvv_flags >> flagId) & 1u)  // returns int
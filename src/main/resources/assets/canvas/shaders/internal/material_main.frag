@@ -23,7 +23,18 @@ void main() {
 		discard;
 	}
 #endif
-	frx_sampleColor = texture(frxs_baseColor, frx_texcoord, frx_matUnmipped * -4.0);
+	frx_texcoord = _cvv_texcoord;
+
+	// derivatives taken before branching and from unwrapped coordinates so mip selection has no seams
+	vec2 _cv_texcoordDx = dFdx(_cvv_tiledUV);
+	vec2 _cv_texcoordDy = dFdy(_cvv_tiledUV);
+
+	if (_CV_GET_FLAG(_CV_FLAG_TILED_UV) == 1) {
+		frx_texcoord += frx_mapNormalizedUV(fract(_cvv_tiledUV));
+		frx_sampleColor = textureGrad(frxs_baseColor, frx_texcoord, _cv_texcoordDx * _cvv_spriteBounds.zw, _cv_texcoordDy * _cvv_spriteBounds.zw);
+	} else {
+		frx_sampleColor = texture(frxs_baseColor, frx_texcoord, frx_matUnmipped * -4.0);
+	}
 
 #ifdef _CV_FRAGMENT_COMPAT
 	compatData = frx_FragmentData(frx_sampleColor, frx_vertexColor);
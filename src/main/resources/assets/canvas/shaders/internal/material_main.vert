@@ -33,6 +33,15 @@ void main() {
 	_cv_setupProgram();
 	_cvv_flags = uint(_cvu_program.z);
 
+	// Tiled quads carry sprite repeats separately. Material and pipeline shaders see the
+	// sprite corner an unmerged quad would have at this vertex, as normalized and atlas coordinates.
+	if (_CV_GET_FLAG(_CV_FLAG_TILED_UV) == 1) {
+		_cvv_tiledUV = frx_texcoord * _CV_TILED_UV_SCALE;
+		frx_texcoord = min(_cvv_tiledUV, 1.0);
+	} else {
+		_cvv_tiledUV = vec2(0.0);
+	}
+
 	// material shaders go first
 	_cv_startVertex(_cv_vertexProgramId());
 
@@ -40,4 +49,7 @@ void main() {
 
 	// pipeline shader handles additional writes/out variables
 	frx_pipelineVertex();
+
+	// for tiled quads only changes made by pipeline shaders are passed on, to be added per fragment
+	_cvv_texcoord = _CV_GET_FLAG(_CV_FLAG_TILED_UV) == 1 ? frx_texcoord - frx_mapNormalizedUV(min(_cvv_tiledUV, 1.0)) : frx_texcoord;
 }
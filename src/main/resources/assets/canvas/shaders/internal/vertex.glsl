@@ -48,6 +48,61 @@ void _cv_prepareForVertex() {
 }
 #endif
 
+// Same as terrain but with smaller GPU storage. Position is relative
+// to a region-sized cell of the sector and normal is octahedral.
+#ifdef _CV_VERTEX_TERRAIN_COMPACT
+
+uniform int[182] _cvu_sectors_int;
+
+// 1/2048 block offsets within cell plus 8 block margin, then material
+in ivec4 in_pos_material;
+in vec4 in_color;
+in vec2 in_uv;
+// octahedral normal offset by 127, tangent angle around normal, ao
+in ivec4 in_normal_tangent_ao;
+// sector, cell, block and sky light in top six bits, tangent handedness
+in int in_sector_light;
+#define _CV_MATERIAL_ID in_pos_material.w
+
+vec3 in_vertex;
+ivec2 in_lightmap;
+
+void _cv_prepareForVertex() {
+	int sectorId = in_sector_light & 0x1FF;
+	int packedSector = _cvu_sectors_int[sectorId >> 1];
+	packedSector = (sectorId & 1) == 1 ? ((packedSector >> 16) & 0xFFFF) : (packedSector & 0xFFFF);
+
+	// These are relative to the sector origin, which will be near the camera position
+	vec3 origin = vec3(((packedSector & 0xF) - 5) * 128, ((packedSector >> 4) & 0xF) * 128 - 64, (((packedSector >> 8) & 0xF) - 5) * 128);
+	ivec3 cell = (ivec3(in_sector_light) >> ivec3(9, 12, 15)) & 7;
+	in_vertex = origin + vec3(cell * 16) + vec3(in_pos_material.xyz) * (1.0 / 2048.0) - 8.0;
+
+	in_lightmap = ((ivec2(in_sector_light) >> ivec2(18, 24)) & 0x3F) * 4;
+
+	// Decoded with integers so the sign of z always matches the encoder
+	ivec2 oct = in_normal_tangent_ao.xy - 127;
+	int octZ = 127 - abs(oct.x) - abs(oct.y);
+
+	if (octZ < 0) {
+		oct = ivec2((127 - abs(oct.y)) * (oct.x >= 0 ? 1 : -1), (127 - abs(oct.x)) * (oct.y >= 0 ? 1 : -1));
+	}
+
+	in_normal = normalize(vec3(oct, octZ));
+
+	// Tangent is an angle around the normal from an orthonormal basis that depends only on the normal
+	float s = octZ >= 0 ? 1.0 : -1.0;
+	float a = -1.0 / (s + in_normal.z);
+	float b = in_normal.x * in_normal.y * a;
+	vec3 basisU = vec3(1.0 + s * in_normal.x * in_normal.x * a, s * b, -s * in_normal.x);
+	vec3 basisV = vec3(b, s + in_normal.y * in_normal.y * a, -in_normal.y);
+	float angle = in_normal_tangent_ao.z * (6.2831853 / 256.0);
+	float tangentInvert = 1.0 - ((in_sector_light >> 29) & 2);
+	in_tangent = vec4(cos(angle) * basisU + sin(angle) * basisV, tangentInvert);
+
+	in_ao = in_normal_tangent_ao.w * (1.0 / 255.0);
+}
+#endif
+
 #ifdef _CV_VERTEX_DEFAULT
 in vec3 in_vertex;
 in vec4 in_color;
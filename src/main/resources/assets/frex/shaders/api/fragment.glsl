@@ -3,7 +3,9 @@
  ***************************************************************/
 
 in vec4 frx_vertex;
-in vec2 frx_texcoord;
+in vec2 _cvv_texcoord;
+// writable so tiled coordinates can be resolved before material and pipeline shaders run
+vec2 frx_texcoord;
 in vec4 frx_vertexColor;
 in vec3 frx_vertexNormal;
 in vec4 frx_vertexTangent;
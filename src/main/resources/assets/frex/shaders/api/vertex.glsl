@@ -3,7 +3,9 @@
  ***************************************************************/
 
 out vec4 frx_vertex;
-out vec2 frx_texcoord;
+// copied to the fragment stage after pipeline vertex shaders run
+out vec2 _cvv_texcoord;
+vec2 frx_texcoord;
 out vec4 frx_vertexColor;
 
 #ifdef DEPTH_PASS
@@ -1,11 +1,14 @@
 package grondag.canvas;
 
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
 
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.junit.jupiter.api.Test;
 
 import grondag.bitraster.PackedBox;
+import grondag.canvas.terrain.occlusion.geometry.Area;
 import grondag.canvas.terrain.occlusion.geometry.AreaFinder;
 import grondag.canvas.terrain.occlusion.geometry.BoxFinder;
 
@@ -48,6 +51,58 @@ class BoxFinderTest {
 		assert boxes.size() == 1 && boxes.getInt(0) == PackedBox.pack(0, 0, 0, 3, 3, 3, 0);
 	}
 
+	@Test
+	void findSectionsMatchesSampleTest() {
+		final Random random = new Random(1);
+		final AreaFinder areaFinder = new AreaFinder();
+		final long[] slice = new long[4];
+		final BitSet found = new BitSet();
+		final BitSet expected = new BitSet();
+
+		for (int pass = 0; pass < 100000; ++pass) {
+			// mostly full rows so that section areas are common
+			for (int i = 0; i < 4; ++i) {
+				long word = 0;
+
+				for (int row = 0; row < 4; ++row) {
+					final long rowBits = switch (random.nextInt(4)) {
+						case 0 -> 0;
+						case 1 -> random.nextInt(0x10000);
+						case 2 -> 0xFFFF & ~(1 << random.nextInt(16));
+						default -> 0xFFFF;
+					};
+
+					word |= rowBits << (row << 4);
+				}
+
+				slice[i] = word;
+			}
+
+			if (random.nextInt(3) == 0) {
+				// add full columns
+				final long columns = random.nextInt(0x10000);
+
+				for (int i = 0; i < 4; ++i) {
+					slice[i] |= columns | (columns << 16) | (columns << 32) | (columns << 48);
+				}
+			}
+
+			found.clear();
+			expected.clear();
+			areaFinder.findSections(slice, 0, found::set);
+
+			for (int i = 0; i < Area.SECTION_COUNT; ++i) {
+				final int areaIndex = Area.sectionToAreaIndex(i);
+
+				if (Area.isIncludedBySample(slice, 0, areaIndex)) {
+					expected.set(areaIndex);
+				}
+			}
+
+			assert found.equals(expected);
+		}
+	}
+
 	void fill(int x0, int y0, int z0, int x1, int y1, int z1) {
 		for (int x = x0; x < x1; x++) {
 			for (int y = y0; y < y1; y++) {
@@ -0,0 +1,95 @@
+package grondag.canvas.buffer.input;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Append throughput of paged collector storage, with a single doubling array
+ * as the baseline. Each invocation appends one region's worth of terrain quads
+ * and then clears. Run with {@code -prof gc} to compare allocation rates.
+ *
+ * <p>The fresh baseline models a collector that has not yet grown to the size of
+ * the region, which is the case the doubling array handled worst.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArrayVertexCollectorBenchmark {
+	private static final int QUAD_STRIDE = 28;
+
+	@Param({"256", "4096", "32768"})
+	int quadCount;
+
+	private SimpleVertexCollector collector;
+	private final int[] source = new int[QUAD_STRIDE];
+	private int[] retainedArray = new int[1024];
+
+	@Setup
+	public void setup() {
+		collector = new SimpleVertexCollector(null, new int[QUAD_STRIDE]);
+
+		for (int i = 0; i < QUAD_STRIDE; ++i) {
+			source[i] = i * 0x01010101;
+		}
+	}
+
+	@Benchmark
+	public void paged(Blackhole blackhole) {
+		final SimpleVertexCollector collector = this.collector;
+		final int[] target = collector.target();
+
+		for (int q = 0; q < quadCount; ++q) {
+			System.arraycopy(source, 0, target, 0, QUAD_STRIDE);
+			collector.commit(QUAD_STRIDE);
+		}
+
+		blackhole.consume(collector.integerSize());
+		collector.clear();
+	}
+
+	@Benchmark
+	public void doublingRetained(Blackhole blackhole) {
+		retainedArray = appendDoubling(retainedArray);
+		blackhole.consume(retainedArray);
+	}
+
+	@Benchmark
+	public void doublingFresh(Blackhole blackhole) {
+		blackhole.consume(appendDoubling(new int[1024]));
+	}
+
+	/** Same growth and copy as the collector storage before it was paged. */
+	private int[] appendDoubling(int[] data) {
+		int size = 0;
+
+		for (int q = 0; q < quadCount; ++q) {
+			final int newSize = size + QUAD_STRIDE;
+
+			if (newSize > data.length) {
+				final int[] newData = new int[Integer.highestOneBit(newSize - 1) << 1];
+				System.arraycopy(data, 0, newData, 0, size);
+				data = newData;
+			}
+
+			System.arraycopy(source, 0, data, size, QUAD_STRIDE);
+			size = newSize;
+		}
+
+		return data;
+	}
+}
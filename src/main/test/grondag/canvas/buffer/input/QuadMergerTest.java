@@ -0,0 +1,242 @@
+package grondag.canvas.buffer.input;
+
+import static grondag.canvas.buffer.input.QuadMerger.QUAD_STRIDE;
+import static grondag.canvas.buffer.input.QuadMerger.TILED_UV_UNIT;
+import static grondag.canvas.buffer.input.QuadMerger.VERTEX_STRIDE;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.junit.jupiter.api.Test;
+
+import grondag.canvas.texture.MaterialIndexer;
+
+/**
+ * Checks that merged meshes shade every sample point of a plane exactly as
+ * the unmerged quads did: same sprite coordinates after wrapping, same color,
+ * light, normal and base material.
+ */
+class QuadMergerTest {
+	private static final int TILED_OFFSET = 1000;
+	private static final int SAMPLES = 8;
+
+	private static final MaterialIndexer INDEXER = new MaterialIndexer() {
+		@Override
+		public int index(int spriteId) {
+			return spriteId;
+		}
+
+		@Override
+		public int tiledIndex(int spriteId) {
+			return spriteId + TILED_OFFSET;
+		}
+	};
+
+	/** Corner (bit 0 = A, bit 1 = B) of each vertex, in winding order. */
+	private static final int[] CORNERS = {0, 2, 3, 1};
+
+	@Test
+	void uniformLayerMergesToOneQuad() {
+		for (int orientation = 0; orientation < 8; ++orientation) {
+			final int[][] cells = new int[16][16];
+
+			for (final int[] row : cells) {
+				Arrays.fill(row, 1);
+			}
+
+			final ObjectArrayList<int[]> input = layer(1, 64, cells, orientation);
+			final ObjectArrayList<int[]> output = merge(input);
+
+			assert output.size() == 1;
+			assertEquivalent(input, output, 1, 64);
+		}
+	}
+
+	@Test
+	void mixedLayersAreEquivalent() {
+		final Random random = new Random(42);
+
+		for (int pass = 0; pass < 200; ++pass) {
+			final int axis = random.nextInt(3);
+			final int plane = 16 + random.nextInt(16);
+			final int[][] cells = new int[16][16];
+
+			// 0 is an empty cell, other values pick color and sprite
+			for (final int[] row : cells) {
+				for (int i = 0; i < 16; ++i) {
+					row[i] = random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(3);
+				}
+			}
+
+			final ObjectArrayList<int[]> input = layer(axis, plane, cells, random.nextInt(8));
+			final ObjectArrayList<int[]> output = merge(input);
+
+			assert output.size() <= input.size();
+			assertEquivalent(input, output, axis, plane);
+		}
+	}
+
+	@Test
+	void partialFacesAreNotCandidates() {
+		final int[] quad = quad(1, 64, 3, 4, 1, 0);
+
+		// texture covers only half the sprite
+		for (int v = 0; v < 4; ++v) {
+			final int i = v * VERTEX_STRIDE + 4;
+			quad[i] = (quad[i] & 0xFFFF0000) | ((quad[i] & 0xFFFF) == 0 ? 0 : 0x7FFF);
+		}
+
+		assert !new QuadMerger().add(quad, 1, true, INDEXER, 1);
+
+		// inset from block boundary
+		final int[] inset = quad(1, 64, 3, 4, 1, 0);
+		inset[0] |= 0x1000 << 16;
+		assert !new QuadMerger().add(inset, 1, true, INDEXER, 1);
+	}
+
+	private static ObjectArrayList<int[]> merge(ObjectArrayList<int[]> input) {
+		final QuadMerger merger = new QuadMerger();
+
+		for (final int[] quad : input) {
+			assert merger.add(quad, 1, true, INDEXER, quad[5] >>> 16);
+		}
+
+		final ObjectArrayList<int[]> output = new ObjectArrayList<>();
+		final int[] target = new int[QUAD_STRIDE];
+		merger.flush(target, (face, castShadow) -> {
+			assert face == 1 && castShadow;
+			output.add(target.clone());
+		});
+
+		assert merger.isEmpty();
+		return output;
+	}
+
+	private static ObjectArrayList<int[]> layer(int axis, int plane, int[][] cells, int orientation) {
+		final ObjectArrayList<int[]> result = new ObjectArrayList<>();
+
+		for (int a = 0; a < 16; ++a) {
+			for (int b = 0; b < 16; ++b) {
+				if (cells[a][b] != 0) {
+					result.add(quad(axis, plane, 16 + a, 16 + b, cells[a][b], orientation));
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Full-sprite quad on one block face.
+	 *
+	 * @param orientation Bit 0 swaps U and V, bits 1 and 2 mirror U and V.
+	 */
+	private static int[] quad(int axis, int plane, int a, int b, int kind, int orientation) {
+		final int[] quad = new int[QUAD_STRIDE];
+
+		for (int v = 0; v < 4; ++v) {
+			final int i = v * VERTEX_STRIDE;
+			final int corner = CORNERS[v];
+			final int da = corner & 1;
+			final int db = corner >> 1;
+			final int[] pos = new int[3];
+			pos[axis] = plane;
+			pos[(axis + 1) % 3] = a + da;
+			pos[(axis + 2) % 3] = b + db;
+
+			final int su = (orientation & 1) == 0 ? da : db;
+			final int sv = (orientation & 1) == 0 ? db : da;
+			final int u = su ^ ((orientation >> 1) & 1);
+			final int w = sv ^ ((orientation >> 2) & 1);
+
+			quad[i] = 5;
+			quad[i + 2] = pos[0] | (pos[1] << 8) | (pos[2] << 16) | (0xC0 << 24);
+			quad[i + 3] = 0xFF000000 | (kind * 0x404040);
+			quad[i + 4] = (u == 0 ? 0 : 0xFFFF) | ((w == 0 ? 0 : 0xFFFF) << 16);
+			quad[i + 5] = 0xF0 | (0xF0 << 8) | (kind << 16);
+			quad[i + 6] = 0x7F00;
+		}
+
+		return quad;
+	}
+
+	private static void assertEquivalent(ObjectArrayList<int[]> input, ObjectArrayList<int[]> output, int axis, int plane) {
+		for (int a = 16; a < 32; ++a) {
+			for (int b = 16; b < 32; ++b) {
+				for (int sa = 0; sa < SAMPLES; ++sa) {
+					for (int sb = 0; sb < SAMPLES; ++sb) {
+						final double pa = a + (sa + 0.5) / SAMPLES;
+						final double pb = b + (sb + 0.5) / SAMPLES;
+						final double[] expected = shade(input, axis, plane, pa, pb);
+						final double[] actual = shade(output, axis, plane, pa, pb);
+
+						if (expected == null) {
+							assert actual == null;
+						} else {
+							assert actual != null;
+
+							for (int i = 0; i < expected.length; ++i) {
+								assert Math.abs(expected[i] - actual[i]) < 1e-4 : "Sample mismatch";
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sprite coordinates and flat attributes of the one quad covering the point, or null
+	 * if no quad covers it. Fails if more than one quad covers it.
+	 */
+	private static double[] shade(ObjectArrayList<int[]> quads, int axis, int plane, double pa, double pb) {
+		double[] result = null;
+
+		for (final int[] quad : quads) {
+			assert QuadMerger.planeAxis(quad) == axis && QuadMerger.coordinate(quad, 0, axis) == plane;
+
+			int minA = Integer.MAX_VALUE, maxA = 0, minB = Integer.MAX_VALUE, maxB = 0;
+
+			for (int v = 0; v < 4; ++v) {
+				minA = Math.min(minA, QuadMerger.coordinate(quad, v, (axis + 1) % 3));
+				maxA = Math.max(maxA, QuadMerger.coordinate(quad, v, (axis + 1) % 3));
+				minB = Math.min(minB, QuadMerger.coordinate(quad, v, (axis + 2) % 3));
+				maxB = Math.max(maxB, QuadMerger.coordinate(quad, v, (axis + 2) % 3));
+			}
+
+			if (pa < minA || pa > maxA || pb < minB || pb > maxB) {
+				continue;
+			}
+
+			assert result == null : "Overlapping quads";
+
+			final double fa = (pa - minA) / (maxA - minA);
+			final double fb = (pb - minB) / (maxB - minB);
+			final int material = quad[5] >>> 16;
+			final boolean tiled = material >= TILED_OFFSET;
+			final double scale = tiled ? TILED_UV_UNIT : 0xFFFF;
+			double u = 0;
+			double w = 0;
+
+			for (int v = 0; v < 4; ++v) {
+				final int i = v * VERTEX_STRIDE;
+				final boolean isMaxA = QuadMerger.coordinate(quad, v, (axis + 1) % 3) == maxA;
+				final boolean isMaxB = QuadMerger.coordinate(quad, v, (axis + 2) % 3) == maxB;
+				final double weight = (isMaxA ? fa : 1 - fa) * (isMaxB ? fb : 1 - fb);
+				u += weight * (quad[i + 4] & 0xFFFF) / scale;
+				w += weight * (quad[i + 4] >>> 16) / scale;
+			}
+
+			if (tiled) {
+				u -= Math.floor(u);
+				w -= Math.floor(w);
+			}
+
+			final int baseMaterial = tiled ? material - TILED_OFFSET : material;
+			result = new double[] {u, w, quad[3], quad[5] & 0xFFFF, baseMaterial, quad[6], quad[0], quad[2] >>> 24};
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,115 @@
+package grondag.canvas.buffer.render;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that ranges of a segmented buffer are split into transfers
+ * from the right segments, offsets and target positions.
+ */
+class SegmentedTransferBufferTest {
+	/** Records each transfer as segment id, target start, source start and length. */
+	private static final IntArrayList TRANSFERS = new IntArrayList();
+
+	private static class FakeSegment implements TransferBuffer {
+		private final int id;
+		private final int sizeBytes;
+		private boolean released;
+
+		private FakeSegment(int id, int sizeBytes) {
+			this.id = id;
+			this.sizeBytes = sizeBytes;
+		}
+
+		@Override
+		public int sizeBytes() {
+			return sizeBytes;
+		}
+
+		@Override
+		public void transferToBoundBuffer(int target, int targetStartBytes, int sourceStartBytes, int lengthBytes) {
+			assert !released;
+			assert sourceStartBytes + lengthBytes <= sizeBytes;
+			TRANSFERS.add(id);
+			TRANSFERS.add(targetStartBytes);
+			TRANSFERS.add(sourceStartBytes);
+			TRANSFERS.add(lengthBytes);
+		}
+
+		@Override
+		public TransferBuffer release() {
+			released = true;
+			return null;
+		}
+
+		@Override
+		public void put(int[] source, int sourceStart, int targetStart, int length) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ShortBuffer shortBuffer() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ByteBuffer byteBuffer() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static FakeSegment[] fill(SegmentedTransferBuffer buffer) {
+		// claimed sizes are larger than used length, as with collector buffers
+		final FakeSegment[] result = {new FakeSegment(0, 4096), new FakeSegment(1, 4096), new FakeSegment(2, 8192)};
+		buffer.append(result[0], 100);
+		buffer.append(result[1], 200);
+		buffer.append(result[2], 300);
+		return result;
+	}
+
+	@Test
+	void wholeRangeTransfersEachSegmentInOrder() {
+		final SegmentedTransferBuffer buffer = new SegmentedTransferBuffer();
+		fill(buffer);
+		assert buffer.sizeBytes() == 600;
+
+		TRANSFERS.clear();
+		buffer.transferToBoundBuffer(0, 1000, 0, 600);
+		assert TRANSFERS.equals(IntArrayList.wrap(new int[] {
+			0, 1000, 0, 100,
+			1, 1100, 0, 200,
+			2, 1300, 0, 300}));
+	}
+
+	@Test
+	void partialRangeStartsAndEndsInsideSegments() {
+		final SegmentedTransferBuffer buffer = new SegmentedTransferBuffer();
+		fill(buffer);
+
+		TRANSFERS.clear();
+		buffer.transferToBoundBuffer(0, 0, 150, 300);
+		assert TRANSFERS.equals(IntArrayList.wrap(new int[] {
+			1, 0, 50, 150,
+			2, 150, 0, 150}));
+
+		TRANSFERS.clear();
+		buffer.transferToBoundBuffer(0, 8, 320, 20);
+		assert TRANSFERS.equals(IntArrayList.wrap(new int[] {2, 8, 20, 20}));
+	}
+
+	@Test
+	void releaseReleasesAllSegments() {
+		final SegmentedTransferBuffer buffer = new SegmentedTransferBuffer();
+		final FakeSegment[] segments = fill(buffer);
+
+		assert buffer.release() == null;
+		assert buffer.sizeBytes() == 0;
+
+		for (final FakeSegment segment : segments) {
+			assert segment.released;
+		}
+	}
+}
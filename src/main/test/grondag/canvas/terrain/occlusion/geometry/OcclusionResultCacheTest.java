@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2019, 2020 grondag
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ *  use this file except in compliance with the License.  You may obtain a copy
+ *  of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ *  License for the specific language governing permissions and limitations under
+ *  the License.
+ */
+
+package grondag.canvas.terrain.occlusion.geometry;
+
+import static grondag.canvas.terrain.util.RenderRegionStateIndexer.INTERIOR_STATE_COUNT;
+import static grondag.canvas.terrain.util.RenderRegionStateIndexer.TOTAL_STATE_COUNT;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import grondag.canvas.terrain.util.BlockStateTable;
+
+class OcclusionResultCacheTest {
+	private static class TestCalculator extends RegionOcclusionCalculator {
+		private final int[] flags;
+
+		TestCalculator(int[] flags) {
+			this.flags = flags;
+		}
+
+		@Override
+		protected int stateFlagsAtIndex(int regionIndex) {
+			return flags[regionIndex];
+		}
+
+		@Override
+		protected boolean closedAtRelativePos(int regionIndex) {
+			return false;
+		}
+	}
+
+	@Test
+	void cachedMatchesFresh() {
+		final Random random = new Random(7);
+
+		for (int pass = 0; pass < 100; ++pass) {
+			final double density = random.nextDouble();
+			final boolean isNear = random.nextBoolean();
+			final boolean advancedCulling = random.nextBoolean();
+			final int[] flags = new int[TOTAL_STATE_COUNT];
+
+			for (int i = 0; i < TOTAL_STATE_COUNT; ++i) {
+				flags[i] = random.nextDouble() < density ? BlockStateTable.RENDERS | BlockStateTable.OPAQUE : 0;
+			}
+
+			OcclusionResultCache.clear();
+
+			final TestCalculator fresh = new TestCalculator(flags);
+			fresh.prepare();
+			final OcclusionResult freshResult = fresh.build(isNear, advancedCulling);
+
+			final TestCalculator cached = new TestCalculator(flags);
+			cached.prepare();
+			final OcclusionResult cachedResult = cached.build(isNear, advancedCulling);
+
+			assert OcclusionResultCache.hitCount() == 1;
+			assert Arrays.equals(freshResult.occlusionData(), cachedResult.occlusionData());
+			assert freshResult.mutalFaceMask() == cachedResult.mutalFaceMask();
+
+			for (int i = 0; i < INTERIOR_STATE_COUNT; ++i) {
+				assert fresh.isClosed(i) == cached.isClosed(i);
+				assert fresh.shouldRender(i) == cached.shouldRender(i);
+			}
+
+			// any change to opacity must miss
+			final int changed = random.nextInt(INTERIOR_STATE_COUNT);
+			flags[changed] ^= BlockStateTable.RENDERS | BlockStateTable.OPAQUE;
+
+			final TestCalculator modified = new TestCalculator(flags);
+			modified.prepare();
+			modified.build(isNear, advancedCulling);
+
+			assert OcclusionResultCache.hitCount() == 1;
+		}
+	}
+}
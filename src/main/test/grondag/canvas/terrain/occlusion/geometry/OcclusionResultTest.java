@@ -16,8 +16,13 @@
 
 package grondag.canvas.terrain.occlusion.geometry;
 
+import java.util.Random;
+
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
 import org.junit.jupiter.api.Test;
 
+import io.vram.frex.api.model.util.FaceUtil;
+
 class OcclusionResultTest {
 	private static final int BIT_A = 1;
 	private static final int BIT_B = 2;
@@ -69,4 +74,115 @@ class OcclusionResultTest {
 		openMask = OcclusionResult.openFacesFlag(mutualMask, BIT_C);
 		assert openMask == 0;
 	}
+
+	@Test
+	void fillMatchesQueueFill() {
+		final Random random = new Random(42);
+		final long[] wordFill = new long[RegionOcclusionCalculator.WORD_COUNT];
+		final long[] queueFill = new long[RegionOcclusionCalculator.WORD_COUNT];
+		final long[] scratch = new long[64];
+		final IntArrayFIFOQueue queue = new IntArrayFIFOQueue();
+
+		for (int pass = 0; pass < 200; ++pass) {
+			// densities from nearly empty to nearly solid
+			final double density = random.nextDouble();
+
+			for (int w = 0; w < RegionOcclusionCalculator.WORD_COUNT; ++w) {
+				long closed = 0;
+
+				if (w < 64) {
+					for (int b = 0; b < 64; ++b) {
+						if (random.nextDouble() < density) {
+							closed |= 1L << b;
+						}
+					}
+				}
+
+				wordFill[w] = closed;
+				queueFill[w] = closed;
+			}
+
+			// visit seeds in random order, as exterior fills would
+			final int start = random.nextInt(4096);
+
+			for (int n = 0; n < 4096; ++n) {
+				final int seed = (start + n * 2731) & 4095;
+				final boolean wordOpen = visitSeed(wordFill, seed);
+				final boolean queueOpen = visitSeed(queueFill, seed);
+				assert wordOpen == queueOpen;
+
+				if (wordOpen) {
+					final int wordFaces = RegionOcclusionCalculator.fill(wordFill, scratch, seed);
+					final int queueFaces = queueFill(queueFill, queue, seed);
+					assert wordFaces == queueFaces;
+				}
+			}
+
+			for (int w = 0; w < RegionOcclusionCalculator.WORD_COUNT; ++w) {
+				assert wordFill[w] == queueFill[w];
+			}
+		}
+	}
+
+	private static boolean visitSeed(long[] bits, int index) {
+		final int word = index >> 6;
+		final long mask = 1L << (index & 63);
+
+		if ((bits[word + RegionOcclusionCalculator.EXTERIOR_VISIBLE_OFFSET] & mask) != 0) {
+			return false;
+		}
+
+		bits[word + RegionOcclusionCalculator.EXTERIOR_VISIBLE_OFFSET] |= mask;
+		return (bits[word] & mask) == 0;
+	}
+
+	/** Voxel-at-a-time fill the calculator used before word-parallel fill. */
+	private static int queueFill(long[] bits, IntArrayFIFOQueue queue, int seed) {
+		int faces = queueFace(seed);
+		queue.enqueue(seed);
+
+		while (!queue.isEmpty()) {
+			final int xyz4 = queue.dequeueInt();
+			final int x = xyz4 & 0xF;
+			final int y = xyz4 & 0xF0;
+			final int z = xyz4 & 0xF00;
+
+			if (x != 0) faces |= enqueIfUnvisited(bits, queue, xyz4 - 1);
+			if (x != 15) faces |= enqueIfUnvisited(bits, queue, xyz4 + 1);
+			if (y != 0) faces |= enqueIfUnvisited(bits, queue, xyz4 - 0x10);
+			if (y != 0xF0) faces |= enqueIfUnvisited(bits, queue, xyz4 + 0x10);
+			if (z != 0) faces |= enqueIfUnvisited(bits, queue, xyz4 - 0x100);
+			if (z != 0xF00) faces |= enqueIfUnvisited(bits, queue, xyz4 + 0x100);
+		}
+
+		return faces;
+	}
+
+	private static int enqueIfUnvisited(long[] bits, IntArrayFIFOQueue queue, int xyz4) {
+		if (visitSeed(bits, xyz4)) {
+			queue.enqueue(xyz4);
+			return queueFace(xyz4);
+		}
+
+		return 0;
+	}
+
+	private static int queueFace(int xyz4) {
+		final int x = xyz4 & 0xF;
+
+		if (x == 0) return FaceUtil.WEST_FLAG;
+		if (x == 15) return FaceUtil.EAST_FLAG;
+
+		final int y = xyz4 & 0xF0;
+
+		if (y == 0) return FaceUtil.DOWN_FLAG;
+		if (y == 0xF0) return FaceUtil.UP_FLAG;
+
+		final int z = xyz4 & 0xF00;
+
+		if (z == 0) return FaceUtil.NORTH_FLAG;
+		if (z == 0xF00) return FaceUtil.SOUTH_FLAG;
+
+		return 0;
+	}
 }
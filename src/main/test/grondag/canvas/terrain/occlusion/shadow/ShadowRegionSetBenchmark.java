@@ -0,0 +1,151 @@
+package grondag.canvas.terrain.occlusion.shadow;
+
+import static grondag.canvas.terrain.region.RenderRegionIndexer.CHUNK_DIAMETER_BITS;
+import static grondag.canvas.terrain.region.RenderRegionIndexer.MAX_LOADED_CHUNK_DIAMETER;
+import static grondag.canvas.terrain.region.RenderRegionIndexer.MAX_LOADED_CHUNK_RADIUS;
+import static grondag.canvas.terrain.region.RenderRegionIndexer.MAX_Y_REGIONS;
+import static grondag.canvas.terrain.region.RenderRegionIndexer.PADDED_REGION_INDEX_COUNT;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * One frame of shadow set use - clear, add every region, then iterate to completion
+ * once per cascade - for the dense padded array scan that {@link ShadowPotentiallyVisibleRegionSet}
+ * used before and for the sparse heap it uses now.
+ *
+ * <p>Both structures are modeled here with the same index and order keys as the real
+ * set, because the real set needs live regions. Occupancy is synthetic rather than
+ * recorded: every column within the render distance, over a band of region heights
+ * around the surface, added in random order. The light is overhead so Y is primary.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShadowRegionSetBenchmark {
+	private static final int CASCADE_COUNT = 4;
+
+	@Param({"8", "16", "32"})
+	int renderDistance;
+
+	@Param({"4", "12"})
+	int heightBand;
+
+	/** Packed rx, ry, rz of each region, in the order added. */
+	private final IntArrayList regions = new IntArrayList();
+
+	private final Object[] dense = new Object[PADDED_REGION_INDEX_COUNT];
+	private final ObjectArrayList<Object> sparse = new ObjectArrayList<>();
+	private final LongHeapPriorityQueue queue = new LongHeapPriorityQueue();
+	private final Object region = new Object();
+
+	@Setup
+	public void setup() {
+		regions.clear();
+		final int minY = (MAX_Y_REGIONS - heightBand) >> 1;
+
+		for (int dx = -renderDistance; dx <= renderDistance; ++dx) {
+			for (int dz = -renderDistance; dz <= renderDistance; ++dz) {
+				if (dx * dx + dz * dz <= renderDistance * renderDistance) {
+					for (int ry = minY; ry < minY + heightBand; ++ry) {
+						regions.add(index(MAX_LOADED_CHUNK_RADIUS + dx, ry, MAX_LOADED_CHUNK_RADIUS + dz));
+					}
+				}
+			}
+		}
+
+		final Random random = new Random(42);
+
+		for (int i = regions.size() - 1; i > 0; --i) {
+			final int j = random.nextInt(i + 1);
+			final int swap = regions.getInt(i);
+			regions.set(i, regions.getInt(j));
+			regions.set(j, swap);
+		}
+	}
+
+	/** Same layout as the dense set - x minor, then z, then y. */
+	private static int index(int rx, int ry, int rz) {
+		return rx | (rz << CHUNK_DIAMETER_BITS) | (ry << (CHUNK_DIAMETER_BITS * 2));
+	}
+
+	@Benchmark
+	public void dense(Blackhole blackhole) {
+		final Object[] dense = this.dense;
+		Arrays.fill(dense, null);
+
+		final int limit = regions.size();
+
+		for (int i = 0; i < limit; ++i) {
+			dense[regions.getInt(i)] = region;
+		}
+
+		for (int c = 0; c < CASCADE_COUNT; ++c) {
+			int found = 0;
+
+			for (int ry = 0; ry < MAX_Y_REGIONS; ++ry) {
+				for (int rz = 0; rz < MAX_LOADED_CHUNK_DIAMETER; ++rz) {
+					for (int rx = 0; rx < MAX_LOADED_CHUNK_DIAMETER; ++rx) {
+						if (dense[index(rx, ry, rz)] != null) {
+							++found;
+						}
+					}
+				}
+			}
+
+			blackhole.consume(found);
+		}
+	}
+
+	@Benchmark
+	public void sparse(Blackhole blackhole) {
+		final ObjectArrayList<Object> sparse = this.sparse;
+		final LongHeapPriorityQueue queue = this.queue;
+		sparse.clear();
+
+		final int limit = regions.size();
+
+		for (int i = 0; i < limit; ++i) {
+			sparse.add(region);
+		}
+
+		for (int c = 0; c < CASCADE_COUNT; ++c) {
+			queue.clear();
+
+			for (int i = 0; i < limit; ++i) {
+				// with Y primary the order key is the same as the dense index
+				queue.enqueue(((long) regions.getInt(i) << 32) | i);
+			}
+
+			int found = 0;
+
+			while (!queue.isEmpty()) {
+				if (sparse.get((int) queue.dequeueLong()) != null) {
+					++found;
+				}
+			}
+
+			blackhole.consume(found);
+		}
+	}
+}
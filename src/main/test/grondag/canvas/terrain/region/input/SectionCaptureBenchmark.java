@@ -0,0 +1,95 @@
+package grondag.canvas.terrain.region.input;
+
+import static grondag.canvas.terrain.util.RenderRegionStateIndexer.INTERIOR_STATE_COUNT;
+import static grondag.canvas.terrain.util.RenderRegionStateIndexer.interiorIndex;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+/**
+ * Interior capture of one section, comparing per-block {@link PalettedContainer#get(int, int, int)}
+ * as done before bulk capture with {@link SectionStateReader}. Needs Minecraft and the
+ * access widener on the class path.
+ *
+ * <p>State counts are chosen to exercise each section palette: single value,
+ * linear (4 bits), hash map (8 bits) and global.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SectionCaptureBenchmark {
+	@Param({"1", "16", "200", "600"})
+	int distinctStates;
+
+	private PalettedContainer<BlockState> section;
+	private final SectionStateReader reader = new SectionStateReader();
+	private final BlockState[] states = new BlockState[INTERIOR_STATE_COUNT];
+	private final int[] stateIds = new int[INTERIOR_STATE_COUNT];
+
+	@Setup
+	public void setup() {
+		SharedConstants.tryDetectVersion();
+		Bootstrap.bootStrap();
+
+		section = new PalettedContainer<>(Block.BLOCK_STATE_REGISTRY, Blocks.AIR.defaultBlockState(), PalettedContainer.Strategy.SECTION_STATES);
+		final Random random = new Random(42);
+
+		for (int i = 0; i < INTERIOR_STATE_COUNT; ++i) {
+			// skip air (id 0) so the single-state case is a uniform solid section
+			final BlockState state = Block.BLOCK_STATE_REGISTRY.byId(1 + (distinctStates == 1 ? 0 : random.nextInt(distinctStates)));
+			section.set(i & 0xF, i >> 8, (i >> 4) & 0xF, state);
+		}
+	}
+
+	@Benchmark
+	public void perBlock(Blackhole blackhole) {
+		final PalettedContainer<BlockState> section = this.section;
+
+		for (int x = 0; x < 16; x++) {
+			for (int y = 0; y < 16; y++) {
+				for (int z = 0; z < 16; z++) {
+					states[interiorIndex(x, y, z)] = section.get(x, y, z);
+				}
+			}
+		}
+
+		blackhole.consume(states);
+	}
+
+	@Benchmark
+	public void bulk(Blackhole blackhole) {
+		final int uniformId = reader.load(section);
+
+		if (uniformId == SectionStateReader.MIXED) {
+			reader.copyInterior(stateIds);
+		} else {
+			Arrays.fill(stateIds, 0, INTERIOR_STATE_COUNT, uniformId);
+		}
+
+		blackhole.consume(stateIds);
+	}
+}